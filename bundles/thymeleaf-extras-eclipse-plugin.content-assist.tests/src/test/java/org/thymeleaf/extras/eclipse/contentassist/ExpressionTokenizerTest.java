@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist;
+
+import org.junit.Test;
+import org.thymeleaf.extras.eclipse.contentassist.ExpressionToken.Type;
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+/**
+ * Tests for the expression tokenizer, mostly around the quotes of the
+ * attribute values it's given.
+ * 
+ * @author Emanuel Rabina
+ */
+public class ExpressionTokenizerTest {
+
+	/**
+	 * Check the type, offset and text of a token.
+	 * 
+	 * @param token
+	 * @param type
+	 * @param offset
+	 * @param text
+	 */
+	private static void assertToken(ExpressionToken token, Type type, int offset, String text) {
+
+		assertEquals(type, token.getType());
+		assertEquals(offset, token.getOffset());
+		assertEquals(text, token.getText());
+	}
+
+	/**
+	 * Expressions in a double-quoted attribute value are tokenized, with
+	 * offsets counted from the opening quote.
+	 */
+	@Test
+	public void doubleQuotedValue() {
+
+		List<ExpressionToken> tokens = ExpressionTokenizer.tokenize("\"${user.name}\"");
+
+		assertEquals(5, tokens.size());
+		assertToken(tokens.get(0), Type.EXPRESSION_START, 1, "${");
+		assertToken(tokens.get(1), Type.IDENTIFIER, 3, "user");
+		assertToken(tokens.get(2), Type.SYMBOL, 7, ".");
+		assertToken(tokens.get(3), Type.IDENTIFIER, 8, "name");
+		assertToken(tokens.get(4), Type.EXPRESSION_END, 12, "}");
+	}
+
+	/**
+	 * String literals inside a double-quoted attribute value are still
+	 * literals.
+	 */
+	@Test
+	public void literalInDoubleQuotedValue() {
+
+		List<ExpressionToken> tokens = ExpressionTokenizer.tokenize("\"${'a' + x}\"");
+
+		assertToken(tokens.get(1), Type.LITERAL, 3, "'a'");
+		assertToken(tokens.get(3), Type.IDENTIFIER, 9, "x");
+	}
+
+	/**
+	 * The quotes around a single-quoted attribute value aren't mistaken for a
+	 * string literal taking up the whole value.
+	 */
+	@Test
+	public void singleQuotedValue() {
+
+		List<ExpressionToken> tokens = ExpressionTokenizer.tokenize("'${#strings.abbreviate(x,5)}'");
+
+		assertEquals(8, tokens.size());
+		assertToken(tokens.get(0), Type.EXPRESSION_START, 1, "${");
+		assertToken(tokens.get(1), Type.EXPRESSION_OBJECT, 3, "#strings.abbreviate");
+		assertToken(tokens.get(2), Type.SYMBOL, 22, "(");
+		assertToken(tokens.get(3), Type.IDENTIFIER, 23, "x");
+		assertToken(tokens.get(4), Type.SYMBOL, 24, ",");
+		assertToken(tokens.get(5), Type.LITERAL, 25, "5");
+		assertToken(tokens.get(6), Type.SYMBOL, 26, ")");
+		assertToken(tokens.get(7), Type.EXPRESSION_END, 27, "}");
+	}
+
+	/**
+	 * Whitespace that follows the closing quote of a value, as is included in
+	 * the text of an attribute value region, is skipped along with the quote.
+	 */
+	@Test
+	public void trailingWhitespace() {
+
+		List<ExpressionToken> tokens = ExpressionTokenizer.tokenize("'${x}'  ");
+
+		assertEquals(3, tokens.size());
+		assertToken(tokens.get(2), Type.EXPRESSION_END, 4, "}");
+	}
+
+	/**
+	 * A value that's still being typed, with no closing quote yet, is
+	 * tokenized up to its end.
+	 */
+	@Test
+	public void unclosedValue() {
+
+		List<ExpressionToken> tokens = ExpressionTokenizer.tokenize("'${#str");
+
+		assertEquals(2, tokens.size());
+		assertToken(tokens.get(1), Type.EXPRESSION_OBJECT, 3, "#str");
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IJavaProject;
+import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
+import org.thymeleaf.extras.eclipse.message.cache.MessageCache;
+import org.thymeleaf.extras.eclipse.template.cache.TemplateCache;
+
+import java.util.HashSet;
+
+/**
+ * Background job for loading the dialects, templates and messages of a
+ * project into their caches, so that content assist never has to wait on a
+ * project being scanned for the first time.  Until the job is done, content assist works
+ * with whatever is already in the caches.
+ * 
+ * @author Emanuel Rabina
+ */
+public class CacheLoadJob extends Job {
+
+	private static final HashSet<IJavaProject> scheduledprojects = new HashSet<IJavaProject>();
+
+	private final IJavaProject project;
+
+	/**
+	 * Constructor, set the project to load.
+	 * 
+	 * @param project
+	 */
+	private CacheLoadJob(IJavaProject project) {
+
+		super("Loading Thymeleaf dialects, templates and messages for " + project.getElementName());
+		this.project = project;
+		setPriority(SHORT);
+	}
+
+	/**
+	 * Return whether or not the dialects, templates and messages of the given
+	 * project are all in their caches.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if queries against the project can be answered
+	 * 		   from memory.
+	 */
+	public static boolean isProjectLoaded(IJavaProject project) {
+
+		return DialectCache.isProjectLoaded(project) && TemplateCache.isProjectLoaded(project) &&
+				MessageCache.isProjectLoaded(project);
+	}
+
+	/**
+	 * Load the dialects, templates and messages of the given project in the
+	 * background, unless that's already been scheduled.
+	 * 
+	 * @param project
+	 */
+	public static synchronized void loadProject(IJavaProject project) {
+
+		if (scheduledprojects.add(project)) {
+			new CacheLoadJob(project).schedule();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+
+		try {
+			monitor.beginTask(getName(), 3);
+			DialectCache.loadProject(project, new SubProgressMonitor(monitor, 1));
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			TemplateCache.loadProject(project);
+			monitor.worked(1);
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			MessageCache.loadProject(project);
+			monitor.worked(1);
+			return Status.OK_STATUS;
+		}
+		catch (OperationCanceledException ex) {
+			return Status.CANCEL_STATUS;
+		}
+		finally {
+			monitor.done();
+			synchronized (CacheLoadJob.class) {
+				scheduledprojects.remove(project);
+			}
+		}
+	}
+}
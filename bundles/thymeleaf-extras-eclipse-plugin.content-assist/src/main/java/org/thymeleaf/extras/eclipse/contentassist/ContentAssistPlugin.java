@@ -16,22 +16,20 @@
 
 package org.thymeleaf.extras.eclipse.contentassist;
 
-import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.resource.ImageRegistry;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
-import org.eclipse.ui.IEditorPart;
-import org.eclipse.ui.IFileEditorInput;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.eclipse.wst.html.ui.internal.HTMLUIPlugin;
 import org.eclipse.wst.html.ui.internal.preferences.HTMLUIPreferenceNames;
 import org.osgi.framework.BundleContext;
+import org.thymeleaf.extras.eclipse.contentassist.autocomplete.CompletionProposalComputer;
 
 /**
  * Plugin activator class for the Thymeleaf content assist module.
@@ -49,27 +47,15 @@ public class ContentAssistPlugin extends AbstractUIPlugin {
 	public static final String IMAGE_ELEMENT_PROCESSOR           = "element-processor";
 	public static final String IMAGE_EXPRESSION_OBJECT_METHOD    = "expression-object-method";
 
+	public static final String DEBUG_PROPOSALS = "/debug/proposals";
+
+	// Milliseconds content assist has to come up with proposals
+	public static final String LATENCY_BUDGET_PREF = "latencyBudget";
+
 	static final String AUTO_PROPOSE_PREF = "autoProposeOn";
 
 	private static ContentAssistPlugin plugin;
 
-	/**
-	 * Find the Eclipse project for the file the user is working on.
-	 * 
-	 * @return The project owning the file the user has open.
-	 */
-	public static IJavaProject findCurrentJavaProject() {
-
-		IEditorPart editor = getDefault().getWorkbench().getWorkbenchWindows()[0]
-				.getActivePage().getActiveEditor();
-		IFile file = ((IFileEditorInput)editor.getEditorInput()).getFile();
-		IProject project = file.getProject();
-		if (isJavaProject(project)) {
-			return JavaCore.create(project);
-		}
-		return null;
-	}
-
 	/**
 	 * Returns the shared instance of this plugin.
 	 *
@@ -138,6 +124,20 @@ public class ContentAssistPlugin extends AbstractUIPlugin {
 		plugin.getLog().log(new Status(Status.INFO, PLUGIN_ID, message));
 	}
 
+	/**
+	 * Logs an information message to the Eclipse logger, but only if the given
+	 * debug option has been turned on for this plugin.
+	 * 
+	 * @param option  Debug option, relative to the plugin ID.
+	 * @param message
+	 */
+	public static void logTrace(String option, String message) {
+
+		if (plugin.isDebugging() && Boolean.parseBoolean(Platform.getDebugOption(PLUGIN_ID + option))) {
+			logInfo(message);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -175,6 +175,8 @@ public class ContentAssistPlugin extends AbstractUIPlugin {
 	@Override
 	public void stop(BundleContext context) throws Exception {
 
+		CompletionProposalComputer.shutdown();
+		UsageStatistics.shutdown();
 		plugin = null;
 		super.stop(context);
 	}
@@ -35,5 +35,6 @@ public class ContentAssistPreferenceInitializer extends AbstractPreferenceInitia
 
 		IPreferenceStore preferences = getDefault().getPreferenceStore();
 		preferences.setDefault(AUTO_PROPOSE_PREF, true);
+		preferences.setDefault(LATENCY_BUDGET_PREF, 50);
 	}
 }
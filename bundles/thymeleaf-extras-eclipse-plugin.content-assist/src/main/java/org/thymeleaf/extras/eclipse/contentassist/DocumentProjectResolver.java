@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.wst.sse.core.StructuredModelManager;
+import org.eclipse.wst.sse.core.internal.model.ModelLifecycleEvent;
+import org.eclipse.wst.sse.core.internal.provisional.IModelLifecycleListener;
+import org.eclipse.wst.sse.core.internal.provisional.IStructuredModel;
+import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
+
+import java.util.HashMap;
+
+/**
+ * Resolves the Java project of the file behind a structured model, keeping
+ * the answer for as long as that model is around.  Projects are worked out
+ * from the model's base location the first time they're asked for, and
+ * forgotten once the model is released or reinitialized, so that content
+ * assist never has to go through the workbench to find out which project the
+ * user is working in.
+ * 
+ * @author Emanuel Rabina
+ */
+@SuppressWarnings("restriction")
+public class DocumentProjectResolver {
+
+	private static final HashMap<IStructuredModel,IJavaProject> projects =
+			new HashMap<IStructuredModel,IJavaProject>();
+
+	private static final IModelLifecycleListener evictionlistener = new IModelLifecycleListener() {
+		@Override
+		public void processPostModelEvent(ModelLifecycleEvent event) {
+			if (event.getType() == ModelLifecycleEvent.MODEL_RELEASED ||
+				event.getType() == ModelLifecycleEvent.MODEL_REINITIALIZED) {
+				evict(event.getModel());
+			}
+		}
+		@Override
+		public void processPreModelEvent(ModelLifecycleEvent event) {
+		}
+	};
+
+	/**
+	 * Hidden default constructor, as this class is only ever meant to be used
+	 * statically.
+	 */
+	private DocumentProjectResolver() {
+	}
+
+	/**
+	 * Forget the project of the given model.
+	 * 
+	 * @param model
+	 */
+	private static synchronized void evict(IStructuredModel model) {
+
+		if (projects.containsKey(model)) {
+			projects.remove(model);
+			model.removeModelLifecycleListener(evictionlistener);
+		}
+	}
+
+	/**
+	 * Find the Java project of the file at the model's base location.
+	 * 
+	 * @param model
+	 * @return Java project of the file, or <tt>null</tt> if the model isn't of
+	 * 		   a file in a Java project.
+	 */
+	private static IJavaProject findJavaProject(IStructuredModel model) {
+
+		String baselocation = model.getBaseLocation();
+		if (baselocation == null) {
+			return null;
+		}
+		try {
+			IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile(new Path(baselocation));
+			IProject project = file.getProject();
+			return project.isAccessible() && isJavaProject(project) ? JavaCore.create(project) : null;
+		}
+		catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Return the Java project of the file being edited in the given document.
+	 * 
+	 * @param document
+	 * @return Java project of the document's file, or <tt>null</tt> if the
+	 * 		   document isn't backed by a model of a file in a Java project.
+	 */
+	public static IJavaProject getJavaProject(IDocument document) {
+
+		IStructuredModel model = StructuredModelManager.getModelManager().getExistingModelForRead(document);
+		if (model == null) {
+			return null;
+		}
+		try {
+			return getJavaProject(model);
+		}
+		finally {
+			model.releaseFromRead();
+		}
+	}
+
+	/**
+	 * Return the Java project of the file the given model was created for.
+	 * 
+	 * @param model
+	 * @return Java project of the model's file, or <tt>null</tt> if the model
+	 * 		   isn't of a file in a Java project.
+	 */
+	public static synchronized IJavaProject getJavaProject(IStructuredModel model) {
+
+		if (!projects.containsKey(model)) {
+			projects.put(model, findJavaProject(model));
+			model.addModelLifecycleListener(evictionlistener);
+		}
+		return projects.get(model);
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist;
+
+import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
+import org.thymeleaf.extras.eclipse.dialect.cache.MethodSignature;
+import org.thymeleaf.extras.eclipse.dialect.cache.MethodSignatureResolver;
+import org.thymeleaf.extras.eclipse.dialect.xml.AttributeProcessor;
+import org.thymeleaf.extras.eclipse.dialect.xml.AttributeRestrictions;
+import org.thymeleaf.extras.eclipse.dialect.xml.DialectItem;
+import org.thymeleaf.extras.eclipse.dialect.xml.Documentation;
+import org.thymeleaf.extras.eclipse.dialect.xml.ExpressionObjectMethod;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of the HTML documentation shown alongside dialect items, both in
+ * content assist and in hovers.  Documentation for an item is only generated
+ * the first time it's asked for, and is then kept for as long as the dialects
+ * stay the same.  Items are held by identity, as reloading a dialect creates
+ * new items even when their names don't change.  Only the most recently used
+ * documentation is kept, so that browsing through large dialects doesn't
+ * hold on to the documentation of every item.
+ * 
+ * @author Emanuel Rabina
+ */
+public class DocumentationCache {
+
+	private static final int MAX_ENTRIES = 200;
+
+	@SuppressWarnings("serial")
+	private static final LinkedHashMap<ItemKey,String> documentation =
+			new LinkedHashMap<ItemKey,String>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<ItemKey,String> eldest) {
+					return size() > MAX_ENTRIES;
+				}
+			};
+	private static long documentationgeneration = -1;
+
+	/**
+	 * Creates the documentation/help text, either from a &lt;documentation&gt;
+	 * element in a dialect XML help file, or if that isn't present, the
+	 * Javadocs of that item if it's source code is available on a project.
+	 * 
+	 * @param dialectitem
+	 * @return Documentation string.
+	 */
+	private static String generateDocumentation(DialectItem dialectitem) {
+
+		StringBuilder doctext = new StringBuilder();
+
+		// Documentation from <documentation> element
+		if (dialectitem.isSetDocumentation()) {
+			Documentation documentation = dialectitem.getDocumentation();
+
+			doctext.append(documentation.getValue());
+
+			// Generate 'see also' text
+			if (documentation.isSetSeeAlso()) {
+				doctext.append("<br/><dl><dt>See also:</dt><dd>");
+				List<String> seealsolist = documentation.getSeeAlso();
+				for (int i = 0; i < seealsolist.size(); i++) {
+					String seealso = seealsolist.get(i);
+					if (!seealso.contains(".") && !seealso.contains(":")) {
+						doctext.append(dialectitem.getDialect().getPrefix() + ":");
+					}
+					doctext.append(i < seealsolist.size() - 1 ? seealso + ", " : seealso);
+				}
+				doctext.append("</dd>");
+			}
+
+			// Generate 'document reference' text
+			if (documentation.isSetReference()) {
+				doctext.append((documentation.isSetSeeAlso() ? "<dt>" : "<br/><dl><dt>") + "Reference:</dt><dd>");
+				doctext.append(documentation.getReference()).append("</dd>");
+			}
+
+			if (documentation.isSetSeeAlso() || documentation.isSetReference()) {
+				doctext.append("</dl>");
+			}
+		}
+
+		// Generate 'signatures' text, resolving them now that they're needed
+		if (dialectitem instanceof ExpressionObjectMethod) {
+			List<MethodSignature> signatures = MethodSignatureResolver.getSignatures(
+					(ExpressionObjectMethod)dialectitem);
+			if (!signatures.isEmpty()) {
+				doctext.append("<dl><dt>Signature(s):</dt>");
+				for (MethodSignature signature: signatures) {
+					doctext.append("<dd>" + signature.toString().replace("<", "&lt;").replace(">", "&gt;") +
+							"</dd>");
+				}
+				doctext.append("</dl>");
+			}
+		}
+
+		// Generate 'restrictions' text
+		if (dialectitem instanceof AttributeProcessor) {
+			AttributeProcessor attributeprocessor = (AttributeProcessor)dialectitem;
+			if (attributeprocessor.isSetRestrictions()) {
+				AttributeRestrictions restrictions = ((AttributeProcessor)dialectitem).getRestrictions();
+				if (restrictions.isSetTags() || restrictions.isSetAttributes() || restrictions.isSetValues()) {
+					doctext.append("<dl>");
+				}
+
+				// Tags the processor can/can't appear in
+				if (restrictions.isSetTags()) {
+					doctext.append(generateDocumentationRestrictions(restrictions.getTags(),
+							"Must appear in tag(s):", "Cannot appear in tag(s):"));
+				}
+
+				// Attributes the processor can/can't appear alongside
+				if (restrictions.isSetAttributes()) {
+					doctext.append(generateDocumentationRestrictions(restrictions.getAttributes(),
+							"Must appear with attribute(s):", "Cannot appear with attribute(s):"));
+				}
+
+				// Values the processor is restricted to
+				if (restrictions.isSetValues()) {
+					doctext.append("<dt>Possible value(s):</dt><dd>");
+					List<String> values = restrictions.getValues();
+					for (int i = 0; i < values.size(); i++) {
+						String value = values.get(i);
+						doctext.append(i < values.size() - 1 ? value + ", " : value);
+					}
+					doctext.append("</dd>");
+				}
+
+				if (restrictions.isSetTags() || restrictions.isSetAttributes() || restrictions.isSetValues()) {
+					doctext.append("</dl>");
+				}
+			}
+		}
+
+		return doctext.length() > 0 ? doctext.toString() : null;
+	}
+
+	/**
+	 * Creates the help text around attribute restriction tags/attributes.
+	 * 
+	 * @param restrictions Space-separated list of tags/attributes that the
+	 * 					   processor can/cannot appear alongside.
+	 * @param yestext	   Text for when the restriction indicates the processor
+	 * 					   must appear with that restriction.
+	 * @param notext	   Text for when the restriction indicates the processor
+	 * 					   must not appear with that restriction.
+	 * @return <tt>StringBuilder</tt> containing the restriction text.
+	 */
+	private static StringBuilder generateDocumentationRestrictions(List<String> restrictions,
+		String yestext, String notext) {
+
+		StringBuilder doctext = new StringBuilder();
+
+		ArrayList<String> yestags = new ArrayList<String>();
+		ArrayList<String> notags  = new ArrayList<String>();
+		for (String tag: restrictions) {
+			if (tag.startsWith("-")) {
+				notags.add(tag);
+			}
+			else {
+				yestags.add(tag);
+			}
+		}
+		if (!yestags.isEmpty()) {
+			doctext.append("<dt>" + yestext + "</dt>");
+			for (String yestag: yestags) {
+				doctext.append("<dd>" + yestag + "</dd>");
+			}
+		}
+		if (!notags.isEmpty()) {
+			doctext.append("<dt>" + notext + "</dt>");
+			for (String notag: notags) {
+				doctext.append("<dd>" + notag.substring(1) + "</dd>");
+			}
+		}
+
+		return doctext;
+	}
+
+	/**
+	 * Return the documentation for a dialect item, generating it if this is
+	 * the first time it's been asked for since the dialects last changed.
+	 * 
+	 * @param dialectitem
+	 * @return Documentation string, or <tt>null</tt> if the item has no
+	 * 		   documentation.
+	 */
+	public static synchronized String getDocumentation(DialectItem dialectitem) {
+
+		long generation = DialectCache.getGeneration();
+		if (generation != documentationgeneration) {
+			documentation.clear();
+			documentationgeneration = generation;
+		}
+
+		ItemKey key = new ItemKey(dialectitem);
+		if (!documentation.containsKey(key)) {
+			documentation.put(key, generateDocumentation(dialectitem));
+		}
+		return documentation.get(key);
+	}
+
+
+	/**
+	 * Map key that compares dialect items by identity rather than by their
+	 * <tt>equals()</tt> methods.
+	 */
+	private static class ItemKey {
+
+		private final DialectItem dialectitem;
+
+		/**
+		 * Constructor, set the dialect item.
+		 * 
+		 * @param dialectitem
+		 */
+		private ItemKey(DialectItem dialectitem) {
+
+			this.dialectitem = dialectitem;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object other) {
+
+			return other instanceof ItemKey && ((ItemKey)other).dialectitem == dialectitem;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+
+			return System.identityHashCode(dialectitem);
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist;
+
+/**
+ * A single token of a Thymeleaf expression, as picked out by the
+ * {@link ExpressionTokenizer}.  Offsets are relative to whatever text was
+ * tokenized, unless the token came from
+ * {@link ExpressionTokenCache#getTokenAt}.
+ * 
+ * @author Emanuel Rabina
+ */
+public final class ExpressionToken {
+
+	/**
+	 * The kinds of token in an expression.
+	 */
+	public static enum Type {
+
+		// The opening of an expression: ${ *{ #{ @{ ~{
+		EXPRESSION_START,
+
+		// The closing } of an expression
+		EXPRESSION_END,
+
+		// An expression object or one of its methods: #obj or #obj.method
+		EXPRESSION_OBJECT,
+
+		// A variable, property or method name
+		IDENTIFIER,
+
+		// A string or number literal
+		LITERAL,
+
+		// Any other character, eg: operators and brackets
+		SYMBOL
+	}
+
+	private final Type type;
+	private final int offset;
+	private final String text;
+
+	/**
+	 * Constructor, set the token information.
+	 * 
+	 * @param type
+	 * @param offset
+	 * @param text
+	 */
+	ExpressionToken(Type type, int offset, String text) {
+
+		this.type   = type;
+		this.offset = offset;
+		this.text   = text;
+	}
+
+	/**
+	 * Returns whether or not the given offset falls on this token, counting
+	 * the position just after the last character of it.
+	 * 
+	 * @param position
+	 * @return <tt>true</tt> if the position is within or just after this token.
+	 */
+	public boolean contains(int position) {
+
+		return position >= offset && position <= offset + text.length();
+	}
+
+	/**
+	 * Return the length of the token.
+	 * 
+	 * @return Token length.
+	 */
+	public int getLength() {
+
+		return text.length();
+	}
+
+	/**
+	 * Return the offset of the token.
+	 * 
+	 * @return Token offset.
+	 */
+	public int getOffset() {
+
+		return offset;
+	}
+
+	/**
+	 * Return the text of the token.
+	 * 
+	 * @return Token text.
+	 */
+	public String getText() {
+
+		return text;
+	}
+
+	/**
+	 * Return the kind of token this is.
+	 * 
+	 * @return Token type.
+	 */
+	public Type getType() {
+
+		return type;
+	}
+
+	/**
+	 * Return a copy of this token, moved along by the given amount.
+	 * 
+	 * @param distance
+	 * @return Token at <tt>offset + distance</tt>.
+	 */
+	ExpressionToken moveBy(int distance) {
+
+		return new ExpressionToken(type, offset + distance, text);
+	}
+}
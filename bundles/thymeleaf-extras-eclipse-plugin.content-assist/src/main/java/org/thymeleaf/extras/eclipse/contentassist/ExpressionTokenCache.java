@@ -0,0 +1,195 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist;
+
+import org.eclipse.wst.sse.core.internal.provisional.events.IStructuredDocumentListener;
+import org.eclipse.wst.sse.core.internal.provisional.events.NewDocumentEvent;
+import org.eclipse.wst.sse.core.internal.provisional.events.NoChangeEvent;
+import org.eclipse.wst.sse.core.internal.provisional.events.RegionChangedEvent;
+import org.eclipse.wst.sse.core.internal.provisional.events.RegionsReplacedEvent;
+import org.eclipse.wst.sse.core.internal.provisional.events.StructuredDocumentRegionsReplacedEvent;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegionList;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegionList;
+import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.WeakHashMap;
+
+/**
+ * Cache of the expression tokens of each attribute value in a document, held
+ * against the text region of that attribute value.  An attribute value is
+ * tokenized the first time it's asked for, and then only again after an edit
+ * changes or replaces its region, so that repeated hovers over the same
+ * expression don't have to scan it each time.
+ * 
+ * @author Emanuel Rabina
+ */
+@SuppressWarnings("restriction")
+public class ExpressionTokenCache {
+
+	private static final WeakHashMap<IStructuredDocument,DocumentTokens> documenttokens =
+			new WeakHashMap<IStructuredDocument,DocumentTokens>();
+
+	/**
+	 * Return the token store of a document, creating it if this is the first
+	 * time the document has been seen.
+	 * 
+	 * @param document
+	 * @return Token store of the document.
+	 */
+	private static synchronized DocumentTokens getDocumentTokens(IStructuredDocument document) {
+
+		DocumentTokens tokens = documenttokens.get(document);
+		if (tokens == null) {
+			tokens = new DocumentTokens();
+			document.addDocumentChangedListener(tokens);
+			documenttokens.put(document, tokens);
+		}
+		return tokens;
+	}
+
+	/**
+	 * Return the expression token at the given offset in a document, if the
+	 * offset is in an attribute value.
+	 * 
+	 * @param document
+	 * @param offset
+	 * @return The token at the offset, with its offset in document
+	 * 		   coordinates, or <tt>null</tt> if the offset isn't on a token in
+	 * 		   an attribute value.
+	 */
+	public static ExpressionToken getTokenAt(IStructuredDocument document, int offset) {
+
+		IStructuredDocumentRegion documentregion = document.getRegionAtCharacterOffset(offset);
+		if (documentregion == null) {
+			return null;
+		}
+		ITextRegion textregion = documentregion.getRegionAtCharacterOffset(offset);
+		if (textregion == null || textregion.getType() != DOMRegionContext.XML_TAG_ATTRIBUTE_VALUE) {
+			return null;
+		}
+
+		int regionstart = documentregion.getStartOffset(textregion);
+		for (ExpressionToken token: getTokens(document, documentregion, textregion)) {
+			if (token.contains(offset - regionstart)) {
+				return token.moveBy(regionstart);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return the expression tokens of an attribute value.
+	 * 
+	 * @param document
+	 * @param documentregion
+	 * @param textregion	 The attribute value region.
+	 * @return List of tokens, with offsets relative to the start of the text
+	 * 		   region.
+	 */
+	public static List<ExpressionToken> getTokens(IStructuredDocument document,
+		IStructuredDocumentRegion documentregion, ITextRegion textregion) {
+
+		DocumentTokens tokens = getDocumentTokens(document);
+		synchronized (tokens) {
+			List<ExpressionToken> regiontokens = tokens.regiontokens.get(textregion);
+			if (regiontokens == null) {
+				regiontokens = ExpressionTokenizer.tokenize(documentregion.getFullText(textregion));
+				tokens.regiontokens.put(textregion, regiontokens);
+			}
+			return regiontokens;
+		}
+	}
+
+	/**
+	 * The tokens of the attribute values of a single document, which forget
+	 * the tokens of any region changed or replaced by an edit.
+	 */
+	private static class DocumentTokens implements IStructuredDocumentListener {
+
+		private final IdentityHashMap<ITextRegion,List<ExpressionToken>> regiontokens =
+				new IdentityHashMap<ITextRegion,List<ExpressionToken>>();
+
+		/**
+		 * Forget the tokens of all of the given text regions.
+		 * 
+		 * @param textregions
+		 */
+		private void forgetRegions(ITextRegionList textregions) {
+
+			if (textregions != null) {
+				for (int i = 0; i < textregions.size(); i++) {
+					regiontokens.remove(textregions.get(i));
+				}
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public synchronized void newModel(NewDocumentEvent event) {
+
+			regiontokens.clear();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void noChange(NoChangeEvent event) {
+
+			// Does nothing - don't care about this one right now
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public synchronized void nodesReplaced(StructuredDocumentRegionsReplacedEvent event) {
+
+			IStructuredDocumentRegionList oldregions = event.getOldStructuredDocumentRegions();
+			if (oldregions != null) {
+				for (int i = 0; i < oldregions.getLength(); i++) {
+					forgetRegions(oldregions.item(i).getRegions());
+				}
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public synchronized void regionChanged(RegionChangedEvent event) {
+
+			regiontokens.remove(event.getRegion());
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public synchronized void regionsReplaced(RegionsReplacedEvent event) {
+
+			forgetRegions(event.getOldRegions());
+		}
+	}
+}
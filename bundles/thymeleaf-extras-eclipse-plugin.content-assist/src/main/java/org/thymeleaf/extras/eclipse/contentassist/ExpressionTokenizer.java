@@ -0,0 +1,171 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist;
+
+import org.thymeleaf.extras.eclipse.contentassist.ExpressionToken.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A lightweight, single-pass tokenizer for the Thymeleaf expressions in an
+ * attribute value.  It only understands enough of the expression language to
+ * know where expressions start and end, and where the expression objects,
+ * names and literals in them are, which is all that hovers and content assist
+ * need.  Whitespace and the quotes around the attribute value, whichever kind
+ * they are, are skipped.
+ * 
+ * @author Emanuel Rabina
+ */
+public class ExpressionTokenizer {
+
+	/**
+	 * Hidden default constructor as this class is only to be used statically.
+	 */
+	private ExpressionTokenizer() {
+	}
+
+	/**
+	 * Returns whether or not the given character can start an expression when
+	 * followed by a <tt>{</tt>.
+	 * 
+	 * @param c
+	 * @return <tt>true</tt> for one of: <tt>$ * # @ ~</tt>
+	 */
+	private static boolean isExpressionPrefix(char c) {
+
+		return c == '$' || c == '*' || c == '#' || c == '@' || c == '~';
+	}
+
+	/**
+	 * Returns whether or not an identifier starts at the given position.
+	 * 
+	 * @param text
+	 * @param position
+	 * @return <tt>true</tt> if the character at the position can start a Java
+	 * 		   identifier.
+	 */
+	private static boolean isIdentifierStart(String text, int position) {
+
+		return position < text.length() && Character.isJavaIdentifierStart(text.charAt(position));
+	}
+
+	/**
+	 * Return the position just after the identifier that starts at the given
+	 * position.
+	 * 
+	 * @param text
+	 * @param position
+	 * @return Position of the first character that isn't part of the
+	 * 		   identifier.
+	 */
+	private static int skipIdentifier(String text, int position) {
+
+		while (position < text.length() && Character.isJavaIdentifierPart(text.charAt(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * Split the given text into expression tokens.
+	 * 
+	 * @param text Attribute value text, with or without its quotes, and
+	 * 			   possibly followed by whitespace.
+	 * @return List of tokens, with offsets relative to the start of the text.
+	 */
+	public static List<ExpressionToken> tokenize(String text) {
+
+		ArrayList<ExpressionToken> tokens = new ArrayList<ExpressionToken>();
+
+		// Leave out the quotes around the value, so that a single-quoted value
+		// isn't mistaken for one long string literal
+		int position = 0;
+		int end = text.length();
+		while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+			end--;
+		}
+		if (end > 0 && (text.charAt(0) == '"' || text.charAt(0) == '\'')) {
+			position = 1;
+			if (end > 1 && text.charAt(end - 1) == text.charAt(0)) {
+				end--;
+			}
+		}
+		text = text.substring(0, end);
+
+		while (position < text.length()) {
+			char c = text.charAt(position);
+			int start = position;
+			Type type;
+
+			if (Character.isWhitespace(c)) {
+				position++;
+				continue;
+			}
+
+			// ${ *{ #{ @{ ~{
+			if (isExpressionPrefix(c) && position + 1 < text.length() && text.charAt(position + 1) == '{') {
+				type = Type.EXPRESSION_START;
+				position += 2;
+			}
+			else if (c == '}') {
+				type = Type.EXPRESSION_END;
+				position++;
+			}
+
+			// #obj and #obj.method
+			else if (c == '#' && isIdentifierStart(text, position + 1)) {
+				type = Type.EXPRESSION_OBJECT;
+				position = skipIdentifier(text, position + 1);
+				if (position < text.length() && text.charAt(position) == '.' &&
+					isIdentifierStart(text, position + 1)) {
+					position = skipIdentifier(text, position + 1);
+				}
+			}
+			else if (Character.isJavaIdentifierStart(c)) {
+				type = Type.IDENTIFIER;
+				position = skipIdentifier(text, position);
+			}
+
+			// 'string' and numbers
+			else if (c == '\'') {
+				type = Type.LITERAL;
+				position++;
+				while (position < text.length() && text.charAt(position) != '\'') {
+					position += text.charAt(position) == '\\' ? 2 : 1;
+				}
+				position = Math.min(position + 1, text.length());
+			}
+			else if (Character.isDigit(c)) {
+				type = Type.LITERAL;
+				while (position < text.length() &&
+					(Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+					position++;
+				}
+			}
+			else {
+				type = Type.SYMBOL;
+				position++;
+			}
+
+			tokens.add(new ExpressionToken(type, start, text.substring(start, position)));
+		}
+
+		return Collections.unmodifiableList(tokens);
+	}
+}
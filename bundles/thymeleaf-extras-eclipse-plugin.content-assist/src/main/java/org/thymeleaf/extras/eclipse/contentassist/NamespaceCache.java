@@ -0,0 +1,253 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist;
+
+import org.eclipse.wst.sse.core.internal.provisional.IStructuredModel;
+import org.eclipse.wst.sse.core.internal.provisional.events.IStructuredDocumentListener;
+import org.eclipse.wst.sse.core.internal.provisional.events.NewDocumentEvent;
+import org.eclipse.wst.sse.core.internal.provisional.events.NoChangeEvent;
+import org.eclipse.wst.sse.core.internal.provisional.events.RegionChangedEvent;
+import org.eclipse.wst.sse.core.internal.provisional.events.RegionsReplacedEvent;
+import org.eclipse.wst.sse.core.internal.provisional.events.StructuredDocumentEvent;
+import org.eclipse.wst.sse.core.internal.provisional.events.StructuredDocumentRegionsReplacedEvent;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegionList;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegionList;
+import org.eclipse.wst.xml.core.internal.provisional.document.IDOMModel;
+import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
+import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.WeakHashMap;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Cache of the <tt>xmlns:</tt> prefix-to-URI bindings declared in a document,
+ * held against that document's structured model.  The bindings are worked out
+ * once, and then only again after an edit touches an <tt>xmlns:</tt>
+ * attribute, so that looking up the namespaces at a node no longer means
+ * walking all the way up the tree from it.
+ * 
+ * @author Emanuel Rabina
+ */
+@SuppressWarnings("restriction")
+public class NamespaceCache {
+
+	private static final WeakHashMap<IStructuredModel,NamespaceBindings> bindings =
+			new WeakHashMap<IStructuredModel,NamespaceBindings>();
+
+	/**
+	 * Collect the namespaces declared on the given node and all of its
+	 * children.
+	 * 
+	 * @param node
+	 * @param namespaces
+	 */
+	private static void findNamespaces(Node node, ArrayList<QName> namespaces) {
+
+		if (node instanceof Element) {
+			NamedNodeMap attributes = node.getAttributes();
+			for (int i = 0; i < attributes.getLength(); i++) {
+				String name = ((Attr)attributes.item(i)).getName();
+				if (name.startsWith("xmlns:")) {
+					QName namespace = new QName(((Element)node).getAttribute(name), "", name.substring(6));
+					if (!namespaces.contains(namespace)) {
+						namespaces.add(namespace);
+					}
+				}
+			}
+		}
+		for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+			findNamespaces(child, namespaces);
+		}
+	}
+
+	/**
+	 * Return a list of the namespaces valid at the given node, by walking up
+	 * the tree from it.
+	 * 
+	 * @param node
+	 * @return List of namespaces known to this node.
+	 */
+	private static ArrayList<QName> findNamespacesInTree(Node node) {
+
+		ArrayList<QName> namespaces = new ArrayList<QName>();
+
+		if (node instanceof Element) {
+			NamedNodeMap attributes = node.getAttributes();
+			for (int i = 0; i < attributes.getLength(); i++) {
+				String name = ((Attr)attributes.item(i)).getName();
+				if (name.startsWith("xmlns:")) {
+					namespaces.add(new QName(((Element)node).getAttribute(name), "", name.substring(6)));
+				}
+			}
+		}
+		Node parent = node.getParentNode();
+		if (parent != null) {
+			namespaces.addAll(findNamespacesInTree(parent));
+		}
+
+		return namespaces;
+	}
+
+	/**
+	 * Return the namespaces declared in the document of the given model.
+	 * 
+	 * @param model
+	 * @return List of the namespaces declared in the model's document.
+	 */
+	public static synchronized List<QName> getNamespaces(IDOMModel model) {
+
+		NamespaceBindings modelbindings = bindings.get(model);
+		if (modelbindings == null) {
+			modelbindings = new NamespaceBindings();
+			model.getStructuredDocument().addDocumentChangedListener(modelbindings);
+			bindings.put(model, modelbindings);
+		}
+		if (modelbindings.namespaces == null) {
+			ArrayList<QName> namespaces = new ArrayList<QName>();
+			findNamespaces(model.getDocument(), namespaces);
+			modelbindings.namespaces = Collections.unmodifiableList(namespaces);
+		}
+		return modelbindings.namespaces;
+	}
+
+	/**
+	 * Return a list of the namespaces valid at the given node.  For nodes of a
+	 * structured model, these are the namespaces cached against the model.
+	 * 
+	 * @param node
+	 * @return List of namespaces known to this node.
+	 */
+	public static List<QName> getNamespaces(Node node) {
+
+		if (node instanceof IDOMNode) {
+			IStructuredModel model = ((IDOMNode)node).getModel();
+			if (model instanceof IDOMModel) {
+				return getNamespaces((IDOMModel)model);
+			}
+		}
+		return findNamespacesInTree(node);
+	}
+
+	/**
+	 * Returns whether or not the given document region contains an
+	 * <tt>xmlns:</tt> attribute.
+	 * 
+	 * @param documentregion
+	 * @return <tt>true</tt> if the region has a namespace declaration in it.
+	 */
+	private static boolean hasNamespaceDeclaration(IStructuredDocumentRegion documentregion) {
+
+		if (documentregion == null || documentregion.isDeleted()) {
+			return false;
+		}
+		ITextRegionList textregions = documentregion.getRegions();
+		for (int i = 0; i < textregions.size(); i++) {
+			ITextRegion textregion = textregions.get(i);
+			if (textregion.getType() == DOMRegionContext.XML_TAG_ATTRIBUTE_NAME &&
+				documentregion.getText(textregion).startsWith("xmlns:")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The namespaces of a single document, which forget themselves whenever an
+	 * edit to the document adds, removes, or changes a namespace declaration.
+	 */
+	private static class NamespaceBindings implements IStructuredDocumentListener {
+
+		private volatile List<QName> namespaces;
+
+		/**
+		 * Forget the namespaces if the change touched a namespace declaration,
+		 * either in the text that was removed or in the region that changed.
+		 * 
+		 * @param event
+		 * @param documentregion
+		 */
+		private void checkChange(StructuredDocumentEvent event, IStructuredDocumentRegion documentregion) {
+
+			String deletedtext = event.getDeletedText();
+			if ((deletedtext != null && deletedtext.contains("xmlns")) ||
+				hasNamespaceDeclaration(documentregion)) {
+				namespaces = null;
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void newModel(NewDocumentEvent event) {
+
+			namespaces = null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void noChange(NoChangeEvent event) {
+
+			// Does nothing - don't care about this one right now
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void nodesReplaced(StructuredDocumentRegionsReplacedEvent event) {
+
+			checkChange(event, null);
+			IStructuredDocumentRegionList newregions = event.getNewStructuredDocumentRegions();
+			if (newregions != null) {
+				for (int i = 0; namespaces != null && i < newregions.getLength(); i++) {
+					checkChange(event, newregions.item(i));
+				}
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void regionChanged(RegionChangedEvent event) {
+
+			checkChange(event, event.getStructuredDocumentRegion());
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void regionsReplaced(RegionsReplacedEvent event) {
+
+			checkChange(event, event.getStructuredDocumentRegion());
+		}
+	}
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Record of how often each dialect item has been accepted from the content
+ * assist popup in this workspace, used to put the items most often picked at
+ * the top of the list.
+ * <p>
+ * Each item name is given an integer ID the first time it's seen, with its
+ * count kept in a plain <tt>int</tt> array at that index.  The counts are
+ * written to the plugin's state location a short while after they change,
+ * and again when the plugin stops.  They're written to a temporary file first
+ * and then moved over the old one, so a save that's cut short doesn't lose
+ * the counts of previous sessions.
+ * 
+ * @author Emanuel Rabina
+ */
+public class UsageStatistics {
+
+	private static final String STATISTICS_FILE = "proposal-usage.dat";
+	private static final String STATISTICS_TEMP_FILE = "proposal-usage.dat.tmp";
+	private static final int STATISTICS_VERSION = 1;
+
+	// Milliseconds to wait after a change before the counts are saved
+	private static final long FLUSH_DELAY = 30000;
+
+	private static final HashMap<String,Integer> itemids = new HashMap<String,Integer>();
+	private static String[] itemnames = new String[64];
+	private static int[] usagecounts  = new int[64];
+	private static int itemcount;
+
+	private static boolean loaded;
+	private static boolean changed;
+
+	private static final Job flushjob = new Job("Saving Thymeleaf content assist statistics") {
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			save();
+			return Status.OK_STATUS;
+		}
+	};
+	static {
+		flushjob.setSystem(true);
+	}
+
+	/**
+	 * Hidden default constructor as this class is only to be used statically.
+	 */
+	private UsageStatistics() {
+	}
+
+	/**
+	 * Return a file in the plugin state location.
+	 * 
+	 * @param filename
+	 * @return File in the plugin state location.
+	 */
+	private static File getStateFile(String filename) {
+
+		return getDefault().getStateLocation().append(filename).toFile();
+	}
+
+	/**
+	 * Return how many times the named item has been accepted.
+	 * 
+	 * @param itemname
+	 * @return Number of times the item was picked, or <tt>0</tt> if it never
+	 * 		   has been.
+	 */
+	public static synchronized int getUsageCount(String itemname) {
+
+		load();
+		Integer itemid = itemids.get(itemname);
+		return itemid != null ? usagecounts[itemid] : 0;
+	}
+
+	/**
+	 * Return the ID of the given item name, assigning it the next free one if
+	 * this is the first time it's been seen.
+	 * 
+	 * @param itemname
+	 * @return Item ID, an index into the count array.
+	 */
+	private static int internItem(String itemname) {
+
+		Integer itemid = itemids.get(itemname);
+		if (itemid == null) {
+			if (itemcount == usagecounts.length) {
+				itemnames   = Arrays.copyOf(itemnames, itemcount * 2);
+				usagecounts = Arrays.copyOf(usagecounts, itemcount * 2);
+			}
+			itemid = itemcount++;
+			itemids.put(itemname, itemid);
+			itemnames[itemid] = itemname;
+		}
+		return itemid;
+	}
+
+	/**
+	 * Read in the counts saved from previous sessions, if that hasn't already
+	 * been done.
+	 */
+	private static void load() {
+
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+
+		File statisticsfile = getStateFile(STATISTICS_FILE);
+		if (!statisticsfile.exists()) {
+			return;
+		}
+		try {
+			DataInputStream input = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(statisticsfile)));
+			try {
+				if (input.readInt() == STATISTICS_VERSION) {
+					int entries = input.readInt();
+					for (int i = 0; i < entries; i++) {
+						String itemname = input.readUTF();
+						usagecounts[internItem(itemname)] += input.readInt();
+					}
+				}
+			}
+			finally {
+				input.close();
+			}
+		}
+		catch (IOException ex) {
+			logError("Unable to read content assist statistics from " + statisticsfile, ex);
+		}
+	}
+
+	/**
+	 * Count one more use of the named item, scheduling the counts to be saved.
+	 * 
+	 * @param itemname
+	 */
+	public static synchronized void recordUsage(String itemname) {
+
+		load();
+		int itemid = internItem(itemname);
+		if (usagecounts[itemid] < Integer.MAX_VALUE) {
+			usagecounts[itemid]++;
+		}
+
+		if (!changed) {
+			changed = true;
+			flushjob.schedule(FLUSH_DELAY);
+		}
+	}
+
+	/**
+	 * Write the counts out to the plugin state location, if they've changed
+	 * since they were last saved.
+	 */
+	private static synchronized void save() {
+
+		if (!changed) {
+			return;
+		}
+		changed = false;
+
+		File statisticsfile = getStateFile(STATISTICS_FILE);
+		File tempfile = getStateFile(STATISTICS_TEMP_FILE);
+		try {
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(tempfile)));
+			try {
+				output.writeInt(STATISTICS_VERSION);
+				output.writeInt(itemcount);
+				for (int i = 0; i < itemcount; i++) {
+					output.writeUTF(itemnames[i]);
+					output.writeInt(usagecounts[i]);
+				}
+			}
+			finally {
+				output.close();
+			}
+
+			// Renaming over an existing file isn't possible on all platforms
+			if (!tempfile.renameTo(statisticsfile) &&
+				!(statisticsfile.delete() && tempfile.renameTo(statisticsfile))) {
+				throw new IOException("Unable to replace " + statisticsfile + " with " + tempfile);
+			}
+		}
+		catch (IOException ex) {
+			logError("Unable to save content assist statistics to " + statisticsfile, ex);
+		}
+	}
+
+	/**
+	 * Stop any save that's still waiting to happen, then save the counts now.
+	 */
+	public static void shutdown() {
+
+		flushjob.cancel();
+		save();
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of the model variable types declared in a template.  Templates don't
+ * say what's in the model they're rendered with, so variables are given a
+ * Java type through a comment in the template, eg:
+ * <tt>&lt;!--/* @thymesVar id="user" type="com.example.User" *&#47;--&gt;</tt>.
+ * The declarations are read once and then only again after the document has
+ * been modified.
+ * 
+ * @author Emanuel Rabina
+ */
+public class VariableDeclarationCache {
+
+	private static final Pattern VARIABLE_DECLARATION_PATTERN =
+			Pattern.compile("@thymesVar\\s+id=\"([^\"]+)\"\\s+type=\"([^\"]+)\"");
+
+	private static final WeakHashMap<IDocument,VariableDeclarations> declarations =
+			new WeakHashMap<IDocument,VariableDeclarations>();
+
+	/**
+	 * Hidden default constructor as this class is only to be used statically.
+	 */
+	private VariableDeclarationCache() {
+	}
+
+	/**
+	 * Find all of the variable declarations in the given text.
+	 * 
+	 * @param text
+	 * @return Map of variable names to fully qualified type names, in the
+	 * 		   order they were declared.
+	 */
+	private static Map<String,String> findVariableTypes(String text) {
+
+		LinkedHashMap<String,String> variabletypes = new LinkedHashMap<String,String>();
+		if (text.contains("@thymesVar")) {
+			Matcher matcher = VARIABLE_DECLARATION_PATTERN.matcher(text);
+			while (matcher.find()) {
+				variabletypes.put(matcher.group(1), matcher.group(2));
+			}
+		}
+		return Collections.unmodifiableMap(variabletypes);
+	}
+
+	/**
+	 * Return the types of the variables declared in the given document.
+	 * 
+	 * @param document
+	 * @return Map of variable names to fully qualified type names.
+	 */
+	public static synchronized Map<String,String> getVariableTypes(IDocument document) {
+
+		// Without modification stamps there's no telling if the document changed
+		if (!(document instanceof IDocumentExtension4)) {
+			return findVariableTypes(document.get());
+		}
+
+		long modificationstamp = ((IDocumentExtension4)document).getModificationStamp();
+		VariableDeclarations documentdeclarations = declarations.get(document);
+		if (documentdeclarations == null || documentdeclarations.modificationstamp != modificationstamp) {
+			documentdeclarations = new VariableDeclarations(modificationstamp, findVariableTypes(document.get()));
+			declarations.put(document, documentdeclarations);
+		}
+		return documentdeclarations.variabletypes;
+	}
+
+
+	/**
+	 * The variable declarations of a document, as they were at a certain
+	 * modification of it.
+	 */
+	private static class VariableDeclarations {
+
+		private final long modificationstamp;
+		private final Map<String,String> variabletypes;
+
+		/**
+		 * Constructor, set the variable declarations.
+		 * 
+		 * @param modificationstamp
+		 * @param variabletypes
+		 */
+		private VariableDeclarations(long modificationstamp, Map<String,String> variabletypes) {
+
+			this.modificationstamp = modificationstamp;
+			this.variabletypes     = variabletypes;
+		}
+	}
+}
@@ -17,9 +17,12 @@
 package org.thymeleaf.extras.eclipse.contentassist.autocomplete;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.jface.text.contentassist.ICompletionProposalExtension2;
 import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
 import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
 import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
@@ -27,35 +30,83 @@ import org.eclipse.wst.sse.ui.contentassist.CompletionProposalInvocationContext;
 import org.eclipse.wst.sse.ui.contentassist.ICompletionProposalComputer;
 import org.eclipse.wst.sse.ui.internal.contentassist.ContentAssistUtils;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
-import org.thymeleaf.extras.eclipse.contentassist.AbstractComputer;
+import org.thymeleaf.extras.eclipse.contentassist.CacheLoadJob;
 import org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators.AbstractItemProposalGenerator;
 import org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators.AttributeProcessorProposalGenerator;
 import org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators.AttributeRestrictionProposalGenerator;
+import org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators.CompletionContext;
 import org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators.ElementProcessorProposalGenerator;
 import org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators.ExpressionObjectProposalGenerator;
+import org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators.FragmentProposalGenerator;
+import org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators.MessageKeyProposalGenerator;
+import org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators.ModelPropertyProposalGenerator;
+import org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals.AbstractCompletionProposal;
 import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Auto-completion proposal generator for Thymeleaf processors and expression
  * object methods.
+ * <p>
+ * Each invocation runs all of the proposal generators in parallel, merging
+ * their proposals back in generator order.  The proposals are then ranked by
+ * how often they've been picked before, with that order breaking any ties.
+ * <p>
+ * Within a content assist session, the proposals from the first invocation
+ * are kept and narrowed down as the user keeps typing the same name, rather
+ * than querying the dialects and creating the proposals all over again.
+ * <p>
+ * While a project is still being loaded into the caches, only the generators
+ * whose caches are already loaded are run, and the list is reported as
+ * incomplete through the error message until the load is done.
  * 
  * @author Emanuel Rabina
  */
 @SuppressWarnings("restriction")
-public class CompletionProposalComputer extends AbstractComputer implements ICompletionProposalComputer {
+public class CompletionProposalComputer implements ICompletionProposalComputer {
 
 	@SuppressWarnings("rawtypes")
 	private static AbstractItemProposalGenerator[] proposalgenerators = {
 		new ElementProcessorProposalGenerator(),
 		new AttributeProcessorProposalGenerator(),
 		new AttributeRestrictionProposalGenerator(),
-		new ExpressionObjectProposalGenerator()
+		new ExpressionObjectProposalGenerator(),
+		new FragmentProposalGenerator(),
+		new MessageKeyProposalGenerator(),
+		new ModelPropertyProposalGenerator()
 	};
 
+	// Generators all run at once on their own threads, but must finish by the deadline
+	private static final ExecutorService generatorexecutor = Executors.newFixedThreadPool(
+			proposalgenerators.length, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "Thymeleaf proposal generator");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	// Proposals of the current content assist session, and where they were made
+	private final ArrayList<ICompletionProposal> sessionproposals = new ArrayList<ICompletionProposal>();
+	private IDocument sessiondocument;
+	private int sessionoffset;
+	private boolean sessionactive;
+
+	// Set when the last proposals were made before the project was fully loaded
+	private String errormessage;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -64,25 +115,50 @@ public class CompletionProposalComputer extends AbstractComputer implements ICom
 	public List computeCompletionProposals(CompletionProposalInvocationContext context, IProgressMonitor monitor) {
 
 		ArrayList<ICompletionProposal> proposals = new ArrayList<ICompletionProposal>();
+		errormessage = null;
 
 		try {
 			ITextViewer viewer = context.getViewer();
 			IStructuredDocument document = (IStructuredDocument)context.getDocument();
 			int cursorposition = context.getInvocationOffset();
 
+			// Narrow down the proposals already made this session if the user has
+			// only kept typing the same name
+			List<ICompletionProposal> narrowedproposals = narrowSessionProposals(document, cursorposition);
+			if (narrowedproposals != null) {
+				proposals.addAll(narrowedproposals);
+				return proposals;
+			}
+
 			IDOMNode node = (IDOMNode)ContentAssistUtils.getNodeAt(viewer, cursorposition);
 			IStructuredDocumentRegion documentregion = ContentAssistUtils.getStructuredDocumentRegion(
 					viewer, cursorposition);
 			ITextRegion textregion = documentregion.getRegionAtCharacterOffset(cursorposition);
 
-			// Create proposals from the generators given to us by the computers
-			// TODO: Can this part be made multi-threaded?  Is there any benefit
-			//       in making it so?  Probably need to have some kind of
-			//       ordering on returned proposals so that the results list is
-			//       predictable.
-			for (AbstractItemProposalGenerator proposalgenerator: proposalgenerators) {
-				proposals.addAll(proposalgenerator.generateProposals(node, textregion, documentregion,
-						document, cursorposition));
+			// Create proposals from the generators given to us by the computers, so
+			// long as they can be made in time from what's already in the caches.
+			// Projects seen for the first time are loaded in the background, with
+			// only the generators whose caches are already loaded run until then.
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+					getDefault().getPreferenceStore().getLong(LATENCY_BUDGET_PREF));
+			CompletionContext completioncontext = new CompletionContext(node, textregion, documentregion,
+					document, cursorposition, monitor, deadline);
+			IJavaProject project = completioncontext.getJavaProject();
+			boolean projectloaded = project == null || CacheLoadJob.isProjectLoaded(project);
+			if (!projectloaded) {
+				CacheLoadJob.loadProject(project);
+				errormessage = "Thymeleaf proposals are incomplete while the project is still being loaded";
+			}
+			if (!completioncontext.isCanceled()) {
+				proposals.addAll(rankProposals(generateProposals(completioncontext, projectloaded)));
+			}
+
+			// Incomplete proposals aren't kept, so the next invocation makes them again
+			if (sessionactive && projectloaded) {
+				sessionproposals.clear();
+				sessionproposals.addAll(proposals);
+				sessiondocument = document;
+				sessionoffset   = cursorposition;
 			}
 		}
 		catch (BadLocationException ex) {
@@ -102,26 +178,233 @@ public class CompletionProposalComputer extends AbstractComputer implements ICom
 		return Collections.EMPTY_LIST;
 	}
 
+	/**
+	 * Run all of the proposal generators at the same time, then gather their
+	 * proposals in generator order so that the list is always the same for the
+	 * same point in the document.  Generators that haven't finished by the
+	 * context's deadline are cancelled and their proposals left out, rather
+	 * than holding up the popup.  If the project isn't fully loaded, then
+	 * generators whose caches aren't loaded yet are skipped entirely.
+	 * <p>
+	 * The generators read the text of the document from the snapshot taken by
+	 * the context, so nothing holds the document's lock while they run, and
+	 * edits don't have to wait for them to finish.  Cancelled generators aren't interrupted,
+	 * as they may be in the middle of JDT or file reads which don't take kindly
+	 * to that, but they check the context and stop on their own.
+	 * 
+	 * @param context
+	 * @param projectloaded Whether all of the project's caches are loaded.
+	 * @return List of the proposals from all generators that finished in time.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static List<ICompletionProposal> generateProposals(final CompletionContext context,
+		boolean projectloaded) {
+
+		ArrayList<ICompletionProposal> proposals = new ArrayList<ICompletionProposal>();
+		long deadline = context.getDeadline();
+
+		ArrayList<AbstractItemProposalGenerator> generators =
+				new ArrayList<AbstractItemProposalGenerator>(proposalgenerators.length);
+		ArrayList<Future<List>> results = new ArrayList<Future<List>>(proposalgenerators.length);
+		for (final AbstractItemProposalGenerator proposalgenerator: proposalgenerators) {
+			if (!projectloaded && !proposalgenerator.isCacheLoaded(context.getJavaProject())) {
+				continue;
+			}
+			generators.add(proposalgenerator);
+			results.add(generatorexecutor.submit(new Callable<List>() {
+				@Override
+				public List call() throws BadLocationException {
+					return proposalgenerator.generateProposals(context);
+				}
+			}));
+		}
+
+		for (int i = 0; i < results.size(); i++) {
+			Future<List> result = results.get(i);
+			String generatorname = generators.get(i).getClass().getSimpleName();
+			try {
+				proposals.addAll(result.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS));
+			}
+			catch (TimeoutException ex) {
+				result.cancel(false);
+				logTrace(DEBUG_PROPOSALS, generatorname + " didn't finish within the latency budget, " +
+						"its proposals have been left out");
+			}
+			catch (ExecutionException ex) {
+				logError(ex.getCause() instanceof BadLocationException ?
+						"Unable to retrieve data at the current document position" :
+						"Unable to generate proposals from " + generatorname, ex.getCause());
+			}
+			catch (InterruptedException ex) {
+				for (int j = i; j < results.size(); j++) {
+					results.get(j).cancel(false);
+				}
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		return proposals;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public String getErrorMessage() {
 
-		return null;
+		return errormessage;
+	}
+
+	/**
+	 * Returns whether or not the given character can continue the name of any
+	 * of the items being proposed.
+	 * 
+	 * @param c
+	 * @return <tt>true</tt> if <tt>char</tt> is an alphanumeric character, or
+	 * 		   one of the following symbols: <tt>: - # .</tt>
+	 */
+	private static boolean isNameChar(char c) {
+
+		return Character.isLetterOrDigit(c) || c == ':' || c == '-' || c == '#' || c == '.';
 	}
 
 	/**
-	 * Do nothing.
+	 * Narrow the proposals of the current session down to those still valid at
+	 * the given offset, so long as the only thing that has happened since they
+	 * were made is the user typing more of a name.  The session proposals
+	 * themselves are left as they are, so that deleting some of what was typed
+	 * brings back the proposals that had been narrowed away.
+	 * 
+	 * @param document
+	 * @param offset
+	 * @return The session proposals still valid at the offset, or
+	 * 		   <tt>null</tt> if none are and proposals need to be computed
+	 * 		   again.
+	 * @throws BadLocationException
+	 */
+	private List<ICompletionProposal> narrowSessionProposals(IDocument document, int offset)
+		throws BadLocationException {
+
+		if (!sessionactive || sessiondocument != document || sessionproposals.isEmpty() ||
+			offset < sessionoffset) {
+			return null;
+		}
+		for (int position = sessionoffset; position < offset; position++) {
+			if (!isNameChar(document.getChar(position))) {
+				return null;
+			}
+		}
+
+		ArrayList<ICompletionProposal> narrowedproposals = new ArrayList<ICompletionProposal>();
+		for (ICompletionProposal proposal: sessionproposals) {
+			if (proposal instanceof ICompletionProposalExtension2 &&
+				((ICompletionProposalExtension2)proposal).validate(document, offset, null)) {
+				narrowedproposals.add(proposal);
+			}
+		}
+		return !narrowedproposals.isEmpty() ? narrowedproposals : null;
+	}
+
+	/**
+	 * Order proposals by the number of times each has been accepted before,
+	 * most used first.  The sort is stable, so proposals used the same number
+	 * of times stay in the order they were generated in.
+	 * 
+	 * @param proposals
+	 * @return The same proposals, ranked by usage.
+	 */
+	private static List<ICompletionProposal> rankProposals(List<ICompletionProposal> proposals) {
+
+		ArrayList<RankedProposal> rankedproposals = new ArrayList<RankedProposal>(proposals.size());
+		boolean anyused = false;
+		for (ICompletionProposal proposal: proposals) {
+			int usagecount = proposal instanceof AbstractCompletionProposal ?
+					((AbstractCompletionProposal)proposal).getUsageCount() : 0;
+			rankedproposals.add(new RankedProposal(proposal, usagecount));
+			anyused |= usagecount > 0;
+		}
+		if (!anyused) {
+			return proposals;
+		}
+
+		Collections.sort(rankedproposals);
+		ArrayList<ICompletionProposal> ranked = new ArrayList<ICompletionProposal>(proposals.size());
+		for (RankedProposal rankedproposal: rankedproposals) {
+			ranked.add(rankedproposal.proposal);
+		}
+		return ranked;
+	}
+
+	/**
+	 * Forget the proposals of the content assist session that just ended.
 	 */
 	@Override
 	public void sessionEnded() {
+
+		sessionactive = false;
+		sessionproposals.clear();
+		sessiondocument = null;
 	}
 
 	/**
-	 * Do nothing.
+	 * Start keeping the proposals made during a content assist session.
 	 */
 	@Override
 	public void sessionStarted() {
+
+		sessionactive = true;
+		sessionproposals.clear();
+		sessiondocument = null;
+	}
+
+	/**
+	 * Stop the threads the proposal generators run on, giving any generators
+	 * still running a short while to notice their cancelled context.
+	 */
+	public static void shutdown() {
+
+		generatorexecutor.shutdown();
+		try {
+			if (!generatorexecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+				generatorexecutor.shutdownNow();
+			}
+		}
+		catch (InterruptedException ex) {
+			// Do nothing
+		}
+	}
+
+
+	/**
+	 * A proposal and its usage count, looked up once before sorting.
+	 */
+	private static class RankedProposal implements Comparable<RankedProposal> {
+
+		private final ICompletionProposal proposal;
+		private final int usagecount;
+
+		/**
+		 * Constructor, set the proposal and its usage count.
+		 * 
+		 * @param proposal
+		 * @param usagecount
+		 */
+		private RankedProposal(ICompletionProposal proposal, int usagecount) {
+
+			this.proposal   = proposal;
+			this.usagecount = usagecount;
+		}
+
+		/**
+		 * Most used proposals come first.
+		 * 
+		 * @param other
+		 * @return Comparison of the usage counts, highest first.
+		 */
+		@Override
+		public int compareTo(RankedProposal other) {
+
+			return usagecount > other.usagecount ? -1 : usagecount < other.usagecount ? 1 : 0;
+		}
 	}
 }
@@ -16,14 +16,9 @@
 
 package org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators;
 
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
-import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
-import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
-import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
-import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
-import org.thymeleaf.extras.eclipse.contentassist.AbstractComputer;
 
 import java.util.List;
 
@@ -33,55 +28,29 @@ import java.util.List;
  * @author Emanuel Rabina
  * @param <P> The type of item proposal being generated.
  */
-@SuppressWarnings("restriction")
-public abstract class AbstractItemProposalGenerator<P extends ICompletionProposal>
-	extends AbstractComputer {
-
-	/**
-	 * Return the processor name pattern before the cursor position.
-	 * 
-	 * @param document
-	 * @param cursorposition
-	 * @return The text entered up to the document offset, if the text could
-	 * 		   constitute a processor name.
-	 * @throws BadLocationException
-	 */
-	protected static String findProcessorNamePattern(IDocument document, int cursorposition)
-		throws BadLocationException {
-
-		int position = cursorposition;
-		int length = 0;
-		while (--position > 0 && isProcessorChar(document.getChar(position))) {
-			length++;
-		}
-		return document.get(position + 1, length);
-	}
+public abstract class AbstractItemProposalGenerator<P extends ICompletionProposal> {
 
 	/**
 	 * Generate the autocomplete proposals.
 	 * 
-	 * @param node
-	 * @param textregion
-	 * @param documentregion
-	 * @param document
-	 * @param cursorposition
+	 * @param context Details of where content assist was invoked, shared
+	 * 				  between all generators for the invocation.
 	 * @return List of autocomplete proposals.
 	 * @throws BadLocationException
 	 */
-	public abstract List<P> generateProposals(IDOMNode node,  ITextRegion textregion,
-			IStructuredDocumentRegion documentregion, IStructuredDocument document, int cursorposition)
-			throws BadLocationException;
+	public abstract List<P> generateProposals(CompletionContext context) throws BadLocationException;
 
 	/**
-	 * Returns whether or not the given character is a valid processor name
-	 * character.
+	 * Return whether or not the caches this generator draws its proposals from
+	 * have been loaded for the given project, so that the proposals can be
+	 * made without waiting on the project to be scanned.  Generators that
+	 * don't use any of the caches can always be run.
 	 * 
-	 * @param c
-	 * @return <tt>true</tt> if <tt>char</tt> is an alphanumeric character, or
-	 * 		   one of the following symbols: <tt>: -</tt>
+	 * @param project
+	 * @return <tt>true</tt> if proposals can be made from memory.
 	 */
-	protected static boolean isProcessorChar(char c) {
+	public boolean isCacheLoaded(IJavaProject project) {
 
-		return Character.isLetterOrDigit(c) || c == ':' || c == '-';
+		return true;
 	}
 }
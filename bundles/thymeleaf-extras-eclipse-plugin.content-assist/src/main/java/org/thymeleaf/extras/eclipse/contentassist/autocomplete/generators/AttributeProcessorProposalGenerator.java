@@ -16,21 +16,20 @@
 
 package org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators;
 
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
 import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
 import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegionList;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
 import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
 import org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals.AttributeProcessorCompletionProposal;
+import org.thymeleaf.extras.eclipse.dialect.cache.AttributeRestrictionsMatcher;
 import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
+import org.thymeleaf.extras.eclipse.dialect.cache.NameMatcher;
 import org.thymeleaf.extras.eclipse.dialect.xml.AttributeProcessor;
-import org.thymeleaf.extras.eclipse.dialect.xml.AttributeRestrictions;
 import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-
-import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.findCurrentJavaProject;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -48,21 +47,21 @@ public class AttributeProcessorProposalGenerator
 	/**
 	 * Collect attribute processor suggestions.
 	 * 
-	 * @param node
-	 * @param document
-	 * @param cursorposition
+	 * @param context
 	 * @return List of attribute processor suggestions.
 	 * @throws BadLocationException
 	 */
 	@SuppressWarnings("unchecked")
 	private static List<AttributeProcessorCompletionProposal> computeAttributeProcessorSuggestions(
-		IDOMNode node, IStructuredDocument document, int cursorposition) throws BadLocationException {
+		CompletionContext context) throws BadLocationException {
 
-		String pattern = findProcessorNamePattern(document, cursorposition);
+		String pattern = context.getProcessorNamePattern();
+		IDOMNode node = context.getNode();
+		int cursorposition = context.getCursorPosition();
 
 		List<AttributeProcessor> processors = DialectCache.getAttributeProcessors(
-				findCurrentJavaProject(), findNodeNamespaces(node), pattern);
-		if (!processors.isEmpty()) {
+				context.getJavaProject(), context.getNamespaces(), pattern);
+		if (!processors.isEmpty() && !context.isCanceled()) {
 			ArrayList<AttributeProcessorCompletionProposal> proposals =
 					new ArrayList<AttributeProcessorCompletionProposal>();
 			NamedNodeMap existingattributes = node.getAttributes();
@@ -70,8 +69,10 @@ public class AttributeProcessorProposalGenerator
 			// Go through twice so that we create data-* suggestions as well
 			createAttributeProcessorSuggestions(pattern, processors, existingattributes,
 					node, cursorposition, proposals, false);
-			createAttributeProcessorSuggestions(pattern, processors, existingattributes,
-					node, cursorposition, proposals, true);
+			if (!context.isCanceled()) {
+				createAttributeProcessorSuggestions(pattern, processors, existingattributes,
+						node, cursorposition, proposals, true);
+			}
 
 			return proposals;
 		}
@@ -96,60 +97,27 @@ public class AttributeProcessorProposalGenerator
 		int cursorposition, ArrayList<AttributeProcessorCompletionProposal> proposals,
 		boolean dataattr) {
 
+		NameMatcher matcher = new NameMatcher(pattern);
 		for (AttributeProcessor processor: processors) {
 
 			// Double check that the processor type being used this time around
 			// matches the pattern
-			if ((!dataattr && !processor.getFullName().startsWith(pattern)) ||
-				(dataattr && !processor.getFullDataName().startsWith(pattern))) {
+			if (!matcher.matches(dataattr ? processor.getFullDataName() : processor.getFullName())) {
 				continue;
 			}
 
-			AttributeProcessorCompletionProposal proposal = new AttributeProcessorCompletionProposal(
-					processor, pattern.length(), cursorposition, dataattr);
+			// If a restriction is present, make sure it is satisfied before including the proposal
+			AttributeRestrictionsMatcher restrictions = AttributeRestrictionsMatcher.forProcessor(processor);
+			if (restrictions != null && (!restrictions.matchesTag(node.getNodeName()) ||
+				!restrictions.matchesAttributes(existingattributes))) {
+				continue;
+			}
 
 			// Only include the proposal if it isn't already in the element
+			AttributeProcessorCompletionProposal proposal = new AttributeProcessorCompletionProposal(
+					processor, pattern.length(), cursorposition, dataattr);
 			if (existingattributes.getNamedItem(proposal.getDisplayString()) == null) {
-				boolean restricted = false;
-
-				// If a restriction is present, make sure it is satisfied before including the proposal
-				if (processor.isSetRestrictions()) {
-					AttributeRestrictions restrictions = processor.getRestrictions();
-
-					if (restrictions.isSetTags()) {
-						List<String> tags = restrictions.getTags();
-						String elementname = node.getNodeName();
-
-						for (String tag: tags) {
-							if (tag.startsWith("-")) {
-								if (tag.substring(1).equals(elementname)) {
-									restricted = true;
-									break;
-								}
-							}
-							else {
-								if (tag.equals(elementname)) {
-									restricted = false;
-									break;
-								}
-								restricted = true;
-							}
-						}
-					}
-
-					if (restrictions.isSetAttributes()) {
-						for (String attribute: restrictions.getAttributes()) {
-							if (!matchAttributeRestriction(attribute, existingattributes)) {
-								restricted = true;
-								break;
-							}
-						}
-					}
-				}
-
-				if (!restricted) {
-					proposals.add(proposal);
-				}
+				proposals.add(proposal);
 			}
 		}
 	}
@@ -159,15 +127,28 @@ public class AttributeProcessorProposalGenerator
 	 */
 	@Override
 	@SuppressWarnings("unchecked")
-	public List<AttributeProcessorCompletionProposal> generateProposals(IDOMNode node,
-		ITextRegion textregion, IStructuredDocumentRegion documentregion,
-		IStructuredDocument document, int cursorposition) throws BadLocationException {
+	public List<AttributeProcessorCompletionProposal> generateProposals(CompletionContext context)
+		throws BadLocationException {
 
-		return makeAttributeProcessorSuggestions(node, textregion, documentregion, document, cursorposition) ?
-				computeAttributeProcessorSuggestions(node, document, cursorposition) :
+		return makeAttributeProcessorSuggestions(context.getNode(), context.getTextRegion(),
+				context.getDocumentRegion(), context.getDocument(), context.getCursorPosition()) &&
+				!context.isCanceled() ?
+				computeAttributeProcessorSuggestions(context) :
 				Collections.EMPTY_LIST;
 	}
 
+	/**
+	 * Proposals are drawn from the dialects of the project.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if the project's dialects are in the cache.
+	 */
+	@Override
+	public boolean isCacheLoaded(IJavaProject project) {
+
+		return DialectCache.isProjectLoaded(project);
+	}
+
 	/**
 	 * Check if, given everything, attribute processor suggestions should be
 	 * made.
@@ -181,7 +162,7 @@ public class AttributeProcessorProposalGenerator
 	 * @throws BadLocationException
 	 */
 	private static boolean makeAttributeProcessorSuggestions(IDOMNode node, ITextRegion textregion,
-		IStructuredDocumentRegion documentregion, IStructuredDocument document, int cursorposition)
+		IStructuredDocumentRegion documentregion, IDocument document, int cursorposition)
 		throws BadLocationException {
 
 		if (node.getNodeType() == IDOMNode.ELEMENT_NODE) {
@@ -199,51 +180,4 @@ public class AttributeProcessorProposalGenerator
 		}
 		return false;
 	}
-
-	/**
-	 * Checks if an attribute processor proposal should be made given the
-	 * attribute restriction.
-	 * 
-	 * @param restriction
-	 * @param existingattributes
-	 * @return <tt>true</tt> if an attribute processor can be proposed because
-	 *         it passed the current restriction.
-	 */
-	private static boolean matchAttributeRestriction(String restriction,
-		NamedNodeMap existingattributes) {
-
-		// Break the restriction into its parts
-		String restrictionName;
-		String restrictionValue;
-		if (restriction.contains("=")) {
-			int indexOfEq = restriction.indexOf('=');
-			restrictionName  = restriction.substring(0, indexOfEq);
-			restrictionValue = restriction.substring(indexOfEq + 1);
-		}
-		else {
-			restrictionName  = restriction;
-			restrictionValue = null;
-		}
-
-		// Flag to indicate if this is a restriction that the attribute _shouldn't_ be there
-		boolean negate = restriction.startsWith("-");
-		if (negate) {
-			restrictionName = restrictionName.substring(1);
-		}
-
-		// Check restriction against other attributes in the element
-		Node attribute = existingattributes.getNamedItem(restrictionName);
-		boolean allow = true;
-		if (attribute == null) {
-			allow = false;
-		}
-		else if (restrictionValue != null) {
-			String attributeValue = attribute.getNodeValue();
-			if (attributeValue != null && !attributeValue.equals(restrictionValue)) {
-				allow = false;
-			}
-		}
-
-		return negate ? !allow : allow;
-	}
 }
@@ -16,18 +16,15 @@
 
 package org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators;
 
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
-import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
 import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
-import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegionList;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
 import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
 import org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals.AttributeRestrictionCompletionProposal;
 import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
 import org.thymeleaf.extras.eclipse.dialect.xml.AttributeProcessor;
 import org.thymeleaf.extras.eclipse.dialect.xml.AttributeRestrictions;
-import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -45,45 +42,37 @@ public class AttributeRestrictionProposalGenerator
 	/**
 	 * Collect attribute restriction suggestions.
 	 * 
-	 * @param node
-	 * @param textregion
-	 * @param documentregion
-	 * @param document
-	 * @param cursorposition
+	 * @param context
 	 * @return List of attribute restriction suggestions.
 	 * @throws BadLocationException
 	 */
 	@SuppressWarnings("unchecked")
 	private static List<AttributeRestrictionCompletionProposal> computeAttributeRestrictionSuggestions(
-		IDOMNode node, ITextRegion textregion, IStructuredDocumentRegion documentregion,
-		IStructuredDocument document, int cursorposition) throws BadLocationException {
-
-		try {
-			ITextRegionList textregions = documentregion.getRegions();
-			ITextRegion attributenametextregion = textregions.get(textregions.indexOf(textregion) - 2);
-			String attributename = document.get(documentregion.getStartOffset() +
-					attributenametextregion.getStart(), attributenametextregion.getTextLength());
-
-			AttributeProcessor attributeprocessor = (AttributeProcessor)DialectCache.getProcessor(
-					findCurrentJavaProject(), findNodeNamespaces(node), attributename);
-			if (attributeprocessor != null && attributeprocessor.isSetRestrictions()) {
-
-				AttributeRestrictions restrictions = attributeprocessor.getRestrictions();
-				if (restrictions.isSetValues()) {
-
-					ArrayList<AttributeRestrictionCompletionProposal> proposals =
-							new ArrayList<AttributeRestrictionCompletionProposal>();
-					for (String value: restrictions.getValues()) {
-						proposals.add(new AttributeRestrictionCompletionProposal(value,
-								documentregion.getStartOffset(textregion) + 1,
-								textregion.getTextLength() - 2, cursorposition));
-					}
-					return proposals;
+		CompletionContext context) throws BadLocationException {
+
+		String attributename = context.getAttributeName();
+		if (attributename == null) {
+			return Collections.EMPTY_LIST;
+		}
+
+		AttributeProcessor attributeprocessor = (AttributeProcessor)DialectCache.getProcessor(
+				context.getJavaProject(), context.getNamespaces(), attributename);
+		if (attributeprocessor != null && attributeprocessor.isSetRestrictions()) {
+
+			AttributeRestrictions restrictions = attributeprocessor.getRestrictions();
+			if (restrictions.isSetValues()) {
+
+				ITextRegion textregion = context.getTextRegion();
+				int valuestart = context.getDocumentRegion().getStartOffset(textregion) + 1;
+				ArrayList<AttributeRestrictionCompletionProposal> proposals =
+						new ArrayList<AttributeRestrictionCompletionProposal>();
+				for (String value: restrictions.getValues()) {
+					proposals.add(new AttributeRestrictionCompletionProposal(value, valuestart,
+							textregion.getTextLength() - 2, context.getCursorPosition()));
 				}
+				return proposals;
 			}
 		}
-		catch (ArrayIndexOutOfBoundsException ex) {
-		}
 
 		return Collections.EMPTY_LIST;
 	}
@@ -93,15 +82,27 @@ public class AttributeRestrictionProposalGenerator
 	 */
 	@Override
 	@SuppressWarnings("unchecked")
-	public List<AttributeRestrictionCompletionProposal> generateProposals(IDOMNode node,
-		ITextRegion textregion, IStructuredDocumentRegion documentregion, IStructuredDocument document,
-		int cursorposition) throws BadLocationException {
+	public List<AttributeRestrictionCompletionProposal> generateProposals(CompletionContext context)
+		throws BadLocationException {
 
-		return makeAttributeRestrictionSuggestions(node, textregion) ?
-				computeAttributeRestrictionSuggestions(node, textregion, documentregion, document, cursorposition) :
+		return makeAttributeRestrictionSuggestions(context.getNode(), context.getTextRegion()) &&
+				!context.isCanceled() ?
+				computeAttributeRestrictionSuggestions(context) :
 				Collections.EMPTY_LIST;
 	}
 
+	/**
+	 * Proposals are drawn from the dialects of the project.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if the project's dialects are in the cache.
+	 */
+	@Override
+	public boolean isCacheLoaded(IJavaProject project) {
+
+		return DialectCache.isProjectLoaded(project);
+	}
+
 	/**
 	 * Check if, given everything, attribute restriction suggestions should be
 	 * made.
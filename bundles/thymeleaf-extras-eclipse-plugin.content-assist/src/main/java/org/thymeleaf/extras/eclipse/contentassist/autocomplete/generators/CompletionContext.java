@@ -0,0 +1,337 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegionList;
+import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
+import org.thymeleaf.extras.eclipse.contentassist.DocumentProjectResolver;
+import org.thymeleaf.extras.eclipse.contentassist.NamespaceCache;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Everything the proposal generators need to know about the point in the
+ * document where content assist was invoked.  One context is created per
+ * invocation and shared between all of the generators, with the more costly
+ * parts (the project, the namespaces, the name patterns) only worked out the
+ * first time a generator asks for them.  Generators run at the same time, so
+ * working out those parts is synchronized.
+ * <p>
+ * Generators run on their own threads, so rather than reading the document
+ * while it may be edited, they read a copy of its text taken on the thread
+ * that created the context.
+ * 
+ * @author Emanuel Rabina
+ */
+@SuppressWarnings("restriction")
+public class CompletionContext {
+
+	private final IDOMNode node;
+	private final ITextRegion textregion;
+	private final IStructuredDocumentRegion documentregion;
+	private final IStructuredDocument structureddocument;
+	private final IDocument document;
+	private final int cursorposition;
+	private final IProgressMonitor monitor;
+	private final long deadline;
+
+	private IJavaProject javaproject;
+	private boolean javaprojectfound;
+	private List<QName> namespaces;
+	private String processornamepattern;
+	private String expressionobjectmethodnamepattern;
+	private String attributename;
+	private boolean attributenamefound;
+	private String messagekeypattern;
+	private boolean messagekeypatternfound;
+
+	/**
+	 * Constructor, set the point in the document content assist was invoked
+	 * at.
+	 * 
+	 * @param node
+	 * @param textregion
+	 * @param documentregion
+	 * @param document
+	 * @param cursorposition
+	 * @param monitor		 Monitor of the content assist request, used to
+	 * 						 check for cancellation.
+	 * @param deadline		 Value of {@link System#nanoTime()} by which the
+	 * 						 proposals need to be ready.
+	 */
+	public CompletionContext(IDOMNode node, ITextRegion textregion, IStructuredDocumentRegion documentregion,
+		IStructuredDocument document, int cursorposition, IProgressMonitor monitor, long deadline) {
+
+		this.node               = node;
+		this.textregion         = textregion;
+		this.documentregion     = documentregion;
+		this.structureddocument = document;
+		this.document           = new Document(document.get());
+		this.cursorposition     = cursorposition;
+		this.monitor            = monitor;
+		this.deadline           = deadline;
+	}
+
+	/**
+	 * Return the name of the attribute whose value the cursor is in.
+	 * 
+	 * @return Attribute name, or <tt>null</tt> if the text region isn't
+	 * 		   preceded by an attribute name.
+	 * @throws BadLocationException
+	 */
+	public synchronized String getAttributeName() throws BadLocationException {
+
+		if (!attributenamefound) {
+			ITextRegionList textregions = documentregion.getRegions();
+			int textregionindex = textregions.indexOf(textregion);
+			if (textregionindex >= 2) {
+				ITextRegion attributenametextregion = textregions.get(textregionindex - 2);
+				attributename = document.get(documentregion.getStartOffset() +
+						attributenametextregion.getStart(), attributenametextregion.getTextLength());
+			}
+			attributenamefound = true;
+		}
+		return attributename;
+	}
+
+	/**
+	 * Return the position of the cursor in the document.
+	 * 
+	 * @return Cursor position.
+	 */
+	public int getCursorPosition() {
+
+		return cursorposition;
+	}
+
+	/**
+	 * Return the time by which the proposals need to be ready.
+	 * 
+	 * @return Deadline, as a value of {@link System#nanoTime()}.
+	 */
+	public long getDeadline() {
+
+		return deadline;
+	}
+
+	/**
+	 * Return a copy of the text of the document content assist was invoked in,
+	 * as it was when this context was created.
+	 * 
+	 * @return Snapshot of the document.
+	 */
+	public IDocument getDocument() {
+
+		return document;
+	}
+
+	/**
+	 * Return the document region at the cursor position.
+	 * 
+	 * @return Structured document region.
+	 */
+	public IStructuredDocumentRegion getDocumentRegion() {
+
+		return documentregion;
+	}
+
+	/**
+	 * Return the expression object method name pattern before the cursor
+	 * position.
+	 * 
+	 * @return The text entered up to the cursor position, if the text could
+	 * 		   constitute an expression object method name.
+	 * @throws BadLocationException
+	 */
+	public synchronized String getExpressionObjectMethodNamePattern() throws BadLocationException {
+
+		if (expressionobjectmethodnamepattern == null) {
+			int position = cursorposition;
+			int length = 0;
+			while (--position > 0 && isExpressionObjectMethodChar(document.getChar(position))) {
+				length++;
+			}
+			expressionobjectmethodnamepattern = document.get(position + 1, length);
+		}
+		return expressionobjectmethodnamepattern;
+	}
+
+	/**
+	 * Return the Java project of the file being edited.
+	 * 
+	 * @return Java project, or <tt>null</tt> if the file isn't in a Java
+	 * 		   project.
+	 */
+	public synchronized IJavaProject getJavaProject() {
+
+		if (!javaprojectfound) {
+			javaproject = DocumentProjectResolver.getJavaProject(node.getModel());
+			javaprojectfound = true;
+		}
+		return javaproject;
+	}
+
+	/**
+	 * Return the message key pattern before the cursor position, if the cursor
+	 * is in the key of a <tt>#{...}</tt> message expression.
+	 * 
+	 * @return The key entered up to the cursor position, or <tt>null</tt> if
+	 * 		   the cursor isn't in a message key.
+	 * @throws BadLocationException
+	 */
+	public synchronized String getMessageKeyPattern() throws BadLocationException {
+
+		if (!messagekeypatternfound) {
+			int position = cursorposition;
+			while (position > 0 && isMessageKeyChar(document.getChar(position - 1))) {
+				position--;
+			}
+			if (position >= 2 && document.get(position - 2, 2).equals("#{")) {
+				messagekeypattern = document.get(position, cursorposition - position);
+			}
+			messagekeypatternfound = true;
+		}
+		return messagekeypattern;
+	}
+
+	/**
+	 * Return the namespaces valid at the current node.
+	 * 
+	 * @return List of namespaces known to the node.
+	 */
+	public synchronized List<QName> getNamespaces() {
+
+		if (namespaces == null) {
+			namespaces = NamespaceCache.getNamespaces(node);
+		}
+		return namespaces;
+	}
+
+	/**
+	 * Return the node at the cursor position.
+	 * 
+	 * @return DOM node.
+	 */
+	public IDOMNode getNode() {
+
+		return node;
+	}
+
+	/**
+	 * Return the processor name pattern before the cursor position.
+	 * 
+	 * @return The text entered up to the cursor position, if the text could
+	 * 		   constitute a processor name.
+	 * @throws BadLocationException
+	 */
+	public synchronized String getProcessorNamePattern() throws BadLocationException {
+
+		if (processornamepattern == null) {
+			int position = cursorposition;
+			int length = 0;
+			while (--position > 0 && isProcessorChar(document.getChar(position))) {
+				length++;
+			}
+			processornamepattern = document.get(position + 1, length);
+		}
+		return processornamepattern;
+	}
+
+	/**
+	 * Return the document content assist was invoked in, for looking up what
+	 * has been cached against it.  The text itself should be read from
+	 * {@link #getDocument()}.
+	 * 
+	 * @return Structured document.
+	 */
+	public IStructuredDocument getStructuredDocument() {
+
+		return structureddocument;
+	}
+
+	/**
+	 * Return the text region at the cursor position.
+	 * 
+	 * @return Text region.
+	 */
+	public ITextRegion getTextRegion() {
+
+		return textregion;
+	}
+
+	/**
+	 * Returns whether or not the proposals are no longer wanted, either because
+	 * the content assist request was cancelled or because the deadline has
+	 * passed.  Generators should check this between costly steps and give up
+	 * early if it returns <tt>true</tt>.
+	 * 
+	 * @return <tt>true</tt> if generating proposals should stop.
+	 */
+	public boolean isCanceled() {
+
+		return (monitor != null && monitor.isCanceled()) || System.nanoTime() - deadline > 0;
+	}
+
+	/**
+	 * Returns whether or not the given character is a valid expression object
+	 * method name character.
+	 * 
+	 * @param c
+	 * @return <tt>true</tt> if <tt>char</tt> is an alphanumeric character, or
+	 * 		   one of the following symbols: <tt># .</tt>
+	 */
+	private static boolean isExpressionObjectMethodChar(char c) {
+
+		return Character.isLetterOrDigit(c) || c == '#' || c =='.';
+	}
+
+	/**
+	 * Returns whether or not the given character is a valid message key
+	 * character.
+	 * 
+	 * @param c
+	 * @return <tt>true</tt> if <tt>char</tt> is an alphanumeric character, or
+	 * 		   one of the following symbols: <tt>. _ -</tt>
+	 */
+	private static boolean isMessageKeyChar(char c) {
+
+		return Character.isLetterOrDigit(c) || c == '.' || c == '_' || c == '-';
+	}
+
+	/**
+	 * Returns whether or not the given character is a valid processor name
+	 * character.
+	 * 
+	 * @param c
+	 * @return <tt>true</tt> if <tt>char</tt> is an alphanumeric character, or
+	 * 		   one of the following symbols: <tt>: -</tt>
+	 */
+	private static boolean isProcessorChar(char c) {
+
+		return Character.isLetterOrDigit(c) || c == ':' || c == '-';
+	}
+}
@@ -16,8 +16,9 @@
 
 package org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators;
 
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
 import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
 import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegionList;
@@ -26,7 +27,6 @@ import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
 import org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals.ElementProcessorCompletionProposal;
 import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
 import org.thymeleaf.extras.eclipse.dialect.xml.ElementProcessor;
-import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -44,21 +44,20 @@ public class ElementProcessorProposalGenerator
 	/**
 	 * Collect element processor suggestions.
 	 * 
-	 * @param node
-	 * @param document
-	 * @param cursorposition
+	 * @param context
 	 * @return List of element processor suggestions.
 	 * @throws BadLocationException
 	 */
 	@SuppressWarnings("unchecked")
 	private static List<ElementProcessorCompletionProposal> computeElementProcessorSuggestions(
-		IDOMNode node, IStructuredDocument document, int cursorposition) throws BadLocationException {
+		CompletionContext context) throws BadLocationException {
 
-		String pattern = findProcessorNamePattern(document, cursorposition);
+		String pattern = context.getProcessorNamePattern();
+		int cursorposition = context.getCursorPosition();
 
 		List<ElementProcessor> processors = DialectCache.getElementProcessors(
-				findCurrentJavaProject(), findNodeNamespaces(node), pattern);
-		if (!processors.isEmpty()) {
+				context.getJavaProject(), context.getNamespaces(), pattern);
+		if (!processors.isEmpty() && !context.isCanceled()) {
 			ArrayList<ElementProcessorCompletionProposal> proposals =
 					new ArrayList<ElementProcessorCompletionProposal>();
 			for (ElementProcessor processor: processors) {
@@ -76,15 +75,28 @@ public class ElementProcessorProposalGenerator
 	 */
 	@Override
 	@SuppressWarnings("unchecked")
-	public List<ElementProcessorCompletionProposal> generateProposals(IDOMNode node,
-		ITextRegion textregion, IStructuredDocumentRegion documentregion,
-		IStructuredDocument document, int cursorposition) throws BadLocationException {
+	public List<ElementProcessorCompletionProposal> generateProposals(CompletionContext context)
+		throws BadLocationException {
 
-		return makeElementProcessorSuggestions(node, textregion, documentregion, document, cursorposition) ?
-				computeElementProcessorSuggestions(node, document, cursorposition) :
+		return makeElementProcessorSuggestions(context.getNode(), context.getTextRegion(),
+				context.getDocumentRegion(), context.getDocument(), context.getCursorPosition()) &&
+				!context.isCanceled() ?
+				computeElementProcessorSuggestions(context) :
 				Collections.EMPTY_LIST;
 	}
 
+	/**
+	 * Proposals are drawn from the dialects of the project.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if the project's dialects are in the cache.
+	 */
+	@Override
+	public boolean isCacheLoaded(IJavaProject project) {
+
+		return DialectCache.isProjectLoaded(project);
+	}
+
 	/**
 	 * Check if, given everything, element processor suggestions should be made.
 	 * 
@@ -97,7 +109,7 @@ public class ElementProcessorProposalGenerator
 	 * @throws BadLocationException
 	 */
 	private static boolean makeElementProcessorSuggestions(IDOMNode node, ITextRegion textregion,
-		IStructuredDocumentRegion documentregion, IStructuredDocument document, int cursorposition)
+		IStructuredDocumentRegion documentregion, IDocument document, int cursorposition)
 		throws BadLocationException {
 
 		switch (node.getNodeType()) {
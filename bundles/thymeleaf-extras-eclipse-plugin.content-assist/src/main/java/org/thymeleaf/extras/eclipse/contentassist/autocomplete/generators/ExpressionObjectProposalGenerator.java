@@ -16,10 +16,8 @@
 
 package org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators;
 
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.IDocument;
-import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
-import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
 import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
 import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
@@ -27,8 +25,6 @@ import org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals.Express
 import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
 import org.thymeleaf.extras.eclipse.dialect.xml.ExpressionObjectMethod;
 
-import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.findCurrentJavaProject;
-
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -45,21 +41,20 @@ public class ExpressionObjectProposalGenerator
 	/**
 	 * Collect expression object method suggestions.
 	 * 
-	 * @param node
-	 * @param document
-	 * @param cursorposition
+	 * @param context
 	 * @return List of expression object method suggestions
 	 * @throws BadLocationException
 	 */
 	@SuppressWarnings("unchecked")
 	private static List<ExpressionObjectMethodCompletionProposal> computeExpressionObjectMethodSuggestions(
-		IDOMNode node, IStructuredDocument document, int cursorposition) throws BadLocationException {
+		CompletionContext context) throws BadLocationException {
 
-		String pattern = findExpressionObjectMethodNamePattern(document, cursorposition);
+		String pattern = context.getExpressionObjectMethodNamePattern();
+		int cursorposition = context.getCursorPosition();
 
 		List<ExpressionObjectMethod> expressionobjectmethods = DialectCache.getExpressionObjectMethods(
-				findCurrentJavaProject(), findNodeNamespaces(node), pattern);
-		if (!expressionobjectmethods.isEmpty()) {
+				context.getJavaProject(), context.getNamespaces(), pattern);
+		if (!expressionobjectmethods.isEmpty() && !context.isCanceled()) {
 			ArrayList<ExpressionObjectMethodCompletionProposal> proposals =
 					new ArrayList<ExpressionObjectMethodCompletionProposal>();
 			for (ExpressionObjectMethod expressionobject: expressionobjectmethods) {
@@ -73,38 +68,29 @@ public class ExpressionObjectProposalGenerator
 	}
 
 	/**
-	 * Return the expression object method name pattern before the cursor
-	 * position.
-	 * 
-	 * @param document
-	 * @param cursorposition
-	 * @return The text entered up to the document offset, if the text could
-	 * 		   constitute an expression object method name.
-	 * @throws BadLocationException
+	 * {@inheritDoc}
 	 */
-	private static String findExpressionObjectMethodNamePattern(IDocument document, int cursorposition)
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<ExpressionObjectMethodCompletionProposal> generateProposals(CompletionContext context)
 		throws BadLocationException {
 
-		int position = cursorposition;
-		int length = 0;
-		while (--position > 0 && isExpressionObjectMethodChar(document.getChar(position))) {
-			length++;
-		}
-		return document.get(position + 1, length);
+		return makeExpressionObjectMethodSuggestions(context.getNode(), context.getTextRegion()) &&
+				context.getMessageKeyPattern() == null && !context.isCanceled() ?
+				computeExpressionObjectMethodSuggestions(context) :
+				Collections.EMPTY_LIST;
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Proposals are drawn from the dialects of the project.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if the project's dialects are in the cache.
 	 */
 	@Override
-	@SuppressWarnings("unchecked")
-	public List<ExpressionObjectMethodCompletionProposal> generateProposals(IDOMNode node,
-		ITextRegion textregion, IStructuredDocumentRegion documentregion, IStructuredDocument document,
-		int cursorposition) throws BadLocationException {
+	public boolean isCacheLoaded(IJavaProject project) {
 
-		return makeExpressionObjectMethodSuggestions(node, textregion) ?
-				computeExpressionObjectMethodSuggestions(node, document, cursorposition) :
-				Collections.EMPTY_LIST;
+		return DialectCache.isProjectLoaded(project);
 	}
 
 	/**
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators;
+
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
+import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
+import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
+import org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals.FragmentCompletionProposal;
+import org.thymeleaf.extras.eclipse.template.cache.TemplateCache;
+import org.thymeleaf.extras.eclipse.template.model.Fragment;
+import org.thymeleaf.extras.eclipse.template.model.FragmentReference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Proposal generator for the template names and fragment names used in the
+ * values of Thymeleaf's fragment inclusion attributes.
+ * 
+ * @author Emanuel Rabina
+ */
+@SuppressWarnings("restriction")
+public class FragmentProposalGenerator extends AbstractItemProposalGenerator<FragmentCompletionProposal> {
+
+	private static final String FRAGMENT_SEPARATOR = "::";
+	private static final String THIS_TEMPLATE      = "this";
+
+	/**
+	 * Collect template and fragment name suggestions.
+	 * 
+	 * @param context
+	 * @return List of template or fragment name suggestions.
+	 * @throws BadLocationException
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<FragmentCompletionProposal> computeFragmentSuggestions(CompletionContext context)
+		throws BadLocationException {
+
+		// Only work with the value of a fragment inclusion attribute in a Java project
+		IJavaProject project = context.getJavaProject();
+		String attributename = context.getAttributeName();
+		if (project == null || attributename == null || !FragmentReference.isFragmentInclusionAttribute(attributename)) {
+			return Collections.EMPTY_LIST;
+		}
+
+		// Work out what has been typed of the value so far
+		IDocument document = context.getDocument();
+		int cursorposition = context.getCursorPosition();
+		int valuestart = context.getDocumentRegion().getStartOffset(context.getTextRegion());
+		char quote = document.getChar(valuestart);
+		if (quote == '"' || quote == '\'') {
+			valuestart++;
+		}
+		if (cursorposition < valuestart) {
+			return Collections.EMPTY_LIST;
+		}
+		String value = document.get(valuestart, cursorposition - valuestart);
+
+		ArrayList<FragmentCompletionProposal> proposals = new ArrayList<FragmentCompletionProposal>();
+
+		// Suggest fragment names once a template has been selected
+		int separatorindex = value.indexOf(FRAGMENT_SEPARATOR);
+		if (separatorindex != -1) {
+			String templatename = value.substring(0, separatorindex).trim();
+			if (templatename.length() == 0 || templatename.equals(THIS_TEMPLATE)) {
+				templatename = TemplateCache.getTemplateName(
+						new Path(context.getNode().getModel().getBaseLocation()));
+			}
+
+			String fragmentpattern = value.substring(separatorindex + FRAGMENT_SEPARATOR.length());
+			int leadingspaces = fragmentpattern.length();
+			fragmentpattern = fragmentpattern.trim();
+			leadingspaces -= fragmentpattern.length();
+
+			int offsetstart = valuestart + separatorindex + FRAGMENT_SEPARATOR.length() + leadingspaces;
+			for (Fragment fragment: TemplateCache.getFragments(project, templatename, fragmentpattern)) {
+				proposals.add(new FragmentCompletionProposal(fragment, offsetstart, cursorposition));
+			}
+		}
+
+		// Otherwise suggest template names
+		else {
+			String templatepattern = value.trim();
+			int offsetstart = valuestart + value.indexOf(templatepattern);
+			for (String templatename: TemplateCache.getTemplateNames(project, templatepattern)) {
+				proposals.add(new FragmentCompletionProposal(templatename, offsetstart, cursorposition));
+			}
+		}
+
+		return proposals;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<FragmentCompletionProposal> generateProposals(CompletionContext context)
+		throws BadLocationException {
+
+		return makeFragmentSuggestions(context.getNode(), context.getTextRegion()) &&
+				!context.isCanceled() ?
+				computeFragmentSuggestions(context) :
+				Collections.EMPTY_LIST;
+	}
+
+	/**
+	 * Proposals are drawn from the templates of the project.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if the project's templates are in the cache.
+	 */
+	@Override
+	public boolean isCacheLoaded(IJavaProject project) {
+
+		return TemplateCache.isProjectLoaded(project);
+	}
+
+	/**
+	 * Check if, given everything, template and fragment name suggestions should
+	 * be made.
+	 * 
+	 * @param node
+	 * @param textregion
+	 * @return <tt>true</tt> if fragment suggestions should be made.
+	 */
+	private static boolean makeFragmentSuggestions(IDOMNode node, ITextRegion textregion) {
+
+		if (node.getNodeType() == IDOMNode.ELEMENT_NODE &&
+			textregion.getType() == DOMRegionContext.XML_TAG_ATTRIBUTE_VALUE) {
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
+import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
+import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
+import org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals.MessageKeyCompletionProposal;
+import org.thymeleaf.extras.eclipse.message.cache.MessageCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Proposal generator for the keys of <tt>#{...}</tt> message expressions,
+ * drawn from the <tt>messages*.properties</tt> files of the project.
+ * 
+ * @author Emanuel Rabina
+ */
+@SuppressWarnings("restriction")
+public class MessageKeyProposalGenerator extends AbstractItemProposalGenerator<MessageKeyCompletionProposal> {
+
+	/**
+	 * Collect message key suggestions.
+	 * 
+	 * @param context
+	 * @return List of message key suggestions.
+	 * @throws BadLocationException
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<MessageKeyCompletionProposal> computeMessageKeySuggestions(CompletionContext context)
+		throws BadLocationException {
+
+		String pattern = context.getMessageKeyPattern();
+		IJavaProject project = context.getJavaProject();
+		if (pattern == null || project == null) {
+			return Collections.EMPTY_LIST;
+		}
+
+		int cursorposition = context.getCursorPosition();
+		int offsetstart = cursorposition - pattern.length();
+		ArrayList<MessageKeyCompletionProposal> proposals = new ArrayList<MessageKeyCompletionProposal>();
+		for (String messagekey: MessageCache.getMessageKeys(project, pattern)) {
+			proposals.add(new MessageKeyCompletionProposal(messagekey, offsetstart, cursorposition));
+		}
+		return proposals;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<MessageKeyCompletionProposal> generateProposals(CompletionContext context)
+		throws BadLocationException {
+
+		return makeMessageKeySuggestions(context.getNode(), context.getTextRegion()) &&
+				!context.isCanceled() ?
+				computeMessageKeySuggestions(context) :
+				Collections.EMPTY_LIST;
+	}
+
+	/**
+	 * Proposals are drawn from the messages of the project.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if the project's messages are in the cache.
+	 */
+	@Override
+	public boolean isCacheLoaded(IJavaProject project) {
+
+		return MessageCache.isProjectLoaded(project);
+	}
+
+	/**
+	 * Check if, given everything, message key suggestions should be made.
+	 * 
+	 * @param node
+	 * @param textregion
+	 * @return <tt>true</tt> if message key suggestions should be made.
+	 */
+	private static boolean makeMessageKeySuggestions(IDOMNode node, ITextRegion textregion) {
+
+		if (node.getNodeType() == IDOMNode.ELEMENT_NODE &&
+			textregion.getType() == DOMRegionContext.XML_TAG_ATTRIBUTE_VALUE) {
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.autocomplete.generators;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
+import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
+import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
+import org.thymeleaf.extras.eclipse.contentassist.ExpressionToken;
+import org.thymeleaf.extras.eclipse.contentassist.ExpressionTokenCache;
+import org.thymeleaf.extras.eclipse.contentassist.VariableDeclarationCache;
+import org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals.ModelPropertyCompletionProposal;
+import org.thymeleaf.extras.eclipse.dialect.cache.NameMatcher;
+import org.thymeleaf.extras.eclipse.type.cache.JavaBeanProperty;
+import org.thymeleaf.extras.eclipse.type.cache.TypeMemberIndex;
+import org.w3c.dom.Attr;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Proposal generator for model variables and their Java bean properties in
+ * <tt>${...}</tt> expressions, and for the properties of the form-backing
+ * object of a <tt>th:object</tt> attribute in <tt>*{...}</tt> expressions.
+ * Variable types come from <tt>@thymesVar</tt> comments in the template (see
+ * {@link VariableDeclarationCache}).
+ * 
+ * @author Emanuel Rabina
+ */
+@SuppressWarnings("restriction")
+public class ModelPropertyProposalGenerator
+	extends AbstractItemProposalGenerator<ModelPropertyCompletionProposal> {
+
+	private static final Pattern OBJECT_ATTRIBUTE_PATTERN = Pattern.compile("[\\w-]+:object|data-[\\w-]+-object");
+	private static final Pattern OBJECT_EXPRESSION_PATTERN = Pattern.compile("\\s*([$*])\\{\\s*([\\w.]*?)\\s*\\}\\s*");
+
+	/**
+	 * Collect variable and property suggestions.
+	 * 
+	 * @param context
+	 * @return List of variable and property suggestions.
+	 * @throws BadLocationException
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<ModelPropertyCompletionProposal> computeModelPropertySuggestions(CompletionContext context)
+		throws BadLocationException {
+
+		IJavaProject project = context.getJavaProject();
+		IDocument document = context.getDocument();
+		int cursorposition = context.getCursorPosition();
+		if (project == null) {
+			return Collections.EMPTY_LIST;
+		}
+
+		// Only variable and selection expressions have model properties in them
+		ExpressionToken expressionstart = findExpressionStart(context);
+		if (expressionstart == null) {
+			return Collections.EMPTY_LIST;
+		}
+		boolean selection = expressionstart.getText().equals("*{");
+		int expressionoffset = context.getDocumentRegion().getStartOffset(context.getTextRegion()) +
+				expressionstart.getOffset() + expressionstart.getLength();
+
+		// Work out the property path up to the cursor, skipping expression objects
+		int pathstart = cursorposition;
+		while (pathstart > expressionoffset && isPropertyPathChar(document.getChar(pathstart - 1))) {
+			pathstart--;
+		}
+		if (pathstart > expressionoffset && !isPathBoundaryChar(document.getChar(pathstart - 1))) {
+			return Collections.EMPTY_LIST;
+		}
+		String path = document.get(pathstart, cursorposition - pathstart);
+		if (path.startsWith(".")) {
+			return Collections.EMPTY_LIST;
+		}
+		LinkedList<String> segments = new LinkedList<String>(Arrays.asList(path.split("\\.", -1)));
+		String pattern = segments.removeLast();
+		int offsetstart = cursorposition - pattern.length();
+		NameMatcher matcher = new NameMatcher(pattern);
+
+		ArrayList<ModelPropertyCompletionProposal> proposals = new ArrayList<ModelPropertyCompletionProposal>();
+		Map<String,String> variabletypes = VariableDeclarationCache.getVariableTypes(
+				context.getStructuredDocument());
+
+		// A bare name in a variable expression is one of the declared variables
+		if (!selection && segments.isEmpty()) {
+			for (Map.Entry<String,String> variabletype: variabletypes.entrySet()) {
+				if (matcher.matches(variabletype.getKey())) {
+					proposals.add(new ModelPropertyCompletionProposal(variabletype.getKey(),
+							Signature.getSimpleName(variabletype.getValue()), offsetstart, cursorposition));
+				}
+			}
+			return proposals;
+		}
+
+		IType type = selection ?
+				findSelectionType(project, variabletypes, context.getNode()) :
+				findVariableType(project, variabletypes, segments.removeFirst());
+		if (type != null && !segments.isEmpty()) {
+			type = TypeMemberIndex.resolvePropertyPath(type, segments);
+		}
+		if (type == null || context.isCanceled()) {
+			return Collections.EMPTY_LIST;
+		}
+
+		for (JavaBeanProperty property: TypeMemberIndex.getProperties(type)) {
+			if (matcher.matches(property.getName())) {
+				proposals.add(new ModelPropertyCompletionProposal(property.getName(),
+						property.getDisplayType(), offsetstart, cursorposition));
+			}
+		}
+		return proposals;
+	}
+
+	/**
+	 * Find the start of the innermost expression the cursor is in, if it's a
+	 * variable or selection expression.
+	 * 
+	 * @param context
+	 * @return The <tt>${</tt> or <tt>*{</tt> token of the expression, with its
+	 * 		   offset relative to the start of the text region, or
+	 * 		   <tt>null</tt> if the cursor isn't in one of those expressions.
+	 */
+	private static ExpressionToken findExpressionStart(CompletionContext context) {
+
+		ITextRegion textregion = context.getTextRegion();
+		int regionstart = context.getDocumentRegion().getStartOffset(textregion);
+		int cursoroffset = context.getCursorPosition() - regionstart;
+
+		LinkedList<ExpressionToken> openexpressions = new LinkedList<ExpressionToken>();
+		for (ExpressionToken token: ExpressionTokenCache.getTokens(context.getStructuredDocument(),
+				context.getDocumentRegion(), textregion)) {
+			if (token.getOffset() + token.getLength() > cursoroffset) {
+				break;
+			}
+			if (token.getType() == ExpressionToken.Type.EXPRESSION_START) {
+				openexpressions.addLast(token);
+			}
+			else if (token.getType() == ExpressionToken.Type.EXPRESSION_END && !openexpressions.isEmpty()) {
+				openexpressions.removeLast();
+			}
+		}
+
+		if (openexpressions.isEmpty()) {
+			return null;
+		}
+		ExpressionToken expressionstart = openexpressions.getLast();
+		return expressionstart.getText().equals("${") || expressionstart.getText().equals("*{") ?
+				expressionstart : null;
+	}
+
+	/**
+	 * Find the type of the form-backing object selected by the nearest
+	 * <tt>th:object</tt> attribute on the given node or its ancestors.
+	 * 
+	 * @param project
+	 * @param variabletypes
+	 * @param node
+	 * @return The selected object's type, or <tt>null</tt> if there's no
+	 * 		   selection or its type can't be worked out.
+	 */
+	private static IType findSelectionType(IJavaProject project, Map<String,String> variabletypes, Node node) {
+
+		for (; node != null; node = node.getParentNode()) {
+			if (node.getNodeType() != Node.ELEMENT_NODE) {
+				continue;
+			}
+			NamedNodeMap attributes = node.getAttributes();
+			for (int i = 0; i < attributes.getLength(); i++) {
+				Attr attribute = (Attr)attributes.item(i);
+				if (!OBJECT_ATTRIBUTE_PATTERN.matcher(attribute.getName()).matches()) {
+					continue;
+				}
+
+				// Only simple property paths can be followed, eg: ${user.address}
+				Matcher matcher = OBJECT_EXPRESSION_PATTERN.matcher(attribute.getValue());
+				if (!matcher.matches() || matcher.group(2).isEmpty()) {
+					return null;
+				}
+				LinkedList<String> segments = new LinkedList<String>(Arrays.asList(matcher.group(2).split("\\.")));
+				IType type = matcher.group(1).equals("*") ?
+						findSelectionType(project, variabletypes, node.getParentNode()) :
+						findVariableType(project, variabletypes, segments.removeFirst());
+				return type != null ? TypeMemberIndex.resolvePropertyPath(type, segments) : null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Find the type of a variable declared in the template.
+	 * 
+	 * @param project
+	 * @param variabletypes
+	 * @param variablename
+	 * @return The variable's type, or <tt>null</tt> if the variable wasn't
+	 * 		   declared or its type isn't in the project.
+	 */
+	private static IType findVariableType(IJavaProject project, Map<String,String> variabletypes,
+		String variablename) {
+
+		String typename = variabletypes.get(variablename);
+		if (typename != null) {
+			try {
+				return project.findType(typename);
+			}
+			catch (JavaModelException ex) {
+				logError("Unable to find type " + typename + " in the project", ex);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<ModelPropertyCompletionProposal> generateProposals(CompletionContext context)
+		throws BadLocationException {
+
+		return makeModelPropertySuggestions(context.getNode(), context.getTextRegion()) &&
+				!context.isCanceled() ?
+				computeModelPropertySuggestions(context) :
+				Collections.EMPTY_LIST;
+	}
+
+	/**
+	 * Returns whether or not the given character can come just before a
+	 * property path, ie: it isn't part of something else like an expression
+	 * object or a method call.
+	 * 
+	 * @param c
+	 * @return <tt>true</tt> if a property path can follow the character.
+	 */
+	private static boolean isPathBoundaryChar(char c) {
+
+		return c != '#' && c != ')' && c != ']' && c != '\'' && c != '@' && c != '$' && c != '*';
+	}
+
+	/**
+	 * Returns whether or not the given character is a valid property path
+	 * character.
+	 * 
+	 * @param c
+	 * @return <tt>true</tt> if the character can be a part of a property path.
+	 */
+	private static boolean isPropertyPathChar(char c) {
+
+		return Character.isJavaIdentifierPart(c) || c == '.';
+	}
+
+	/**
+	 * Check if, given everything, model property suggestions should be made.
+	 * 
+	 * @param node
+	 * @param textregion
+	 * @return <tt>true</tt> if model property suggestions should be made.
+	 */
+	private static boolean makeModelPropertySuggestions(IDOMNode node, ITextRegion textregion) {
+
+		if (node.getNodeType() == IDOMNode.ELEMENT_NODE &&
+			textregion.getType() == DOMRegionContext.XML_TAG_ATTRIBUTE_VALUE) {
+			return true;
+		}
+		return false;
+	}
+}
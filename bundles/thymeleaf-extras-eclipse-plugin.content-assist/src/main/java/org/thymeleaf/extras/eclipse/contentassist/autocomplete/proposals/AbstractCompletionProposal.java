@@ -16,32 +16,37 @@
 
 package org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.contentassist.ContextInformation;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.jface.text.contentassist.ICompletionProposalExtension;
+import org.eclipse.jface.text.contentassist.ICompletionProposalExtension2;
+import org.eclipse.jface.text.contentassist.ICompletionProposalExtension5;
 import org.eclipse.jface.text.contentassist.IContextInformation;
-import org.thymeleaf.extras.eclipse.dialect.xml.AttributeProcessor;
-import org.thymeleaf.extras.eclipse.dialect.xml.AttributeRestrictions;
+import org.thymeleaf.extras.eclipse.contentassist.DocumentationCache;
+import org.thymeleaf.extras.eclipse.contentassist.UsageStatistics;
+import org.thymeleaf.extras.eclipse.dialect.cache.NameMatcher;
 import org.thymeleaf.extras.eclipse.dialect.xml.DialectItem;
-import org.thymeleaf.extras.eclipse.dialect.xml.Documentation;
 import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Common code for all processor and expression object completion proposals.
  * 
  * @author Emanuel Rabina
  */
-public abstract class AbstractCompletionProposal implements ICompletionProposal, ICompletionProposalExtension {
+public abstract class AbstractCompletionProposal implements ICompletionProposal, ICompletionProposalExtension,
+	ICompletionProposalExtension2, ICompletionProposalExtension5 {
 
 	protected final String replacementstring;
+	protected final int charsentered;
 	protected final int cursorposition;
 
-	protected final String additionalproposalinfo;
+	protected final DialectItem dialectitem;
+	protected final String itemname;
 	protected final IContextInformation contextinformation;
 
 	/**
@@ -53,25 +58,46 @@ public abstract class AbstractCompletionProposal implements ICompletionProposal,
 	 */
 	protected AbstractCompletionProposal(String replacementstring, int cursorposition) {
 
-		this(null, replacementstring, cursorposition);
+		this(null, null, replacementstring, 0, cursorposition);
 	}
 
 	/**
-	 * Subclass constructor, set completion information.
+	 * Subclass constructor, set completion information from the shared
+	 * template of a dialect item.
+	 * 
+	 * @param template		 Proposal template of the dialect item.
+	 * @param charsentered	 How much of the entire proposal has already been
+	 * 						 entered by the user.
+	 * @param cursorposition
+	 */
+	protected AbstractCompletionProposal(ProposalTemplate template, int charsentered, int cursorposition) {
+
+		this(template.getDialectItem(), template.getItemName(), template.getReplacementString(),
+				charsentered, cursorposition);
+	}
+
+	/**
+	 * Constructor, set completion information.
 	 * 
 	 * @param dialectitem
+	 * @param itemname			Name the usage of the dialect item is counted
+	 * 							under.
 	 * @param replacementstring Value to be entered into the document if this
-	 * 							proposal is selected.
+	 * 							proposal is selected, including any characters
+	 * 							already entered.
+	 * @param charsentered
 	 * @param cursorposition
 	 */
-	protected AbstractCompletionProposal(DialectItem dialectitem, String replacementstring,
-		int cursorposition) {
+	private AbstractCompletionProposal(DialectItem dialectitem, String itemname, String replacementstring,
+		int charsentered, int cursorposition) {
 
 		this.replacementstring = replacementstring;
+		this.charsentered      = charsentered;
 		this.cursorposition    = cursorposition;
 
-		this.additionalproposalinfo = dialectitem != null ? generateDocumentation(dialectitem) : null;
-		this.contextinformation     = null;
+		this.dialectitem        = dialectitem;
+		this.itemname           = itemname;
+		this.contextinformation = null;
 	}
 
 	/**
@@ -91,12 +117,24 @@ public abstract class AbstractCompletionProposal implements ICompletionProposal,
 
 		try {
 			applyImpl(document, trigger, offset);
+			if (dialectitem != null) {
+				UsageStatistics.recordUsage(itemname);
+			}
 		}
 		catch (BadLocationException ex) {
 			logError("Unable to apply proposal", ex);
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void apply(ITextViewer viewer, char trigger, int statemask, int offset) {
+
+		apply(viewer.getDocument(), trigger, offset);
+	}
+
 	/**
 	 * Applies the proposal to the document.
 	 * 
@@ -109,166 +147,114 @@ public abstract class AbstractCompletionProposal implements ICompletionProposal,
 		throws BadLocationException;
 
 	/**
-	 * Creates the documentation/help text, either from a &lt;documentation&gt;
-	 * element in a dialect XML help file, or if that isn't present, the
-	 * Javadocs of that item if it's source code is available on a project.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getAdditionalProposalInfo() {
+
+		return dialectitem != null ? DocumentationCache.getDocumentation(dialectitem) : null;
+	}
+
+	/**
+	 * Documentation is only generated here, when the user actually selects
+	 * this proposal, rather than for every proposal when it's created.  If the
+	 * user has already moved on to another proposal, nothing is generated.
 	 * 
-	 * @param dialectitem
-	 * @return Documentation string.
+	 * @param monitor
+	 * @return Documentation for the dialect item being proposed, or
+	 * 		   <tt>null</tt> if there is none.
 	 */
-	private static String generateDocumentation(DialectItem dialectitem) {
-
-		StringBuilder doctext = new StringBuilder();
-
-		// Documentation from <documentation> element
-		if (dialectitem.isSetDocumentation()) {
-			Documentation documentation = dialectitem.getDocumentation();
-
-			doctext.append(documentation.getValue());
-
-			// Generate 'see also' text
-			if (documentation.isSetSeeAlso()) {
-				doctext.append("<br/><dl><dt>See also:</dt><dd>");
-				List<String> seealsolist = documentation.getSeeAlso();
-				for (int i = 0; i < seealsolist.size(); i++) {
-					String seealso = seealsolist.get(i);
-					if (!seealso.contains(".") && !seealso.contains(":")) {
-						doctext.append(dialectitem.getDialect().getPrefix() + ":");
-					}
-					doctext.append(i < seealsolist.size() - 1 ? seealso + ", " : seealso);
-				}
-				doctext.append("</dd>");
-			}
+	@Override
+	public Object getAdditionalProposalInfo(IProgressMonitor monitor) {
 
-			// Generate 'document reference' text
-			if (documentation.isSetReference()) {
-				doctext.append((documentation.isSetSeeAlso() ? "<dt>" : "<br/><dl><dt>") + "Reference:</dt><dd>");
-				doctext.append(documentation.getReference()).append("</dd>");
-			}
+		return monitor == null || !monitor.isCanceled() ? getAdditionalProposalInfo() : null;
+	}
 
-			if (documentation.isSetSeeAlso() || documentation.isSetReference()) {
-				doctext.append("</dl>");
-			}
-		}
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IContextInformation getContextInformation() {
 
-		// Generate 'restrictions' text
-		if (dialectitem instanceof AttributeProcessor) {
-			AttributeProcessor attributeprocessor = (AttributeProcessor)dialectitem;
-			if (attributeprocessor.isSetRestrictions()) {
-				AttributeRestrictions restrictions = ((AttributeProcessor)dialectitem).getRestrictions();
-				if (restrictions.isSetTags() || restrictions.isSetAttributes() || restrictions.isSetValues()) {
-					doctext.append("<dl>");
-				}
-
-				// Tags the processor can/can't appear in
-				if (restrictions.isSetTags()) {
-					doctext.append(generateDocumentationRestrictions(restrictions.getTags(),
-							"Must appear in tag(s):", "Cannot appear in tag(s):"));
-				}
-
-				// Attributes the processor can/can't appear alongside
-				if (restrictions.isSetAttributes()) {
-					doctext.append(generateDocumentationRestrictions(restrictions.getAttributes(),
-							"Must appear with attribute(s):", "Cannot appear with attribute(s):"));
-				}
-
-				// Values the processor is restricted to
-				if (restrictions.isSetValues()) {
-					doctext.append("<dt>Possible value(s):</dt><dd>");
-					List<String> values = restrictions.getValues();
-					for (int i = 0; i < values.size(); i++) {
-						String value = values.get(i);
-						doctext.append(i < values.size() - 1 ? value + ", " : value);
-					}
-					doctext.append("</dd>");
-				}
-
-				if (restrictions.isSetTags() || restrictions.isSetAttributes() || restrictions.isSetValues()) {
-					doctext.append("</dl>");
-				}
-			}
-		}
+//		return contextinformation;
+		return new ContextInformation("Context string", "Information string");
+	}
 
-		return doctext.length() > 0 ? doctext.toString() : null;
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getContextInformationPosition() {
+
+		return contextinformation == null ? -1 : 0;
 	}
 
 	/**
-	 * Creates the help text around attribute restriction tags/attributes.
+	 * Return how many times the dialect item of this proposal has been picked
+	 * before, for ranking it against the other proposals.  Uses are counted
+	 * against the item rather than the text inserted, so picking either form
+	 * of an attribute processor ranks both.
 	 * 
-	 * @param restrictions Space-separated list of tags/attributes that the
-	 * 					   processor can/cannot appear alongside.
-	 * @param yestext	   Text for when the restriction indicates the processor
-	 * 					   must appear with that restriction.
-	 * @param notext	   Text for when the restriction indicates the processor
-	 * 					   must not appear with that restriction.
-	 * @return <tt>StringBuilder</tt> containing the restriction text.
+	 * @return Usage count of the dialect item, or <tt>0</tt> for proposals that
+	 * 		   aren't of a dialect item.
 	 */
-	private static StringBuilder generateDocumentationRestrictions(List<String> restrictions,
-		String yestext, String notext) {
+	public int getUsageCount() {
 
-		StringBuilder doctext = new StringBuilder();
+		return dialectitem != null ? UsageStatistics.getUsageCount(itemname) : 0;
+	}
 
-		ArrayList<String> yestags = new ArrayList<String>();
-		ArrayList<String> notags  = new ArrayList<String>();
-		for (String tag: restrictions) {
-			if (tag.startsWith("-")) {
-				notags.add(tag);
-			}
-			else {
-				yestags.add(tag);
-			}
-		}
-		if (!yestags.isEmpty()) {
-			doctext.append("<dt>" + yestext + "</dt>");
-			for (String yestag: yestags) {
-				doctext.append("<dd>" + yestag + "</dd>");
-			}
-		}
-		if (!notags.isEmpty()) {
-			doctext.append("<dt>" + notext + "</dt>");
-			for (String notag: notags) {
-				doctext.append("<dd>" + notag.substring(1) + "</dd>");
-			}
-		}
+	/**
+	 * Return where in the document this proposal's text starts, which is where
+	 * the user started typing the name being completed.
+	 * 
+	 * @return Replacement offset.
+	 */
+	protected int getReplacementOffset() {
 
-		return doctext;
+		return cursorposition - charsentered;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public String getAdditionalProposalInfo() {
+	public char[] getTriggerCharacters() {
 
-		return additionalproposalinfo;
+		return null;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public IContextInformation getContextInformation() {
+	public void selected(ITextViewer viewer, boolean smarttoggle) {
 
-//		return contextinformation;
-		return new ContextInformation("Context string", "Information string");
+		// Does nothing - no highlighting of the text to be replaced
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public int getContextInformationPosition() {
+	public void unselected(ITextViewer viewer) {
 
-		return contextinformation == null ? -1 : 0;
+		// Does nothing - no highlighting of the text to be replaced
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Used both by the content assist popup to filter the proposals as the
+	 * user keeps typing, and by the computer to narrow down the proposals of
+	 * the current session without creating them again.
+	 * 
+	 * @param document
+	 * @param offset
+	 * @param event
+	 * @return <tt>true</tt> if this proposal is still valid at the offset.
 	 */
 	@Override
-	public char[] getTriggerCharacters() {
+	public boolean validate(IDocument document, int offset, DocumentEvent event) {
 
-		return null;
+		return isValidFor(document, offset);
 	}
 
 	/**
@@ -278,9 +264,13 @@ public abstract class AbstractCompletionProposal implements ICompletionProposal,
 	public boolean isValidFor(IDocument document, int offset) {
 
 		try {
-			// Use this proposal if the characters typed since it was suggested still
-			// match the string this proposal will insert into the document
-			return replacementstring.startsWith(document.get(cursorposition, offset - cursorposition));
+			// Use this proposal if the characters typed still match the string this
+			// proposal will insert into the document.  Dialect item names can be
+			// matched fuzzily, anything else has to be typed from the start.
+			String entered = document.get(getReplacementOffset(), offset - getReplacementOffset());
+			return dialectitem != null ?
+					new NameMatcher(entered).matches(replacementstring) :
+					replacementstring.startsWith(entered);
 		}
 		catch (BadLocationException ex) {
 			return false;
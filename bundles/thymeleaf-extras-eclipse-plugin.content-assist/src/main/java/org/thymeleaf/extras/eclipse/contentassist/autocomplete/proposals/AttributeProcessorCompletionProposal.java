@@ -21,7 +21,6 @@ import org.eclipse.jface.text.IDocument;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
 import org.thymeleaf.extras.eclipse.dialect.xml.AttributeProcessor;
-import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
 
 /**
  * A completion proposal for Thymeleaf attribute processors.
@@ -30,7 +29,7 @@ import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
  */
 public class AttributeProcessorCompletionProposal extends AbstractCompletionProposal {
 
-	private final String displaystring;
+	private final ProposalTemplate template;
 
 	/**
 	 * Constructor, creates a completion proposal for a Thymeleaf attribute
@@ -46,11 +45,22 @@ public class AttributeProcessorCompletionProposal extends AbstractCompletionProp
 	public AttributeProcessorCompletionProposal(AttributeProcessor processor,
 		int charsentered, int cursorposition, boolean dataattr) {
 
-		super(processor,
-				!dataattr ? processor.getFullName().substring(charsentered) :
-				            processor.getFullDataName().substring(charsentered),
-				cursorposition);
-		this.displaystring = !dataattr ? processor.getFullName() : processor.getFullDataName();
+		this(ProposalTemplate.forAttributeProcessor(processor, dataattr), charsentered, cursorposition);
+	}
+
+	/**
+	 * Constructor, bind the shared template of an attribute processor to the
+	 * current position.
+	 * 
+	 * @param template
+	 * @param charsentered
+	 * @param cursorposition
+	 */
+	private AttributeProcessorCompletionProposal(ProposalTemplate template, int charsentered,
+		int cursorposition) {
+
+		super(template, charsentered, cursorposition);
+		this.template = template;
 	}
 
 	/**
@@ -59,7 +69,7 @@ public class AttributeProcessorCompletionProposal extends AbstractCompletionProp
 	@Override
 	protected void applyImpl(IDocument document, char trigger, int offset) throws BadLocationException {
 
-		document.replace(offset, 0, replacementstring.substring(offset - cursorposition) + "=\"\"");
+		document.replace(getReplacementOffset(), offset - getReplacementOffset(), replacementstring + "=\"\"");
 	}
 
 	/**
@@ -68,7 +78,7 @@ public class AttributeProcessorCompletionProposal extends AbstractCompletionProp
 	@Override
 	public String getDisplayString() {
 
-		return displaystring;
+		return template.getDisplayString();
 	}
 
 	/**
@@ -77,7 +87,7 @@ public class AttributeProcessorCompletionProposal extends AbstractCompletionProp
 	@Override
 	public Image getImage() {
 
-		return getDefault().getImageRegistry().get(IMAGE_ATTRIBUTE_PROCESSOR);
+		return template.getImage();
 	}
 
 	/**
@@ -86,6 +96,6 @@ public class AttributeProcessorCompletionProposal extends AbstractCompletionProp
 	@Override
 	public Point getSelection(IDocument document) {
 
-		return new Point(cursorposition + replacementstring.length() + 2, 0);
+		return new Point(getReplacementOffset() + replacementstring.length() + 2, 0);
 	}
 }
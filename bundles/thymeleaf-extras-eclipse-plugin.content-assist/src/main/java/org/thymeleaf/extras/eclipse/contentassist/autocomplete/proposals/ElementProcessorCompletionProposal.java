@@ -23,7 +23,6 @@ import org.eclipse.swt.graphics.Point;
 import org.eclipse.wst.html.ui.internal.HTMLUIPlugin;
 import org.eclipse.wst.html.ui.internal.preferences.HTMLUIPreferenceNames;
 import org.thymeleaf.extras.eclipse.dialect.xml.ElementProcessor;
-import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
 
 /**
  * A completion proposal for Thymeleaf element processors.
@@ -33,8 +32,8 @@ import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
 @SuppressWarnings("restriction")
 public class ElementProcessorCompletionProposal extends AbstractCompletionProposal {
 
+	private final ProposalTemplate template;
 	private final boolean addendtag;
-	private final String fullprocessorname;
 
 	/**
 	 * Constructor, creates a completion proposal for a Thymeleaf element
@@ -48,10 +47,24 @@ public class ElementProcessorCompletionProposal extends AbstractCompletionPropos
 	public ElementProcessorCompletionProposal(ElementProcessor processor,
 		int charsentered, int cursorposition) {
 
-		super(processor, processor.getFullName().substring(charsentered), cursorposition);
+		this(ProposalTemplate.forElementProcessor(processor), charsentered, cursorposition);
+	}
+
+	/**
+	 * Constructor, bind the shared template of an element processor to the
+	 * current position.
+	 * 
+	 * @param template
+	 * @param charsentered
+	 * @param cursorposition
+	 */
+	private ElementProcessorCompletionProposal(ProposalTemplate template, int charsentered,
+		int cursorposition) {
+
+		super(template, charsentered, cursorposition);
+		this.template = template;
 		addendtag = HTMLUIPlugin.getDefault().getPreferenceStore().getBoolean(
 				HTMLUIPreferenceNames.TYPING_COMPLETE_ELEMENTS);
-		this.fullprocessorname = processor.getFullName();
 	}
 
 	/**
@@ -60,11 +73,11 @@ public class ElementProcessorCompletionProposal extends AbstractCompletionPropos
 	@Override
 	protected void applyImpl(IDocument document, char trigger, int offset) throws BadLocationException {
 
-		String replacement = replacementstring.substring(offset - cursorposition) + ">";
+		String replacement = replacementstring + ">";
 		if (addendtag) {
-			replacement += "</" + fullprocessorname + ">";
+			replacement += "</" + replacementstring + ">";
 		}
-		document.replace(offset, 0, replacement);
+		document.replace(getReplacementOffset(), offset - getReplacementOffset(), replacement);
 	}
 
 	/**
@@ -73,7 +86,7 @@ public class ElementProcessorCompletionProposal extends AbstractCompletionPropos
 	@Override
 	public String getDisplayString() {
 
-		return fullprocessorname;
+		return template.getDisplayString();
 	}
 
 	/**
@@ -82,7 +95,7 @@ public class ElementProcessorCompletionProposal extends AbstractCompletionPropos
 	@Override
 	public Image getImage() {
 
-		return getDefault().getImageRegistry().get(IMAGE_ELEMENT_PROCESSOR);
+		return template.getImage();
 	}
 
 	/**
@@ -91,6 +104,6 @@ public class ElementProcessorCompletionProposal extends AbstractCompletionPropos
 	@Override
 	public Point getSelection(IDocument document) {
 
-		return new Point(cursorposition + replacementstring.length() + 1, 0);
+		return new Point(getReplacementOffset() + replacementstring.length() + 1, 0);
 	}
 }
@@ -20,8 +20,11 @@ import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
+import org.thymeleaf.extras.eclipse.dialect.cache.MethodSignature;
+import org.thymeleaf.extras.eclipse.dialect.cache.MethodSignatureResolver;
 import org.thymeleaf.extras.eclipse.dialect.xml.ExpressionObjectMethod;
-import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
+
+import java.util.List;
 
 /**
  * A completion proposal for Thymeleaf expression object methods.
@@ -30,9 +33,12 @@ import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
  */
 public class ExpressionObjectMethodCompletionProposal extends AbstractCompletionProposal {
 
-	private final String methodname;
+	private final ProposalTemplate template;
 	private final boolean javabeanproperty;
 
+	// Parameter placeholders inserted when this proposal was applied
+	private String parameters = "";
+
 	/**
 	 * Constructor, set the expression object method information.
 	 * 
@@ -44,10 +50,25 @@ public class ExpressionObjectMethodCompletionProposal extends AbstractCompletion
 	public ExpressionObjectMethodCompletionProposal(ExpressionObjectMethod method,
 		int charsentered, int cursorposition) {
 
-		super(method, method.getFullName().substring(charsentered), cursorposition);
+		this(ProposalTemplate.forExpressionObjectMethod(method), method.isJavaBeanProperty(),
+				charsentered, cursorposition);
+	}
+
+	/**
+	 * Constructor, bind the shared template of an expression object method to
+	 * the current position.
+	 * 
+	 * @param template
+	 * @param javabeanproperty
+	 * @param charsentered
+	 * @param cursorposition
+	 */
+	private ExpressionObjectMethodCompletionProposal(ProposalTemplate template, boolean javabeanproperty,
+		int charsentered, int cursorposition) {
 
-		methodname = method.getName();
-		javabeanproperty = method.isJavaBeanProperty();
+		super(template, charsentered, cursorposition);
+		this.template         = template;
+		this.javabeanproperty = javabeanproperty;
 	}
 
 	/**
@@ -56,8 +77,39 @@ public class ExpressionObjectMethodCompletionProposal extends AbstractCompletion
 	@Override
 	protected void applyImpl(IDocument document, char trigger, int offset) throws BadLocationException {
 
-		document.replace(offset, 0, replacementstring.substring(offset - cursorposition) +
-				(!javabeanproperty ? "()" : ""));
+		if (!javabeanproperty) {
+			parameters = createParameterPlaceholders();
+		}
+		document.replace(getReplacementOffset(), offset - getReplacementOffset(), replacementstring +
+				(!javabeanproperty ? "(" + parameters + ")" : ""));
+	}
+
+	/**
+	 * Creates the parameter placeholders for a call to this method, using the
+	 * parameter names of its signature.  Placeholders are only made when the
+	 * method has the one signature, as there's no telling which of several
+	 * overloads the user is after.
+	 * 
+	 * @return Comma-separated parameter names, or an empty string if the
+	 * 		   method takes no parameters or is overloaded.
+	 */
+	private String createParameterPlaceholders() {
+
+		List<MethodSignature> signatures = MethodSignatureResolver.getSignatures(
+				(ExpressionObjectMethod)dialectitem);
+		if (signatures.size() != 1) {
+			return "";
+		}
+
+		MethodSignature signature = signatures.get(0);
+		StringBuilder placeholders = new StringBuilder();
+		for (int i = 0; i < signature.getParameterCount(); i++) {
+			if (i > 0) {
+				placeholders.append(", ");
+			}
+			placeholders.append(signature.getParameterName(i));
+		}
+		return placeholders.toString();
 	}
 
 	/**
@@ -66,7 +118,7 @@ public class ExpressionObjectMethodCompletionProposal extends AbstractCompletion
 	@Override
 	public String getDisplayString() {
 
-		return methodname;
+		return template.getDisplayString();
 	}
 
 	/**
@@ -75,15 +127,21 @@ public class ExpressionObjectMethodCompletionProposal extends AbstractCompletion
 	@Override
 	public Image getImage() {
 
-		return getDefault().getImageRegistry().get(IMAGE_EXPRESSION_OBJECT_METHOD);
+		return template.getImage();
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Selects the first parameter placeholder if any were inserted, otherwise
+	 * puts the cursor between the brackets of a method or after a property.
+	 * 
+	 * @param document
+	 * @return Selection after this proposal has been applied.
 	 */
 	@Override
 	public Point getSelection(IDocument document) {
 
-		return new Point(cursorposition + replacementstring.length() + (!javabeanproperty ? 1 : 0), 0);
+		int firstparameter = parameters.indexOf(',');
+		return new Point(getReplacementOffset() + replacementstring.length() + (!javabeanproperty ? 1 : 0),
+				firstparameter != -1 ? firstparameter : parameters.length());
 	}
 }
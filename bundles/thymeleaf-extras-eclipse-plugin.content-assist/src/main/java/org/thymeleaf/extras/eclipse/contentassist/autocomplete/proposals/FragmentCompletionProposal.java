@@ -0,0 +1,153 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Point;
+import org.thymeleaf.extras.eclipse.template.model.Fragment;
+import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
+
+/**
+ * A completion proposal for the template and fragment names of a fragment
+ * inclusion attribute.
+ * 
+ * @author Emanuel Rabina
+ */
+public class FragmentCompletionProposal extends AbstractCompletionProposal {
+
+	private static final String FRAGMENT_SEPARATOR = " :: ";
+
+	private final String displaystring;
+	private final int offsetstart;
+
+	/**
+	 * Constructor, creates a proposal for a fragment within a template.
+	 * 
+	 * @param fragment
+	 * @param offsetstart	 Start of the fragment name being typed.
+	 * @param cursorposition
+	 */
+	public FragmentCompletionProposal(Fragment fragment, int offsetstart, int cursorposition) {
+
+		this(fragmentSignature(fragment), fragmentSignature(fragment), offsetstart, cursorposition);
+	}
+
+	/**
+	 * Constructor, creates a proposal for a template name.
+	 * 
+	 * @param templatename
+	 * @param offsetstart	 Start of the template name being typed.
+	 * @param cursorposition
+	 */
+	public FragmentCompletionProposal(String templatename, int offsetstart, int cursorposition) {
+
+		this(templatename, templatename + FRAGMENT_SEPARATOR, offsetstart, cursorposition);
+	}
+
+	/**
+	 * Constructor, set completion information.
+	 * 
+	 * @param displaystring
+	 * @param replacementstring
+	 * @param offsetstart
+	 * @param cursorposition
+	 */
+	private FragmentCompletionProposal(String displaystring, String replacementstring, int offsetstart,
+		int cursorposition) {
+
+		super(replacementstring, cursorposition);
+
+		this.displaystring = displaystring;
+		this.offsetstart   = offsetstart;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void applyImpl(IDocument document, char trigger, int offset) throws BadLocationException {
+
+		document.replace(offsetstart, offset - offsetstart, replacementstring);
+	}
+
+	/**
+	 * Create the text used to refer to a fragment, including any arguments it
+	 * takes.
+	 * 
+	 * @param fragment
+	 * @return Fragment name and argument list.
+	 */
+	private static String fragmentSignature(Fragment fragment) {
+
+		String[] arguments = fragment.getArguments();
+		if (arguments.length == 0) {
+			return fragment.getName();
+		}
+
+		StringBuilder signature = new StringBuilder(fragment.getName()).append('(');
+		for (int i = 0; i < arguments.length; i++) {
+			signature.append(i < arguments.length - 1 ? arguments[i] + ", " : arguments[i]);
+		}
+		return signature.append(')').toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getDisplayString() {
+
+		return displaystring;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Image getImage() {
+
+		return getDefault().getImageRegistry().get(IMAGE_THYMELEAF);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Point getSelection(IDocument document) {
+
+		return new Point(offsetstart + replacementstring.length(), 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isValidFor(IDocument document, int offset) {
+
+		try {
+			// Names are matched from the start of what was being typed, not the
+			// cursor position when the proposal was made
+			return offset >= offsetstart &&
+					replacementstring.startsWith(document.get(offsetstart, offset - offsetstart));
+		}
+		catch (BadLocationException ex) {
+			return false;
+		}
+	}
+}
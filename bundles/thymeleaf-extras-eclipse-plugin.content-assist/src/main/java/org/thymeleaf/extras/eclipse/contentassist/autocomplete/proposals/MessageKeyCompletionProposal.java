@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Point;
+import org.thymeleaf.extras.eclipse.dialect.cache.NameMatcher;
+import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
+
+/**
+ * A completion proposal for the key of a <tt>#{...}</tt> message expression.
+ * 
+ * @author Emanuel Rabina
+ */
+public class MessageKeyCompletionProposal extends AbstractCompletionProposal {
+
+	private final int offsetstart;
+
+	/**
+	 * Constructor, set the message key information.
+	 * 
+	 * @param messagekey
+	 * @param offsetstart	 Start of the message key being typed.
+	 * @param cursorposition
+	 */
+	public MessageKeyCompletionProposal(String messagekey, int offsetstart, int cursorposition) {
+
+		super(messagekey, cursorposition);
+		this.offsetstart = offsetstart;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void applyImpl(IDocument document, char trigger, int offset) throws BadLocationException {
+
+		document.replace(offsetstart, offset - offsetstart, replacementstring);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getDisplayString() {
+
+		return replacementstring;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Image getImage() {
+
+		return getDefault().getImageRegistry().get(IMAGE_THYMELEAF);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Point getSelection(IDocument document) {
+
+		return new Point(offsetstart + replacementstring.length(), 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isValidFor(IDocument document, int offset) {
+
+		try {
+			// Keys are matched fuzzily from the start of what was being typed, as
+			// they were when the proposal was made
+			return offset >= offsetstart &&
+					new NameMatcher(document.get(offsetstart, offset - offsetstart)).matches(replacementstring);
+		}
+		catch (BadLocationException ex) {
+			return false;
+		}
+	}
+}
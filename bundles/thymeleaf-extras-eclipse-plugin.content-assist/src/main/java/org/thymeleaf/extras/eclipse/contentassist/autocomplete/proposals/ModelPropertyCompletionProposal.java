@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Point;
+import org.thymeleaf.extras.eclipse.dialect.cache.NameMatcher;
+import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
+
+/**
+ * A completion proposal for a model variable or one of the Java bean
+ * properties along a <tt>${...}</tt> or <tt>*{...}</tt> property path.
+ * 
+ * @author Emanuel Rabina
+ */
+public class ModelPropertyCompletionProposal extends AbstractCompletionProposal {
+
+	private final String displaytype;
+	private final int offsetstart;
+
+	/**
+	 * Constructor, set the property information.
+	 * 
+	 * @param propertyname
+	 * @param displaytype	 Simple name of the property type.
+	 * @param offsetstart	 Start of the property name being typed.
+	 * @param cursorposition
+	 */
+	public ModelPropertyCompletionProposal(String propertyname, String displaytype, int offsetstart,
+		int cursorposition) {
+
+		super(propertyname, cursorposition);
+		this.displaytype = displaytype;
+		this.offsetstart = offsetstart;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void applyImpl(IDocument document, char trigger, int offset) throws BadLocationException {
+
+		document.replace(offsetstart, offset - offsetstart, replacementstring);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getDisplayString() {
+
+		return replacementstring + " : " + displaytype;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Image getImage() {
+
+		return getDefault().getImageRegistry().get(IMAGE_THYMELEAF);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Point getSelection(IDocument document) {
+
+		return new Point(offsetstart + replacementstring.length(), 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isValidFor(IDocument document, int offset) {
+
+		try {
+			return offset >= offsetstart &&
+					new NameMatcher(document.get(offsetstart, offset - offsetstart)).matches(replacementstring);
+		}
+		catch (BadLocationException ex) {
+			return false;
+		}
+	}
+}
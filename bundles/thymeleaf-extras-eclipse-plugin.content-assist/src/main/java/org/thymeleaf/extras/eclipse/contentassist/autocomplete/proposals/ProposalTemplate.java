@@ -0,0 +1,205 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.autocomplete.proposals;
+
+import org.eclipse.swt.graphics.Image;
+import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
+import org.thymeleaf.extras.eclipse.dialect.xml.AttributeProcessor;
+import org.thymeleaf.extras.eclipse.dialect.xml.DialectItem;
+import org.thymeleaf.extras.eclipse.dialect.xml.ElementProcessor;
+import org.thymeleaf.extras.eclipse.dialect.xml.ExpressionObjectMethod;
+import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
+
+import java.util.IdentityHashMap;
+
+/**
+ * The parts of a dialect item proposal that are the same every time that item
+ * is proposed: its name, display string, the full text it inserts, and its
+ * image.
+ * Templates are created once per dialect item for as long as the dialects stay
+ * the same, leaving each proposal to only record where it's being made.
+ * 
+ * @author Emanuel Rabina
+ */
+public final class ProposalTemplate {
+
+	private static final IdentityHashMap<DialectItem,ProposalTemplate> templates =
+			new IdentityHashMap<DialectItem,ProposalTemplate>();
+	private static final IdentityHashMap<DialectItem,ProposalTemplate> datatemplates =
+			new IdentityHashMap<DialectItem,ProposalTemplate>();
+	private static long templatesgeneration = -1;
+
+	private final DialectItem dialectitem;
+	private final String itemname;
+	private final String displaystring;
+	private final String replacementstring;
+	private final String imagekey;
+	private volatile Image image;
+
+	/**
+	 * Constructor, set the invariant parts of a proposal.
+	 * 
+	 * @param dialectitem
+	 * @param itemname			Full name of the dialect item, the same for
+	 * 							all of the forms it can be proposed in.
+	 * @param displaystring
+	 * @param replacementstring Full text that the proposal inserts, from the
+	 * 							start of the item name.
+	 * @param imagekey			Key of the proposal image in the plugin image
+	 * 							registry.
+	 */
+	private ProposalTemplate(DialectItem dialectitem, String itemname, String displaystring,
+		String replacementstring, String imagekey) {
+
+		this.dialectitem       = dialectitem;
+		this.itemname          = itemname;
+		this.displaystring     = displaystring;
+		this.replacementstring = replacementstring;
+		this.imagekey          = imagekey;
+	}
+
+	/**
+	 * Return the template for proposing an attribute processor.
+	 * 
+	 * @param processor
+	 * @param dataattr  Whether the template is for the data-* version of the
+	 * 					processor.
+	 * @return Attribute processor proposal template.
+	 */
+	static synchronized ProposalTemplate forAttributeProcessor(AttributeProcessor processor, boolean dataattr) {
+
+		IdentityHashMap<DialectItem,ProposalTemplate> cache = templatesForGeneration(dataattr);
+		ProposalTemplate template = cache.get(processor);
+		if (template == null) {
+			String name = !dataattr ? processor.getFullName() : processor.getFullDataName();
+			template = new ProposalTemplate(processor, processor.getFullName(), name, name,
+					IMAGE_ATTRIBUTE_PROCESSOR);
+			cache.put(processor, template);
+		}
+		return template;
+	}
+
+	/**
+	 * Return the template for proposing an element processor.
+	 * 
+	 * @param processor
+	 * @return Element processor proposal template.
+	 */
+	static synchronized ProposalTemplate forElementProcessor(ElementProcessor processor) {
+
+		IdentityHashMap<DialectItem,ProposalTemplate> cache = templatesForGeneration(false);
+		ProposalTemplate template = cache.get(processor);
+		if (template == null) {
+			String name = processor.getFullName();
+			template = new ProposalTemplate(processor, name, name, name, IMAGE_ELEMENT_PROCESSOR);
+			cache.put(processor, template);
+		}
+		return template;
+	}
+
+	/**
+	 * Return the template for proposing an expression object method.
+	 * 
+	 * @param method
+	 * @return Expression object method proposal template.
+	 */
+	static synchronized ProposalTemplate forExpressionObjectMethod(ExpressionObjectMethod method) {
+
+		IdentityHashMap<DialectItem,ProposalTemplate> cache = templatesForGeneration(false);
+		ProposalTemplate template = cache.get(method);
+		if (template == null) {
+			template = new ProposalTemplate(method, method.getFullName(), method.getName(),
+					method.getFullName(), IMAGE_EXPRESSION_OBJECT_METHOD);
+			cache.put(method, template);
+		}
+		return template;
+	}
+
+	/**
+	 * Return the dialect item being proposed.
+	 * 
+	 * @return Dialect item.
+	 */
+	DialectItem getDialectItem() {
+
+		return dialectitem;
+	}
+
+	/**
+	 * Return the string shown in the list of proposals.
+	 * 
+	 * @return Display string.
+	 */
+	String getDisplayString() {
+
+		return displaystring;
+	}
+
+	/**
+	 * Return the proposal image, looking it up from the image registry the
+	 * first time it's needed.
+	 * 
+	 * @return Proposal image.
+	 */
+	Image getImage() {
+
+		if (image == null) {
+			image = getDefault().getImageRegistry().get(imagekey);
+		}
+		return image;
+	}
+
+	/**
+	 * Return the full name of the dialect item being proposed, which is the
+	 * same for the standard and data-* forms of an attribute processor.
+	 * 
+	 * @return Item name.
+	 */
+	String getItemName() {
+
+		return itemname;
+	}
+
+	/**
+	 * Return the full text that the proposal inserts, from the start of the
+	 * item name.
+	 * 
+	 * @return Replacement string.
+	 */
+	String getReplacementString() {
+
+		return replacementstring;
+	}
+
+	/**
+	 * Return the template cache for the current dialect generation, clearing
+	 * out the templates of any older dialect items first.
+	 * 
+	 * @param dataattr
+	 * @return Either the data-* or the standard template cache.
+	 */
+	private static IdentityHashMap<DialectItem,ProposalTemplate> templatesForGeneration(boolean dataattr) {
+
+		long generation = DialectCache.getGeneration();
+		if (generation != templatesgeneration) {
+			templates.clear();
+			datatemplates.clear();
+			templatesgeneration = generation;
+		}
+		return dataattr ? datatemplates : templates;
+	}
+}
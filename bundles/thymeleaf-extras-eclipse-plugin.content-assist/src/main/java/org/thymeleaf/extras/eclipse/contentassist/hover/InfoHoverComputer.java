@@ -24,27 +24,37 @@ import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextHover;
 import org.eclipse.jface.text.ITextHoverExtension;
 import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.Region;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
 import org.eclipse.wst.sse.ui.internal.contentassist.ContentAssistUtils;
 import org.eclipse.wst.sse.ui.internal.derived.HTMLTextPresenter;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMNode;
-import org.thymeleaf.extras.eclipse.contentassist.AbstractComputer;
+import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
+import org.thymeleaf.extras.eclipse.contentassist.DocumentProjectResolver;
+import org.thymeleaf.extras.eclipse.contentassist.DocumentationCache;
+import org.thymeleaf.extras.eclipse.contentassist.ExpressionToken;
+import org.thymeleaf.extras.eclipse.contentassist.ExpressionTokenCache;
+import org.thymeleaf.extras.eclipse.contentassist.NamespaceCache;
 import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
+import org.thymeleaf.extras.eclipse.dialect.xml.ExpressionObjectMethod;
 import org.thymeleaf.extras.eclipse.dialect.xml.Processor;
-import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
 
 import java.util.regex.Pattern;
 
 /**
- * Documentation-on-hover creator for Thymeleaf processors.
+ * Documentation-on-hover creator for Thymeleaf processors and expression
+ * object methods.
  * 
  * @author Emanuel Rabina
  */
 @SuppressWarnings("restriction")
-public class InfoHoverComputer extends AbstractComputer implements ITextHover, ITextHoverExtension {
+public class InfoHoverComputer implements ITextHover, ITextHoverExtension {
 
 	private static final Pattern PROCESSOR_NAME_PATTERN           = Pattern.compile("[\\w:-]*");
-//	private static final Pattern EXPRESSION_OBJECT_METHOD_PATTERN = Pattern.compile("#\\w*(\\.\\w*)?");
+	private static final Pattern EXPRESSION_OBJECT_METHOD_PATTERN = Pattern.compile("#\\w+\\.\\w+");
 
 	/**
 	 * {@inheritDoc}
@@ -76,26 +86,25 @@ public class InfoHoverComputer extends AbstractComputer implements ITextHover, I
 			if (node.getNodeType() == IDOMNode.ELEMENT_NODE) {
 				String surroundingword = textViewer.getDocument().get(hoverRegion.getOffset(), hoverRegion.getLength());
 
-				if (isProcessorNamePattern(surroundingword)) {
-					Processor processor = DialectCache.getProcessor(
-							findCurrentJavaProject(), findNodeNamespaces(node), surroundingword);
-					if (processor != null && processor.isSetDocumentation()) {
-						return processor.getDocumentation().getValue();
+				// Hover regions over expression objects are worked out precisely by
+				// getHoverRegion(), so the word is the whole #object.method name
+				if (isExpressionObjectMethodPattern(surroundingword)) {
+					ExpressionObjectMethod expressionobjectmethod = DialectCache.getExpressionObjectMethod(
+							DocumentProjectResolver.getJavaProject(node.getModel()), NamespaceCache.getNamespaces(node),
+							surroundingword);
+					if (expressionobjectmethod != null) {
+						return DocumentationCache.getDocumentation(expressionobjectmethod);
 					}
 				}
-
-				// NOTE: The HTML editor currently doesn't give a precise enough offset
-				//       to determine the _exact_ point being hovered over, making it
-				//       difficult to pick out expression object methods and grab its
-				//       help text.
-/*				else if (isUtilityMethodPattern(surroundingword)) {
-					UtilityMethod utilitymethod = ProcessorCache.getUtilityMethod(
-							findCurrentProject(), findNodeNamespaces(node), surroundingword);
-					if (utilitymethod != null && utilitymethod.isSetDocumentation()) {
-						return utilitymethod.getDocumentation().getValue();
+				else if (isProcessorNamePattern(surroundingword)) {
+					Processor processor = DialectCache.getProcessor(
+							DocumentProjectResolver.getJavaProject(node.getModel()), NamespaceCache.getNamespaces(node),
+							surroundingword);
+					if (processor != null) {
+						return DocumentationCache.getDocumentation(processor);
 					}
 				}
-*/			}
+			}
 		}
 		catch (BadLocationException ex) {
 			ex.printStackTrace();
@@ -105,11 +114,40 @@ public class InfoHoverComputer extends AbstractComputer implements ITextHover, I
 	}
 
 	/**
-	 * Does nothing so as to use the default hover region.
+	 * Returns the exact extent of the expression object method or processor
+	 * name being hovered over, using the cached expression tokens of attribute
+	 * values.  Anything else is left to the default hover region.
+	 * 
+	 * @param textViewer
+	 * @param offset
+	 * @return Region of the expression object method or processor name at the
+	 * 		   offset, or <tt>null</tt> to use the default hover region.
 	 */
 	@Override
 	public IRegion getHoverRegion(ITextViewer textViewer, int offset) {
 
+		if (!(textViewer.getDocument() instanceof IStructuredDocument)) {
+			return null;
+		}
+		IStructuredDocument document = (IStructuredDocument)textViewer.getDocument();
+
+		// Expression objects in attribute values
+		ExpressionToken token = ExpressionTokenCache.getTokenAt(document, offset);
+		if (token != null) {
+			return token.getType() == ExpressionToken.Type.EXPRESSION_OBJECT ?
+					new Region(token.getOffset(), token.getLength()) :
+					null;
+		}
+
+		// Attribute and element names
+		IStructuredDocumentRegion documentregion = document.getRegionAtCharacterOffset(offset);
+		if (documentregion != null) {
+			ITextRegion textregion = documentregion.getRegionAtCharacterOffset(offset);
+			if (textregion != null && (textregion.getType() == DOMRegionContext.XML_TAG_ATTRIBUTE_NAME ||
+				textregion.getType() == DOMRegionContext.XML_TAG_NAME)) {
+				return new Region(documentregion.getStartOffset(textregion), textregion.getTextLength());
+			}
+		}
 		return null;
 	}
 
@@ -120,11 +158,11 @@ public class InfoHoverComputer extends AbstractComputer implements ITextHover, I
 	 * @param pattern The autocomplete pattern to check against.
 	 * @return <tt>true</tt> if the pattern matches an expression object method.
 	 */
-/*	private static boolean isExpressionObjectMethodPattern(String pattern) {
+	private static boolean isExpressionObjectMethodPattern(String pattern) {
 
 		return EXPRESSION_OBJECT_METHOD_PATTERN.matcher(pattern).matches();
 	}
-*/
+
 	/**
 	 * Returns whether or not the given pattern is a processor name string.
 	 * 
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.hyperlink;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.hyperlink.IHyperlink;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.ide.IDE;
+import org.eclipse.ui.texteditor.ITextEditor;
+import org.thymeleaf.extras.eclipse.template.model.Fragment;
+import org.thymeleaf.extras.eclipse.template.model.Template;
+import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
+
+/**
+ * A link to the template, and optionally the fragment within it, that a
+ * fragment inclusion attribute refers to.
+ * 
+ * @author Emanuel Rabina
+ */
+public class FragmentHyperlink implements IHyperlink {
+
+	private final IRegion region;
+	private final Template template;
+	private final Fragment fragment;
+
+	/**
+	 * Constructor, create a link to a template or fragment.
+	 * 
+	 * @param region   Region of the fragment reference.
+	 * @param template Template being linked to.
+	 * @param fragment Fragment being linked to, or <tt>null</tt> to link to
+	 * 				   the whole template.
+	 */
+	public FragmentHyperlink(IRegion region, Template template, Fragment fragment) {
+
+		this.region   = region;
+		this.template = template;
+		this.fragment = fragment;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IRegion getHyperlinkRegion() {
+
+		return region;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getHyperlinkText() {
+
+		return fragment != null ?
+				"Open fragment " + fragment.getName() + " in " + template.getFilePath().toString() :
+				"Open template " + template.getFilePath().toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getTypeLabel() {
+
+		return "Thymeleaf fragment";
+	}
+
+	/**
+	 * Find the fragment spec in the declaring element, which starts at the
+	 * line and column recorded for the fragment when its template was parsed.
+	 * 
+	 * @param document
+	 * @return Region of the fragment spec, or of just the start of the element
+	 * 		   if the spec couldn't be found in it.
+	 * @throws BadLocationException
+	 */
+	private IRegion findFragmentDeclaration(IDocument document) throws BadLocationException {
+
+		int elementoffset = document.getLineOffset(fragment.getLine() - 1) +
+				Math.max(fragment.getColumn() - 1, 0);
+
+		// The element runs up until the next one starts
+		int elementend = elementoffset + 1;
+		while (elementend < document.getLength() && document.getChar(elementend) != '<') {
+			elementend++;
+		}
+		String elementtext = document.get(elementoffset, elementend - elementoffset);
+
+		String spec = fragment.getSpec();
+		int specoffset = elementtext.indexOf('"' + spec + '"');
+		if (specoffset == -1) {
+			specoffset = elementtext.indexOf('\'' + spec + '\'');
+		}
+		return specoffset != -1 ?
+				new Region(elementoffset + specoffset + 1, spec.length()) :
+				new Region(elementoffset, 0);
+	}
+
+	/**
+	 * Opens the template, then selects the fragment declaration if linking to
+	 * a fragment.
+	 */
+	@Override
+	public void open() {
+
+		IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile(template.getFilePath());
+		try {
+			IEditorPart editor = IDE.openEditor(
+					PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage(), file);
+			if (fragment != null && editor != null) {
+				ITextEditor texteditor = (ITextEditor)editor.getAdapter(ITextEditor.class);
+				if (texteditor != null) {
+					IDocument document = texteditor.getDocumentProvider().getDocument(texteditor.getEditorInput());
+					if (fragment.getLine() > 0 && fragment.getLine() <= document.getNumberOfLines()) {
+						IRegion declaration = findFragmentDeclaration(document);
+						texteditor.selectAndReveal(declaration.getOffset(), declaration.getLength());
+					}
+				}
+			}
+		}
+		catch (PartInitException ex) {
+			logError("Unable to open template " + template.getFilePath().toString(), ex);
+		}
+		catch (BadLocationException ex) {
+			logError("Unable to find fragment " + fragment.getName() + " in " + template.getFilePath().toString(), ex);
+		}
+	}
+}
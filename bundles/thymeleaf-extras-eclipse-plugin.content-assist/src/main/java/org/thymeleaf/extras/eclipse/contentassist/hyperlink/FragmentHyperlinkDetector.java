@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.hyperlink;
+
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.hyperlink.AbstractHyperlinkDetector;
+import org.eclipse.jface.text.hyperlink.IHyperlink;
+import org.eclipse.wst.sse.core.StructuredModelManager;
+import org.eclipse.wst.sse.core.internal.provisional.IStructuredModel;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegionList;
+import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
+import org.thymeleaf.extras.eclipse.contentassist.CacheLoadJob;
+import org.thymeleaf.extras.eclipse.contentassist.DocumentProjectResolver;
+import org.thymeleaf.extras.eclipse.template.cache.TemplateCache;
+import org.thymeleaf.extras.eclipse.template.model.Fragment;
+import org.thymeleaf.extras.eclipse.template.model.FragmentReference;
+import org.thymeleaf.extras.eclipse.template.model.Template;
+
+import java.util.ArrayList;
+
+/**
+ * Detects references to templates and fragments in the values of fragment
+ * inclusion attributes, creating links to where those templates/fragments are
+ * defined.
+ * 
+ * @author Emanuel Rabina
+ */
+@SuppressWarnings("restriction")
+public class FragmentHyperlinkDetector extends AbstractHyperlinkDetector {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IHyperlink[] detectHyperlinks(ITextViewer textviewer, IRegion region, boolean canshowmultiple) {
+
+		IDocument document = textviewer.getDocument();
+		if (!(document instanceof IStructuredDocument)) {
+			return null;
+		}
+
+		// Only work with the value of a fragment inclusion attribute
+		int offset = region.getOffset();
+		IStructuredDocumentRegion documentregion =
+				((IStructuredDocument)document).getRegionAtCharacterOffset(offset);
+		if (documentregion == null) {
+			return null;
+		}
+		ITextRegion textregion = documentregion.getRegionAtCharacterOffset(offset);
+		if (textregion == null || textregion.getType() != DOMRegionContext.XML_TAG_ATTRIBUTE_VALUE) {
+			return null;
+		}
+		ITextRegionList textregions = documentregion.getRegions();
+		int textregionindex = textregions.indexOf(textregion);
+		if (textregionindex < 2 ||
+			!FragmentReference.isFragmentInclusionAttribute(documentregion.getText(textregions.get(textregionindex - 2)))) {
+			return null;
+		}
+
+		// Strip the quotes from the attribute value
+		String value = documentregion.getText(textregion);
+		int valuestart = documentregion.getStartOffset(textregion);
+		if (value.length() > 0 && (value.charAt(0) == '"' || value.charAt(0) == '\'')) {
+			value = value.substring(1, value.length() > 1 && value.charAt(value.length() - 1) == value.charAt(0) ?
+					value.length() - 1 : value.length());
+			valuestart++;
+		}
+
+		// Links are only made from templates that are already in the cache, as
+		// this runs on the UI thread and shouldn't wait on a project scan
+		IJavaProject project = DocumentProjectResolver.getJavaProject(document);
+		if (project == null) {
+			return null;
+		}
+		if (!TemplateCache.isProjectLoaded(project)) {
+			CacheLoadJob.loadProject(project);
+			return null;
+		}
+
+		FragmentReference reference = FragmentReference.fromAttributeValue(null, 0, 0, value);
+		if (reference == null) {
+			return null;
+		}
+		String templatename = reference.getTemplateName();
+		if (templatename == null) {
+			templatename = findCurrentTemplateName((IStructuredDocument)document);
+			if (templatename == null) {
+				return null;
+			}
+		}
+		String fragmentname = reference.getFragmentName();
+
+		// Link to every template/fragment definition that matches the reference
+		Region hyperlinkregion = new Region(valuestart, value.length());
+		ArrayList<IHyperlink> hyperlinks = new ArrayList<IHyperlink>();
+		for (Template template: TemplateCache.getTemplates(project, templatename)) {
+			if (fragmentname == null) {
+				hyperlinks.add(new FragmentHyperlink(hyperlinkregion, template, null));
+			}
+			else {
+				for (Fragment fragment: template.getFragments()) {
+					if (fragment.getName().equals(fragmentname)) {
+						hyperlinks.add(new FragmentHyperlink(hyperlinkregion, template, fragment));
+					}
+				}
+			}
+			if (!canshowmultiple && !hyperlinks.isEmpty()) {
+				break;
+			}
+		}
+
+		return hyperlinks.isEmpty() ? null : hyperlinks.toArray(new IHyperlink[hyperlinks.size()]);
+	}
+
+	/**
+	 * Work out the name of the template being edited, for references to
+	 * fragments within the same template.
+	 * 
+	 * @param document
+	 * @return Name of the template in the document, or <tt>null</tt> if the
+	 * 		   document isn't backed by a model.
+	 */
+	private static String findCurrentTemplateName(IStructuredDocument document) {
+
+		IStructuredModel model = StructuredModelManager.getModelManager().getExistingModelForRead(document);
+		if (model == null) {
+			return null;
+		}
+		try {
+			return TemplateCache.getTemplateName(new Path(model.getBaseLocation()));
+		}
+		finally {
+			model.releaseFromRead();
+		}
+	}
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.contentassist.validation;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocument;
+import org.eclipse.wst.sse.core.internal.provisional.text.IStructuredDocumentRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegion;
+import org.eclipse.wst.sse.core.internal.provisional.text.ITextRegionList;
+import org.eclipse.wst.sse.ui.internal.reconcile.validator.ISourceValidator;
+import org.eclipse.wst.validation.internal.core.ValidationException;
+import org.eclipse.wst.validation.internal.operations.LocalizedMessage;
+import org.eclipse.wst.validation.internal.provisional.core.IMessage;
+import org.eclipse.wst.validation.internal.provisional.core.IReporter;
+import org.eclipse.wst.validation.internal.provisional.core.IValidationContext;
+import org.eclipse.wst.validation.internal.provisional.core.IValidator;
+import org.eclipse.wst.xml.core.internal.regions.DOMRegionContext;
+import org.thymeleaf.extras.eclipse.builder.TemplateProblem;
+import org.thymeleaf.extras.eclipse.builder.TemplateValidator;
+import org.thymeleaf.extras.eclipse.contentassist.DocumentProjectResolver;
+import static org.thymeleaf.extras.eclipse.contentassist.ContentAssistPlugin.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * As-you-type validator for Thymeleaf templates, reporting the same problems
+ * as the builder would but only for the elements within the part of the
+ * document that was just edited.
+ * 
+ * @author Emanuel Rabina
+ */
+@SuppressWarnings("restriction")
+public class TemplateSourceValidator implements ISourceValidator, IValidator {
+
+	private IStructuredDocument document;
+	private IJavaProject javaproject;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void cleanup(IReporter reporter) {
+
+		// Does nothing - nothing held between validations
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void connect(IDocument document) {
+
+		if (document instanceof IStructuredDocument) {
+			this.document = (IStructuredDocument)document;
+			this.javaproject = DocumentProjectResolver.getJavaProject(this.document);
+		}
+	}
+
+	/**
+	 * Create a message to report a problem against the given part of the
+	 * document.
+	 * 
+	 * @param problem
+	 * @param offset
+	 * @param length
+	 * @return Message for the problem.
+	 * @throws BadLocationException
+	 */
+	private LocalizedMessage createMessage(TemplateProblem problem, int offset, int length)
+		throws BadLocationException {
+
+		LocalizedMessage message = new LocalizedMessage(
+				problem.getSeverity() == IMarker.SEVERITY_ERROR ? IMessage.HIGH_SEVERITY :
+				problem.getSeverity() == IMarker.SEVERITY_WARNING ? IMessage.NORMAL_SEVERITY :
+				IMessage.LOW_SEVERITY,
+				problem.getMessage());
+		message.setOffset(offset);
+		message.setLength(length);
+		message.setLineNo(document.getLineOfOffset(offset) + 1);
+		return message;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void disconnect(IDocument document) {
+
+		this.document = null;
+		this.javaproject = null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void validate(IRegion dirtyregion, IValidationContext helper, IReporter reporter) {
+
+		if (document == null || javaproject == null) {
+			return;
+		}
+
+		// Read the dialects only once for all the elements in the region
+		TemplateValidator validator = new TemplateValidator(javaproject);
+		int dirtyend = dirtyregion.getOffset() + dirtyregion.getLength();
+
+		IStructuredDocumentRegion documentregion = document.getRegionAtCharacterOffset(dirtyregion.getOffset());
+		while (documentregion != null && documentregion.getStartOffset() <= dirtyend) {
+			if (reporter.isCancelled()) {
+				return;
+			}
+			if (documentregion.getType() == DOMRegionContext.XML_TAG_NAME &&
+				documentregion.getFirstRegion().getType() == DOMRegionContext.XML_TAG_OPEN) {
+				validateElement(documentregion, validator, reporter);
+			}
+			documentregion = documentregion.getNext();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void validate(IValidationContext helper, IReporter reporter) throws ValidationException {
+
+		if (document != null) {
+			validate(new Region(0, document.getLength()), helper, reporter);
+		}
+	}
+
+	/**
+	 * Check the element in a start tag region, reporting any problems against
+	 * the attribute (or element name) they're on.
+	 * 
+	 * @param documentregion
+	 * @param validator
+	 * @param reporter
+	 */
+	private void validateElement(IStructuredDocumentRegion documentregion, TemplateValidator validator,
+		IReporter reporter) {
+
+		String elementname = null;
+		int elementoffset = documentregion.getStartOffset();
+		int elementlength = 0;
+		LinkedHashMap<String,String> attributes = new LinkedHashMap<String,String>();
+		HashMap<String,ITextRegion> attributenameregions = new HashMap<String,ITextRegion>();
+
+		// Pull the element and attribute names/values out of the tag
+		ITextRegionList textregions = documentregion.getRegions();
+		String attributename = null;
+		for (int i = 0; i < textregions.size(); i++) {
+			ITextRegion textregion = textregions.get(i);
+			String type = textregion.getType();
+			if (type == DOMRegionContext.XML_TAG_NAME && elementname == null) {
+				elementname = documentregion.getText(textregion);
+				elementoffset = documentregion.getStartOffset(textregion);
+				elementlength = textregion.getTextLength();
+			}
+			else if (type == DOMRegionContext.XML_TAG_ATTRIBUTE_NAME) {
+				attributename = documentregion.getText(textregion);
+				attributes.put(attributename, "");
+				attributenameregions.put(attributename, textregion);
+			}
+			else if (type == DOMRegionContext.XML_TAG_ATTRIBUTE_VALUE && attributename != null) {
+				String value = documentregion.getText(textregion);
+				if (value.length() > 0 && (value.charAt(0) == '"' || value.charAt(0) == '\'')) {
+					value = value.substring(1, value.length() > 1 && value.charAt(value.length() - 1) == value.charAt(0) ?
+							value.length() - 1 : value.length());
+				}
+				attributes.put(attributename, value);
+				attributename = null;
+			}
+		}
+		if (elementname == null) {
+			return;
+		}
+
+		try {
+			for (TemplateProblem problem: validator.validateElement(elementname, attributes)) {
+				ITextRegion attributenameregion = problem.getAttributeName() != null ?
+						attributenameregions.get(problem.getAttributeName()) : null;
+				reporter.addMessage(this, attributenameregion != null ?
+						createMessage(problem, documentregion.getStartOffset(attributenameregion),
+								attributenameregion.getTextLength()) :
+						createMessage(problem, elementoffset, elementlength));
+			}
+		}
+		catch (BadLocationException ex) {
+			logError("Unable to report problem in element " + elementname, ex);
+		}
+	}
+}
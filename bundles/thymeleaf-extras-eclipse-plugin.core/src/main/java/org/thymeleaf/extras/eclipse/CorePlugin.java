@@ -20,7 +20,9 @@ import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
 import org.osgi.framework.BundleContext;
 import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
+import org.thymeleaf.extras.eclipse.message.cache.MessageCache;
 import org.thymeleaf.extras.eclipse.template.cache.TemplateCache;
+import org.thymeleaf.extras.eclipse.type.cache.TypeMemberIndex;
 
 /**
  * Plugin activator class for the Thymeleaf core module.
@@ -74,6 +76,8 @@ public class CorePlugin extends Plugin {
 		plugin = this;
 		DialectCache.startup();
 		TemplateCache.startup();
+		MessageCache.startup();
+		TypeMemberIndex.startup();
 	}
 
 	/**
@@ -84,6 +88,8 @@ public class CorePlugin extends Plugin {
 
 		DialectCache.shutdown();
 		TemplateCache.shutdown();
+		MessageCache.shutdown();
+		TypeMemberIndex.shutdown();
 		plugin = null;
 		super.stop(context);
 	}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.builder;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ProjectScope;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jdt.core.IJavaProject;
+import org.osgi.service.prefs.BackingStoreException;
+import org.osgi.service.prefs.Preferences;
+import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
+import org.thymeleaf.extras.eclipse.dialect.xml.AttributeProcessor;
+import static org.thymeleaf.extras.eclipse.CorePlugin.*;
+
+import java.util.TreeSet;
+
+/**
+ * Manages the list of attribute names that the WST HTML validator is told to
+ * ignore, so that the attribute processors of the dialects a project knows
+ * about are never reported as undefined attributes in the first place.  Any
+ * attribute names the user has added to that list themselves are left alone.
+ * <p>
+ * The validator reads the list from the project's
+ * <tt>org.eclipse.wst.html.core</tt> preferences if the project has been set
+ * to use its own validation settings, and from the workspace's otherwise, so
+ * the names are put wherever the validator will look for them.  Projects that
+ * go by the workspace settings are never switched over to project settings.
+ * Names in the workspace list are kept for as long as any project that goes
+ * by the workspace settings still needs them.
+ * 
+ * @author Emanuel Rabina
+ */
+public class HtmlValidatorSettings {
+
+	// Preferences of the WST HTML validator, which only newer WST versions read
+	private static final String HTML_CORE_PREFERENCES     = "org.eclipse.wst.html.core";
+	private static final String IGNORE_ATTRIBUTE_NAMES    = "ignoreAttrNames";
+	private static final String ATTRIBUTE_NAMES_TO_IGNORE = "attrNamesToIgnore";
+	private static final String USE_PROJECT_SETTINGS      = "use-project-settings";
+
+	// Our record of which of the ignored names were added by this plugin: in the
+	// project preferences for the project list, and per project in the
+	// workspace preferences for the workspace list
+	private static final String THYMELEAF_IGNORED_ATTRIBUTE_NAMES = "ignoredAttributeNames";
+
+	private static final String NAME_SEPARATOR = ",";
+
+	/**
+	 * Add the names of all the attribute processors known to the project to
+	 * the HTML validator's ignored attribute names, replacing any names
+	 * previously added by this plugin.  Preferences are only written if the
+	 * list of names has changed.
+	 * 
+	 * @param javaproject
+	 */
+	public static void applyIgnoredAttributeNames(IJavaProject javaproject) {
+
+		TreeSet<String> processornames = new TreeSet<String>();
+		for (AttributeProcessor processor: DialectCache.getAttributeProcessors(javaproject)) {
+			processornames.add(processor.getFullName());
+		}
+		updateIgnoredAttributeNames(javaproject.getProject(), processornames);
+	}
+
+	/**
+	 * Split a list of names as stored in preferences.
+	 * 
+	 * @param names
+	 * @return Set of names.
+	 */
+	private static TreeSet<String> fromPreference(String names) {
+
+		TreeSet<String> nameset = new TreeSet<String>();
+		for (String name: names.split(NAME_SEPARATOR)) {
+			name = name.trim();
+			if (name.length() > 0) {
+				nameset.add(name);
+			}
+		}
+		return nameset;
+	}
+
+	/**
+	 * Remove all the names added by this plugin from the HTML validator's
+	 * ignored attribute names, as for when the Thymeleaf nature is removed.
+	 * 
+	 * @param project
+	 */
+	public static void removeIgnoredAttributeNames(IProject project) {
+
+		updateIgnoredAttributeNames(project, new TreeSet<String>());
+	}
+
+	/**
+	 * Replace the names in an HTML validator ignored attribute list that were
+	 * previously added by this plugin with the given names.
+	 * 
+	 * @param htmlpreferences		 HTML validator preferences to update.
+	 * @param previousprocessornames Names this plugin added before.
+	 * @param processornames		 Names this plugin wants ignored now.
+	 */
+	private static void replaceIgnoredAttributeNames(IEclipsePreferences htmlpreferences,
+		TreeSet<String> previousprocessornames, TreeSet<String> processornames) {
+
+		TreeSet<String> ignorednames = fromPreference(htmlpreferences.get(ATTRIBUTE_NAMES_TO_IGNORE, ""));
+		ignorednames.removeAll(previousprocessornames);
+		ignorednames.addAll(processornames);
+
+		if (ignorednames.isEmpty()) {
+			htmlpreferences.remove(ATTRIBUTE_NAMES_TO_IGNORE);
+			htmlpreferences.remove(IGNORE_ATTRIBUTE_NAMES);
+		}
+		else {
+			htmlpreferences.put(ATTRIBUTE_NAMES_TO_IGNORE, toPreference(ignorednames));
+			htmlpreferences.putBoolean(IGNORE_ATTRIBUTE_NAMES, true);
+		}
+	}
+
+	/**
+	 * Join a set of names for storing in preferences.
+	 * 
+	 * @param names
+	 * @return Separated list of names.
+	 */
+	private static String toPreference(TreeSet<String> names) {
+
+		StringBuilder preference = new StringBuilder();
+		for (String name: names) {
+			if (preference.length() > 0) {
+				preference.append(NAME_SEPARATOR);
+			}
+			preference.append(name);
+		}
+		return preference.toString();
+	}
+
+	/**
+	 * Put the given names in the ignored attribute list the HTML validator
+	 * reads for the project, and take any names this plugin added for the
+	 * project out of the list it doesn't.
+	 * 
+	 * @param project
+	 * @param processornames
+	 */
+	private static void updateIgnoredAttributeNames(IProject project, TreeSet<String> processornames) {
+
+		boolean useprojectsettings = new ProjectScope(project).getNode(HTML_CORE_PREFERENCES)
+				.getBoolean(USE_PROJECT_SETTINGS, false);
+		updateProjectIgnoredAttributeNames(project,
+				useprojectsettings ? processornames : new TreeSet<String>());
+		updateWorkspaceIgnoredAttributeNames(project,
+				useprojectsettings ? new TreeSet<String>() : processornames);
+	}
+
+	/**
+	 * Replace the names previously added by this plugin to the project's
+	 * ignored attribute list with the given names.  Preferences are only
+	 * written if the names have changed.
+	 * 
+	 * @param project
+	 * @param processornames
+	 */
+	private static void updateProjectIgnoredAttributeNames(IProject project, TreeSet<String> processornames) {
+
+		ProjectScope projectscope = new ProjectScope(project);
+		IEclipsePreferences htmlpreferences = projectscope.getNode(HTML_CORE_PREFERENCES);
+		IEclipsePreferences thymeleafpreferences = projectscope.getNode(PLUGIN_ID);
+
+		TreeSet<String> previousprocessornames = fromPreference(
+				thymeleafpreferences.get(THYMELEAF_IGNORED_ATTRIBUTE_NAMES, ""));
+		if (previousprocessornames.equals(processornames)) {
+			return;
+		}
+
+		replaceIgnoredAttributeNames(htmlpreferences, previousprocessornames, processornames);
+		if (processornames.isEmpty()) {
+			thymeleafpreferences.remove(THYMELEAF_IGNORED_ATTRIBUTE_NAMES);
+		}
+		else {
+			thymeleafpreferences.put(THYMELEAF_IGNORED_ATTRIBUTE_NAMES, toPreference(processornames));
+		}
+
+		try {
+			htmlpreferences.flush();
+			thymeleafpreferences.flush();
+		}
+		catch (BackingStoreException ex) {
+			logError("Unable to save HTML validation settings for project " + project.getName(), ex);
+		}
+	}
+
+	/**
+	 * Replace the names previously added to the workspace's ignored attribute
+	 * list for the project with the given names.  The workspace list holds the
+	 * names of every project that goes by the workspace settings, so names are
+	 * only taken out of it once no project needs them any more.  Preferences
+	 * are only written if the names have changed.
+	 * 
+	 * @param project
+	 * @param processornames
+	 */
+	private static synchronized void updateWorkspaceIgnoredAttributeNames(IProject project,
+		TreeSet<String> processornames) {
+
+		IEclipsePreferences htmlpreferences = InstanceScope.INSTANCE.getNode(HTML_CORE_PREFERENCES);
+		Preferences projectnamespreferences = InstanceScope.INSTANCE.getNode(PLUGIN_ID)
+				.node(THYMELEAF_IGNORED_ATTRIBUTE_NAMES);
+
+		if (fromPreference(projectnamespreferences.get(project.getName(), "")).equals(processornames)) {
+			return;
+		}
+
+		try {
+			// Names needed by all projects before and after this change, forgetting
+			// any projects that no longer exist
+			TreeSet<String> previousprocessornames = new TreeSet<String>();
+			TreeSet<String> allprocessornames = new TreeSet<String>(processornames);
+			for (String projectname: projectnamespreferences.keys()) {
+				TreeSet<String> projectprocessornames = fromPreference(projectnamespreferences.get(projectname, ""));
+				previousprocessornames.addAll(projectprocessornames);
+				if (projectname.equals(project.getName())) {
+					continue;
+				}
+				if (ResourcesPlugin.getWorkspace().getRoot().getProject(projectname).exists()) {
+					allprocessornames.addAll(projectprocessornames);
+				}
+				else {
+					projectnamespreferences.remove(projectname);
+				}
+			}
+
+			replaceIgnoredAttributeNames(htmlpreferences, previousprocessornames, allprocessornames);
+			if (processornames.isEmpty()) {
+				projectnamespreferences.remove(project.getName());
+			}
+			else {
+				projectnamespreferences.put(project.getName(), toPreference(processornames));
+			}
+
+			htmlpreferences.flush();
+			projectnamespreferences.flush();
+		}
+		catch (BackingStoreException ex) {
+			logError("Unable to save workspace HTML validation settings for project " + project.getName(), ex);
+		}
+	}
+}
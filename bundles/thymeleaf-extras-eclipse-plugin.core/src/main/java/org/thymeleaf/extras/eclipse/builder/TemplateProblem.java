@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.builder;
+
+import org.eclipse.core.resources.IMarker;
+
+/**
+ * A problem found in a Thymeleaf template, to be reported either as a marker
+ * on the template file or as an annotation in an open editor.
+ * 
+ * @author Emanuel Rabina
+ */
+public class TemplateProblem {
+
+	private final String message;
+	private final int severity;
+	private final String attributename;
+	private final int line;
+
+	/**
+	 * Constructor, set the details of the problem.
+	 * 
+	 * @param message
+	 * @param severity		One of the {@link IMarker} <tt>SEVERITY_*</tt> values.
+	 * @param attributename Name of the attribute the problem is on, or
+	 * 						<tt>null</tt> if the problem is with the element
+	 * 						itself.
+	 * @param line			Line of the element with the problem, or <tt>-1</tt>
+	 * 						if not known.
+	 */
+	TemplateProblem(String message, int severity, String attributename, int line) {
+
+		this.message       = message;
+		this.severity      = severity;
+		this.attributename = attributename;
+		this.line          = line;
+	}
+
+	/**
+	 * Return the name of the attribute this problem is on.
+	 * 
+	 * @return Attribute name, or <tt>null</tt> if the problem is with the
+	 * 		   element itself.
+	 */
+	public String getAttributeName() {
+
+		return attributename;
+	}
+
+	/**
+	 * Return the line of the element with this problem.
+	 * 
+	 * @return Element line, or <tt>-1</tt> if not known.
+	 */
+	public int getLine() {
+
+		return line;
+	}
+
+	/**
+	 * Return the message describing this problem.
+	 * 
+	 * @return Problem message.
+	 */
+	public String getMessage() {
+
+		return message;
+	}
+
+	/**
+	 * Return the severity of this problem.
+	 * 
+	 * @return One of the {@link IMarker} <tt>SEVERITY_*</tt> values.
+	 */
+	public int getSeverity() {
+
+		return severity;
+	}
+}
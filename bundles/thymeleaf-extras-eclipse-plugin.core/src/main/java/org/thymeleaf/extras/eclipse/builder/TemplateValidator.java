@@ -0,0 +1,438 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.builder;
+
+import org.attoparser.AttoParseException;
+import org.attoparser.markup.MarkupAttoParser;
+import org.attoparser.markup.html.AbstractStandardNonValidatingHtmlAttoHandler;
+import org.attoparser.markup.html.HtmlParsing;
+import org.attoparser.markup.html.HtmlParsingConfiguration;
+import org.attoparser.markup.html.elements.IHtmlElement;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IJavaProject;
+import org.thymeleaf.extras.eclipse.dialect.cache.AttributeRestrictionsMatcher;
+import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
+import org.thymeleaf.extras.eclipse.dialect.xml.AttributeProcessor;
+import org.thymeleaf.extras.eclipse.dialect.xml.ElementProcessor;
+import org.thymeleaf.extras.eclipse.template.model.Fragment;
+import org.thymeleaf.extras.eclipse.template.model.FragmentReference;
+import static org.thymeleaf.extras.eclipse.CorePlugin.*;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks Thymeleaf templates for problems that the HTML validator can't know
+ * about: unknown processors of the project's dialects, attribute processors
+ * used against their restrictions, and malformed fragment specs.
+ * <p>
+ * The project's dialect information is read once when the validator is
+ * created, so a single validator should be used for all of the files or
+ * elements in one validation run, and a new one created for the next.
+ * 
+ * @author Emanuel Rabina
+ */
+public class TemplateValidator {
+
+	private static final String DATA_ATTRIBUTE_PREFIX = "data-";
+	private static final String FRAGMENT_PROCESSOR    = "fragment";
+	private static final String FRAGMENT_SEPARATOR    = "::";
+	private static final String XMLNS_PREFIX          = "xmlns";
+
+	private final HashMap<String,AttributeProcessor> attributeprocessors = new HashMap<String,AttributeProcessor>();
+	private final HashSet<String> elementprocessors = new HashSet<String>();
+	private final HashSet<String> prefixes = new HashSet<String>();
+
+	private final MarkupAttoParser parser = new MarkupAttoParser();
+	private char[] buffer = new char[8192];
+
+	/**
+	 * Constructor, take a snapshot of the dialects known to the project.
+	 * 
+	 * @param javaproject
+	 */
+	public TemplateValidator(IJavaProject javaproject) {
+
+		for (AttributeProcessor processor: DialectCache.getAttributeProcessors(javaproject)) {
+			attributeprocessors.put(processor.getFullName(), processor);
+			attributeprocessors.put(processor.getFullDataName(), processor);
+			prefixes.add(processor.getDialect().getPrefix());
+		}
+		for (ElementProcessor processor: DialectCache.getElementProcessors(javaproject)) {
+			elementprocessors.add(processor.getFullName());
+			prefixes.add(processor.getDialect().getPrefix());
+		}
+	}
+
+	/**
+	 * Return whether or not the attribute is in the form of a processor of one
+	 * of the known dialects, ie: <tt>prefix:name</tt> or
+	 * <tt>data-prefix-name</tt> where <tt>prefix</tt> is a known dialect
+	 * prefix.
+	 * 
+	 * @param attributename
+	 * @return <tt>true</tt> if the attribute looks like a processor of a known
+	 * 		   dialect.
+	 */
+	private boolean isDialectAttribute(String attributename) {
+
+		int colonindex = attributename.indexOf(':');
+		if (colonindex != -1) {
+			return prefixes.contains(attributename.substring(0, colonindex));
+		}
+		if (attributename.startsWith(DATA_ATTRIBUTE_PREFIX)) {
+			int dashindex = attributename.indexOf('-', DATA_ATTRIBUTE_PREFIX.length());
+			return dashindex != -1 &&
+					prefixes.contains(attributename.substring(DATA_ATTRIBUTE_PREFIX.length(), dashindex));
+		}
+		return false;
+	}
+
+	/**
+	 * Return whether or not an attribute value is an expression that can only
+	 * be checked at runtime.
+	 * 
+	 * @param value
+	 * @return <tt>true</tt> if the value contains an expression.
+	 */
+	private static boolean isExpression(String value) {
+
+		return value.indexOf('{') != -1;
+	}
+
+	/**
+	 * Read the whole of a template into the read buffer, growing the buffer if
+	 * necessary.
+	 * 
+	 * @param reader
+	 * @return Number of characters read into the buffer.
+	 * @throws IOException
+	 */
+	private int readTemplate(Reader reader) throws IOException {
+
+		int length = 0;
+		int read;
+		while ((read = reader.read(buffer, length, buffer.length - length)) != -1) {
+			length += read;
+			if (length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Check an attribute processor against any restrictions placed on it.
+	 * 
+	 * @param processor
+	 * @param attributename
+	 * @param elementname
+	 * @param attributes
+	 * @param line
+	 * @param problems		List of problems to add to.
+	 */
+	private static void validateAttributeRestrictions(AttributeProcessor processor, String attributename,
+		String elementname, Map<String,String> attributes, int line, List<TemplateProblem> problems) {
+
+		AttributeRestrictionsMatcher restrictions = AttributeRestrictionsMatcher.forProcessor(processor);
+
+		if (!restrictions.matchesTag(elementname)) {
+			problems.add(new TemplateProblem("Attribute processor " + attributename +
+					" is not allowed on the <" + elementname + "> element",
+					IMarker.SEVERITY_WARNING, attributename, line));
+		}
+
+		for (String restriction: restrictions.findUnmatchedAttributeRestrictions(attributes)) {
+			problems.add(new TemplateProblem(restriction.startsWith("-") ?
+					"Attribute processor " + attributename + " can't be used alongside " + restriction.substring(1) :
+					"Attribute processor " + attributename + " requires " + restriction,
+					IMarker.SEVERITY_WARNING, attributename, line));
+		}
+
+		String value = attributes.get(attributename);
+		if (value != null && !isExpression(value) && !restrictions.matchesValue(value)) {
+			problems.add(new TemplateProblem("Attribute processor " + attributename +
+					" doesn't accept the value '" + value + "', expected one of " +
+					processor.getRestrictions().getValues(), IMarker.SEVERITY_WARNING, attributename, line));
+		}
+	}
+
+	/**
+	 * Check a single element and its attributes for problems.  For the editor's
+	 * as-you-type validation, where only the elements being edited are checked
+	 * and the problems are reported against document offsets rather than
+	 * lines.
+	 * 
+	 * @param elementname
+	 * @param attributes
+	 * @return List of problems with the element, empty if there were none.
+	 */
+	public List<TemplateProblem> validateElement(String elementname, Map<String,String> attributes) {
+
+		return validateElement(elementname, attributes, -1);
+	}
+
+	/**
+	 * Check a single element and its attributes for problems.
+	 * 
+	 * @param elementname
+	 * @param attributes
+	 * @param line		  Line of the element, recorded on any problems.
+	 * @return List of problems with the element, empty if there were none.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<TemplateProblem> validateElement(String elementname, Map<String,String> attributes, int line) {
+
+		ArrayList<TemplateProblem> problems = null;
+
+		// Element processors
+		int colonindex = elementname.indexOf(':');
+		if (colonindex != -1 && prefixes.contains(elementname.substring(0, colonindex)) &&
+			!elementprocessors.contains(elementname)) {
+			problems = new ArrayList<TemplateProblem>();
+			problems.add(new TemplateProblem("Unknown element processor " + elementname,
+					IMarker.SEVERITY_WARNING, null, line));
+		}
+
+		if (attributes != null) {
+			for (Map.Entry<String,String> attribute: attributes.entrySet()) {
+				String attributename = attribute.getKey();
+				String attributevalue = attribute.getValue();
+				if (attributename.startsWith(XMLNS_PREFIX) || !isDialectAttribute(attributename)) {
+					continue;
+				}
+				if (problems == null) {
+					problems = new ArrayList<TemplateProblem>();
+				}
+
+				AttributeProcessor processor = attributeprocessors.get(attributename);
+				if (processor == null) {
+					problems.add(new TemplateProblem("Unknown attribute processor " + attributename,
+							IMarker.SEVERITY_WARNING, attributename, line));
+					continue;
+				}
+				if (processor.isSetRestrictions()) {
+					validateAttributeRestrictions(processor, attributename, elementname, attributes, line, problems);
+				}
+				if (attributevalue != null && !isExpression(attributevalue)) {
+					validateFragmentAttribute(processor, attributename, attributevalue, line, problems);
+				}
+			}
+		}
+
+		return problems != null ? problems : Collections.EMPTY_LIST;
+	}
+
+	/**
+	 * Check the value of a fragment definition or fragment inclusion
+	 * attribute.
+	 * 
+	 * @param processor
+	 * @param attributename
+	 * @param attributevalue
+	 * @param line
+	 * @param problems		 List of problems to add to.
+	 */
+	private static void validateFragmentAttribute(AttributeProcessor processor, String attributename,
+		String attributevalue, int line, List<TemplateProblem> problems) {
+
+		if (processor.getName().equals(FRAGMENT_PROCESSOR)) {
+			try {
+				new Fragment(attributevalue);
+			}
+			catch (IllegalArgumentException ex) {
+				problems.add(new TemplateProblem("Malformed fragment spec '" + attributevalue + "'",
+						IMarker.SEVERITY_ERROR, attributename, line));
+			}
+		}
+		else if (FragmentReference.isFragmentInclusionAttribute(attributename)) {
+			int separatorindex = attributevalue.indexOf(FRAGMENT_SEPARATOR);
+			if (attributevalue.trim().length() == 0) {
+				problems.add(new TemplateProblem("Missing template name in " + attributename,
+						IMarker.SEVERITY_ERROR, attributename, line));
+			}
+			else if (separatorindex != -1 &&
+				FragmentReference.fromAttributeValue(null, line, 0, attributevalue) == null) {
+				problems.add(new TemplateProblem("Missing fragment name after '" + FRAGMENT_SEPARATOR +
+						"' in '" + attributevalue + "'", IMarker.SEVERITY_ERROR, attributename, line));
+			}
+		}
+	}
+
+	/**
+	 * Read and check all of the elements of a template file.
+	 * 
+	 * @param file
+	 * @return List of problems found in the template, empty if there were none,
+	 * 		   or <tt>null</tt> if the template couldn't be read or parsed.
+	 * @throws CoreException If the file contents couldn't be retrieved.
+	 */
+	public List<TemplateProblem> validateTemplate(IFile file) throws CoreException {
+
+		Reader reader = null;
+		try {
+			reader = new InputStreamReader(file.getContents(), file.getCharset());
+			int length = readTemplate(reader);
+
+			ValidatingHtmlAttoHandler handler = new ValidatingHtmlAttoHandler();
+			parser.parse(buffer, 0, length, handler);
+			return handler.problems;
+		}
+		catch (IOException ex) {
+			logError("File " + file.getName() + " could not be read", ex);
+		}
+		catch (AttoParseException ex) {
+			logError("Error reading the template file", ex);
+		}
+		finally {
+			try {
+				if (reader != null) {
+					reader.close();
+				}
+			}
+			catch (IOException ex) {
+				logError("Unable to close the template file reader", ex);
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * AttoParser handler which checks every element of a template as it's
+	 * parsed.
+	 */
+	private class ValidatingHtmlAttoHandler extends AbstractStandardNonValidatingHtmlAttoHandler {
+
+		private final ArrayList<TemplateProblem> problems = new ArrayList<TemplateProblem>();
+
+		/**
+		 * Constructor, create a handler for lenient HTML operations.
+		 */
+		private ValidatingHtmlAttoHandler() {
+
+			super(HtmlParsing.htmlParsingConfiguration());
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handleCDATASection(char[] buffer, int offset, int len, int line, int col) {
+
+			// Does nothing - don't care about this one right now
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handleComment(char[] buffer, int offset, int len, int line, int col) {
+
+			// Does nothing - don't care about this one right now
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handleDocType(String elementName, String publicId, String systemId,
+			String internalSubset, int line, int col) {
+
+			// Does nothing - don't care about this one right now
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handleDocumentEnd(long endTimeNanos, long totalTimeNanos, int line, int col,
+			HtmlParsingConfiguration parsingConfiguration) {
+
+			// Does nothing - don't care about this one right now
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handleDocumentStart(long startTimeNanos, int line, int col,
+			HtmlParsingConfiguration parsingConfiguration) {
+
+			// Does nothing - don't care about this one right now
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handleHtmlCloseElement(IHtmlElement htmlElement, String elementName,
+			int line, int col) {
+
+			// Does nothing - don't care about this one right now
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handleHtmlOpenElement(IHtmlElement htmlElement, String elementName,
+			Map<String,String> attributes, int line, int col) {
+
+			problems.addAll(validateElement(elementName, attributes, line));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handleHtmlStandaloneElement(IHtmlElement htmlElement, boolean minimized,
+			String elementName, Map<String,String> attributes, int line, int col) {
+
+			problems.addAll(validateElement(elementName, attributes, line));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handleProcessingInstruction(String target, String content, int line, int col) {
+
+			// Does nothing - don't care about this one right now
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handleXmlDeclaration(String version, String encoding, String standalone,
+			int line, int col) {
+
+			// Does nothing - don't care about this one right now
+		}
+	}
+}
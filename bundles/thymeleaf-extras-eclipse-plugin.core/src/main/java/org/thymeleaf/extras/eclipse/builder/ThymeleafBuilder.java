@@ -17,10 +17,13 @@
 package org.thymeleaf.extras.eclipse.builder;
 
 import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -32,14 +35,27 @@ import org.thymeleaf.extras.eclipse.dialect.cache.DialectCache;
 import static org.eclipse.core.resources.IResource.*;
 import static org.thymeleaf.extras.eclipse.CorePlugin.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Builder for projects with the Thymeleaf nature applied to them.  Removes
- * validation markers over HTML files which complain about non-namespaced items
- * that belong to dialects the project knows about.
+ * Builder for projects with the Thymeleaf nature applied to them.  Has the HTML
+ * validator ignore the attribute processors of dialects the project knows
+ * about, and removes any validation markers over HTML files which still
+ * complain about those items (eg: for versions of the HTML validator that
+ * can't ignore attribute names, or markers from before the project was set
+ * up).
+ * <p>
+ * Also validates the templates themselves against the project's dialects,
+ * reporting anything the HTML validator can't know about as Thymeleaf problem
+ * markers.  Templates that haven't changed since they were last validated
+ * against the same dialects are skipped.
  * 
  * @author Emanuel Rabina
  */
@@ -49,9 +65,16 @@ public class ThymeleafBuilder extends IncrementalProjectBuilder {
 	private static final String FILE_EXTENSION_HTML           = "html";
 	private static final String MARKER_ATTRIBUTE_NAME_MESSAGE = "message";
 
+	public static final String TEMPLATE_PROBLEM_MARKER = "org.thymeleaf.extras.eclipse.core.ThymeleafProblem";
+
 	private static final Pattern UNDEFINED_ATTRIBUTE_PATTERN = Pattern.compile(
 			"Undefined attribute name \\((.*?:.*?)\\)\\.");
 
+	// Modification stamps of templates as they were last validated, and the
+	// project's dialect generation they were validated against
+	private final HashMap<IPath,Long> validatedstamps = new HashMap<IPath,Long>();
+	private long validatedgeneration = -1;
+
 	/**
 	 * Remove HTML validation messages that refer to unknown attributes, when
 	 * those attributes are in-fact Thymeleaf processors.
@@ -75,28 +98,181 @@ public class ThymeleafBuilder extends IncrementalProjectBuilder {
 		IProject project = getProject();
 		IJavaProject javaproject = JavaCore.create(project);
 
+		// Keep the HTML validator from reporting known processors in the first place
+		HtmlValidatorSettings.applyIgnoredAttributeNames(javaproject);
+
 		// Retrieve markers from the delta or the project
+		ArrayList<IMarker> markerstodelete = new ArrayList<IMarker>();
+		HashMap<String,Boolean> knownprocessors = new HashMap<String,Boolean>();
 		if (kind == INCREMENTAL_BUILD || kind == AUTO_BUILD) {
-			unvalidateDelta(getDelta(project), javaproject, monitor);
+			unvalidateDelta(getDelta(project), javaproject, markerstodelete, knownprocessors, monitor);
 		}
 		else {
-			unvalidateProject(javaproject, monitor);
+			unvalidateProject(javaproject, markerstodelete, knownprocessors, monitor);
 		}
 
+		deleteMarkers(project, markerstodelete, monitor);
+
+		// Validate the templates, reading the dialects only once for the build.
+		// Any change to the project's dialects means every template needs checking
+		// again.
+		TemplateValidator validator = new TemplateValidator(javaproject);
+		long generation = DialectCache.getGeneration(javaproject);
+		ArrayList<IFile> templates = new ArrayList<IFile>();
+		IResourceDelta delta = getDelta(project);
+		if ((kind == INCREMENTAL_BUILD || kind == AUTO_BUILD) && delta != null &&
+			generation == validatedgeneration) {
+			findChangedTemplates(delta, templates);
+		}
+		else {
+			validatedstamps.clear();
+			findTemplates(project, templates);
+		}
+		validatedgeneration = generation;
+		validateTemplates(project, templates, validator, monitor);
+
 		return null;
 	}
 
+	/**
+	 * Remove all Thymeleaf problem markers and forget which templates have been
+	 * validated.
+	 * 
+	 * @param monitor
+	 * @throws CoreException
+	 */
+	@Override
+	protected void clean(IProgressMonitor monitor) throws CoreException {
+
+		validatedstamps.clear();
+		validatedgeneration = -1;
+		getProject().deleteMarkers(TEMPLATE_PROBLEM_MARKER, true, DEPTH_INFINITE);
+	}
+
+	/**
+	 * Delete all of the given markers in a single workspace operation, so that
+	 * only one resource change notification goes out for all of them.
+	 * 
+	 * @param project
+	 * @param markers
+	 * @param monitor
+	 * @throws CoreException
+	 */
+	private static void deleteMarkers(IProject project, final List<IMarker> markers,
+		IProgressMonitor monitor) throws CoreException {
+
+		if (markers.isEmpty()) {
+			return;
+		}
+		logInfo("Removing " + markers.size() + " markers for known attribute processors");
+
+		final IWorkspace workspace = project.getWorkspace();
+		workspace.run(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+
+				workspace.deleteMarkers(markers.toArray(new IMarker[markers.size()]));
+			}
+		}, project, IWorkspace.AVOID_UPDATE, monitor);
+	}
+
+	/**
+	 * Traverse the given delta and its children, collecting the HTML files that
+	 * were added or changed.
+	 * 
+	 * @param delta
+	 * @param templates List of templates to add to.
+	 */
+	private void findChangedTemplates(IResourceDelta delta, List<IFile> templates) {
+
+		IResource resource = delta.getResource();
+		if (resource.isDerived()) {
+			return;
+		}
+
+		if (resource instanceof IFile && isTemplate(resource)) {
+			if (delta.getKind() == IResourceDelta.REMOVED) {
+				validatedstamps.remove(resource.getFullPath());
+			}
+			else {
+				templates.add((IFile)resource);
+			}
+		}
+		else if (resource instanceof IContainer) {
+			for (IResourceDelta childdelta: delta.getAffectedChildren()) {
+				findChangedTemplates(childdelta, templates);
+			}
+		}
+	}
+
+	/**
+	 * Collect all of the HTML files in a container and its children.
+	 * 
+	 * @param container
+	 * @param templates List of templates to add to.
+	 * @throws CoreException
+	 */
+	private static void findTemplates(IContainer container, List<IFile> templates) throws CoreException {
+
+		for (IResource resource: container.members()) {
+			if (resource.isDerived()) {
+				continue;
+			}
+			if (resource instanceof IFile && isTemplate(resource)) {
+				templates.add((IFile)resource);
+			}
+			else if (resource instanceof IContainer) {
+				findTemplates((IContainer)resource, templates);
+			}
+		}
+	}
+
+	/**
+	 * Return whether or not the given name is that of an attribute processor
+	 * known to the project, remembering the answer for the rest of the build.
+	 * 
+	 * @param processorname
+	 * @param javaproject
+	 * @param knownprocessors
+	 * @return <tt>true</tt> if the project has an attribute processor by that
+	 * 		   name.
+	 */
+	private static boolean isKnownProcessor(String processorname, IJavaProject javaproject,
+		HashMap<String,Boolean> knownprocessors) {
+
+		Boolean knownprocessor = knownprocessors.get(processorname);
+		if (knownprocessor == null) {
+			knownprocessor = DialectCache.getAttributeProcessor(javaproject, processorname) != null;
+			knownprocessors.put(processorname, knownprocessor);
+		}
+		return knownprocessor;
+	}
+
+	/**
+	 * Return whether or not the resource is an HTML file.
+	 * 
+	 * @param resource
+	 * @return <tt>true</tt> if the resource has the HTML file extension.
+	 */
+	private static boolean isTemplate(IResource resource) {
+
+		return FILE_EXTENSION_HTML.equals(resource.getFileExtension());
+	}
+
 	/**
 	 * Traverse the given delta and its children, searching for resource markers
 	 * to remove.
 	 * 
 	 * @param delta
 	 * @param javaproject
+	 * @param markerstodelete
+	 * @param knownprocessors
 	 * @param monitor
 	 * @throws CoreException
 	 */
 	private static void unvalidateDelta(IResourceDelta delta, IJavaProject javaproject,
-		IProgressMonitor monitor) throws CoreException {
+		List<IMarker> markerstodelete, HashMap<String,Boolean> knownprocessors, IProgressMonitor monitor)
+		throws CoreException {
 
 		if (monitor.isCanceled()) {
 			throw new OperationCanceledException();
@@ -111,7 +287,7 @@ public class ThymeleafBuilder extends IncrementalProjectBuilder {
 			logInfo("Checking resource: " + resourcepath.toString());
 			IMarker[] markers = delta.getResource().findMarkers(HTML_VALIDATION_MARKER, true, DEPTH_ZERO);
 			for (IMarker marker: markers) {
-				unvalidateMarker(marker, javaproject, monitor);
+				unvalidateMarker(marker, javaproject, markerstodelete, knownprocessors, monitor);
 			}
 		}
 
@@ -119,22 +295,25 @@ public class ThymeleafBuilder extends IncrementalProjectBuilder {
 		else if (resource instanceof IContainer) {
 			IResourceDelta[] childdeltas = delta.getAffectedChildren();
 			for (IResourceDelta childdelta: childdeltas) {
-				unvalidateDelta(childdelta, javaproject, monitor);
+				unvalidateDelta(childdelta, javaproject, markerstodelete, knownprocessors, monitor);
 			}
 		}
 	}
 
 	/**
 	 * Check a marker to see if it's a complaint about a known attribute
-	 * processor.
+	 * processor, adding it to the markers to delete if it is.
 	 * 
 	 * @param marker
 	 * @param javaproject
+	 * @param markerstodelete
+	 * @param knownprocessors
 	 * @param monitor
 	 * @throws CoreException
 	 */
 	private static void unvalidateMarker(IMarker marker, IJavaProject javaproject,
-		IProgressMonitor monitor) throws CoreException {
+		List<IMarker> markerstodelete, HashMap<String,Boolean> knownprocessors, IProgressMonitor monitor)
+		throws CoreException {
 
 		if (monitor.isCanceled()) {
 			throw new OperationCanceledException();
@@ -144,10 +323,9 @@ public class ThymeleafBuilder extends IncrementalProjectBuilder {
 		if (message != null) {
 			Matcher matcher = UNDEFINED_ATTRIBUTE_PATTERN.matcher(message);
 			if (matcher.matches()) {
-				logInfo("Checking marker w/ message: " + message);
 				String processor = matcher.group(1);
-				if (DialectCache.getAttributeProcessor(javaproject, processor) != null) {
-					marker.delete();
+				if (isKnownProcessor(processor, javaproject, knownprocessors)) {
+					markerstodelete.add(marker);
 				}
 			}
 		}
@@ -158,18 +336,95 @@ public class ThymeleafBuilder extends IncrementalProjectBuilder {
 	 * remove.
 	 * 
 	 * @param javaproject
+	 * @param markerstodelete
+	 * @param knownprocessors
 	 * @param monitor
 	 * @throws CoreException
 	 */
-	private static void unvalidateProject(IJavaProject javaproject,
-		IProgressMonitor monitor) throws CoreException {
+	private static void unvalidateProject(IJavaProject javaproject, List<IMarker> markerstodelete,
+		HashMap<String,Boolean> knownprocessors, IProgressMonitor monitor) throws CoreException {
 
 		IProject project = javaproject.getProject();
 		logInfo("Checking project: " + project.getName());
 
 		IMarker[] markers = project.findMarkers(HTML_VALIDATION_MARKER, true, DEPTH_INFINITE);
 		for (IMarker marker: markers) {
-			unvalidateMarker(marker, javaproject, monitor);
+			unvalidateMarker(marker, javaproject, markerstodelete, knownprocessors, monitor);
+		}
+	}
+
+	/**
+	 * Validate the given templates, replacing the Thymeleaf problem markers of
+	 * each in a single workspace operation.  Templates whose modification stamp
+	 * matches the one they were last validated at are skipped.  Templates that
+	 * can't be read get a single problem marker saying so, and aren't recorded
+	 * as validated so that they're tried again on the next build.
+	 * 
+	 * @param project
+	 * @param templates
+	 * @param validator
+	 * @param monitor
+	 * @throws CoreException
+	 */
+	private void validateTemplates(IProject project, List<IFile> templates, TemplateValidator validator,
+		IProgressMonitor monitor) throws CoreException {
+
+		final LinkedHashMap<IFile,List<TemplateProblem>> templateproblems =
+				new LinkedHashMap<IFile,List<TemplateProblem>>();
+		final HashMap<IFile,Long> templatestamps = new HashMap<IFile,Long>();
+		for (IFile template: templates) {
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			long modificationstamp = template.getModificationStamp();
+			Long validatedstamp = validatedstamps.get(template.getFullPath());
+			if (validatedstamp != null && validatedstamp == modificationstamp) {
+				continue;
+			}
+			// A template that can't be read shouldn't stop the others being validated
+			List<TemplateProblem> problems = null;
+			try {
+				problems = validator.validateTemplate(template);
+			}
+			catch (CoreException ex) {
+				logError("Unable to validate template " + template.getFullPath().toString(), ex);
+			}
+			if (problems != null) {
+				templateproblems.put(template, problems);
+				templatestamps.put(template, modificationstamp);
+			}
+			else {
+				templateproblems.put(template, Collections.singletonList(new TemplateProblem(
+						"Template " + template.getName() + " could not be read", IMarker.SEVERITY_ERROR, null, -1)));
+			}
+		}
+
+		if (templateproblems.isEmpty()) {
+			return;
+		}
+		logInfo("Validated " + templateproblems.size() + " templates in project " + project.getName());
+
+		project.getWorkspace().run(new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+
+				for (Map.Entry<IFile,List<TemplateProblem>> entry: templateproblems.entrySet()) {
+					IFile template = entry.getKey();
+					template.deleteMarkers(TEMPLATE_PROBLEM_MARKER, false, DEPTH_ZERO);
+					for (TemplateProblem problem: entry.getValue()) {
+						IMarker marker = template.createMarker(TEMPLATE_PROBLEM_MARKER);
+						marker.setAttribute(IMarker.MESSAGE, problem.getMessage());
+						marker.setAttribute(IMarker.SEVERITY, problem.getSeverity());
+						if (problem.getLine() > 0) {
+							marker.setAttribute(IMarker.LINE_NUMBER, problem.getLine());
+						}
+					}
+				}
+			}
+		}, project, IWorkspace.AVOID_UPDATE, monitor);
+
+		for (Map.Entry<IFile,Long> entry: templatestamps.entrySet()) {
+			validatedstamps.put(entry.getKey().getFullPath(), entry.getValue());
 		}
 	}
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.dialect.cache;
+
+import org.thymeleaf.extras.eclipse.dialect.xml.AttributeProcessor;
+import org.thymeleaf.extras.eclipse.dialect.xml.AttributeRestrictions;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The restrictions of an attribute processor, compiled from their string form
+ * the first time they're checked so that they can be checked against an
+ * element without any further parsing.  Compiled restrictions are kept
+ * against their processor for as long as the dialects stay the same.
+ * Instances are immutable and so can be shared between threads.
+ * 
+ * @author Emanuel Rabina
+ */
+public final class AttributeRestrictionsMatcher {
+
+	// Compiled restrictions, by processor instance
+	private static final IdentityHashMap<AttributeProcessor,AttributeRestrictionsMatcher> matchers =
+			new IdentityHashMap<AttributeProcessor,AttributeRestrictionsMatcher>();
+	private static long matchersgeneration = -1;
+
+	private final Set<String> allowedtags;
+	private final Set<String> deniedtags;
+
+	// Attribute restrictions, as parallel arrays of the original restriction,
+	// the attribute name, the required value (null for presence only), and
+	// whether the restriction is that the attribute must not be there
+	private final String[] attributerestrictions;
+	private final String[] attributenames;
+	private final String[] attributevalues;
+	private final boolean[] attributenegations;
+
+	private final Set<String> values;
+
+	/**
+	 * Constructor, compile the given restrictions.
+	 * 
+	 * @param restrictions
+	 */
+	private AttributeRestrictionsMatcher(AttributeRestrictions restrictions) {
+
+		// Tags
+		HashSet<String> allowed = new HashSet<String>();
+		HashSet<String> denied = new HashSet<String>();
+		if (restrictions.isSetTags()) {
+			for (String tag: restrictions.getTags()) {
+				if (tag.startsWith("-")) {
+					denied.add(tag.substring(1));
+				}
+				else {
+					allowed.add(tag);
+				}
+			}
+		}
+		allowedtags = Collections.unmodifiableSet(allowed);
+		deniedtags  = Collections.unmodifiableSet(denied);
+
+		// Attributes
+		List<String> attributes = restrictions.isSetAttributes() ?
+				restrictions.getAttributes() : Collections.<String>emptyList();
+		attributerestrictions = attributes.toArray(new String[attributes.size()]);
+		attributenames        = new String[attributerestrictions.length];
+		attributevalues       = new String[attributerestrictions.length];
+		attributenegations    = new boolean[attributerestrictions.length];
+		for (int i = 0; i < attributerestrictions.length; i++) {
+			String restriction = attributerestrictions[i];
+			attributenegations[i] = restriction.startsWith("-");
+			String name = attributenegations[i] ? restriction.substring(1) : restriction;
+			int equalsindex = name.indexOf('=');
+			if (equalsindex != -1) {
+				attributevalues[i] = name.substring(equalsindex + 1);
+				name = name.substring(0, equalsindex);
+			}
+			attributenames[i] = name;
+		}
+
+		// Values
+		values = restrictions.isSetValues() ?
+				Collections.unmodifiableSet(new HashSet<String>(restrictions.getValues())) :
+				null;
+	}
+
+	/**
+	 * Return the restrictions of the attributes that the given element
+	 * attributes don't satisfy.
+	 * 
+	 * @param attributes Attribute names/values of the element.
+	 * @return List of unsatisfied attribute restrictions, in their original
+	 * 		   string form.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<String> findUnmatchedAttributeRestrictions(Map<String,String> attributes) {
+
+		if (matchesAttributes(attributes)) {
+			return Collections.EMPTY_LIST;
+		}
+		ArrayList<String> unmatched = new ArrayList<String>();
+		for (int i = 0; i < attributenames.length; i++) {
+			if (!matchesAttribute(i, attributes.containsKey(attributenames[i]),
+					attributes.get(attributenames[i]))) {
+				unmatched.add(attributerestrictions[i]);
+			}
+		}
+		return unmatched;
+	}
+
+	/**
+	 * Return the compiled restrictions of the given processor, compiling them
+	 * the first time they're asked for.
+	 * 
+	 * @param processor
+	 * @return Compiled restrictions, or <tt>null</tt> if the processor has no
+	 * 		   restrictions.
+	 */
+	public static synchronized AttributeRestrictionsMatcher forProcessor(AttributeProcessor processor) {
+
+		if (!processor.isSetRestrictions()) {
+			return null;
+		}
+
+		// Forget the restrictions of older dialect items
+		long generation = DialectCache.getGeneration();
+		if (generation != matchersgeneration) {
+			matchers.clear();
+			matchersgeneration = generation;
+		}
+
+		AttributeRestrictionsMatcher matcher = matchers.get(processor);
+		if (matcher == null) {
+			matcher = new AttributeRestrictionsMatcher(processor.getRestrictions());
+			matchers.put(processor, matcher);
+		}
+		return matcher;
+	}
+
+	/**
+	 * Check a single attribute restriction against what was found on the
+	 * element.
+	 * 
+	 * @param index	  Index of the attribute restriction.
+	 * @param present Whether the element has the restricted attribute.
+	 * @param value	  Value of the attribute on the element.
+	 * @return <tt>true</tt> if the restriction is satisfied.
+	 */
+	private boolean matchesAttribute(int index, boolean present, String value) {
+
+		boolean allow = present;
+		if (allow && attributevalues[index] != null && value != null &&
+			!value.equals(attributevalues[index])) {
+			allow = false;
+		}
+		return attributenegations[index] ? !allow : allow;
+	}
+
+	/**
+	 * Check the attribute restrictions against the attributes of a DOM element.
+	 * 
+	 * @param attributes
+	 * @return <tt>true</tt> if all of the attribute restrictions are satisfied.
+	 */
+	public boolean matchesAttributes(NamedNodeMap attributes) {
+
+		for (int i = 0; i < attributenames.length; i++) {
+			Node attribute = attributes.getNamedItem(attributenames[i]);
+			if (!matchesAttribute(i, attribute != null, attribute != null ? attribute.getNodeValue() : null)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check the attribute restrictions against the attribute names/values of
+	 * an element.
+	 * 
+	 * @param attributes
+	 * @return <tt>true</tt> if all of the attribute restrictions are satisfied.
+	 */
+	public boolean matchesAttributes(Map<String,String> attributes) {
+
+		for (int i = 0; i < attributenames.length; i++) {
+			if (!matchesAttribute(i, attributes.containsKey(attributenames[i]),
+					attributes.get(attributenames[i]))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check the tag restrictions against the name of an element.
+	 * 
+	 * @param elementname
+	 * @return <tt>true</tt> if the processor is allowed on the element.
+	 */
+	public boolean matchesTag(String elementname) {
+
+		if (deniedtags.contains(elementname)) {
+			return false;
+		}
+		return allowedtags.isEmpty() || allowedtags.contains(elementname);
+	}
+
+	/**
+	 * Check the value restrictions against an attribute value.
+	 * 
+	 * @param value
+	 * @return <tt>true</tt> if the processor has no value restrictions, or the
+	 * 		   value is one of the allowed values.
+	 */
+	public boolean matchesValue(String value) {
+
+		return values == null || values.contains(value);
+	}
+}
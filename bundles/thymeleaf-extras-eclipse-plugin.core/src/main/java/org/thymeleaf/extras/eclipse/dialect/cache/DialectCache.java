@@ -18,6 +18,9 @@ package org.thymeleaf.extras.eclipse.dialect.cache;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.IJavaProject;
 import org.thymeleaf.extras.eclipse.dialect.ProjectDependencyDialectLocator;
 import org.thymeleaf.extras.eclipse.dialect.XmlDialectLoader;
@@ -32,7 +35,10 @@ import static org.eclipse.core.resources.IResourceChangeEvent.*;
 import static org.thymeleaf.extras.eclipse.dialect.cache.DialectItemProcessor.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.xml.namespace.QName;
 
@@ -44,11 +50,18 @@ import javax.xml.namespace.QName;
  */
 public class DialectCache {
 
+	// Most fuzzy matches returned by a query, after all of the prefix matches
+	private static final int MAX_FUZZY_MATCHES = 50;
+
 	private static XmlDialectLoader xmldialectloader = new XmlDialectLoader();
 
 	// Tree structure of all dialects in the user's workspace
 	private static DialectTree dialecttree;
 
+	// Projects whose dialects have been completely loaded
+	private static final Set<IJavaProject> loadedprojects =
+			Collections.synchronizedSet(new HashSet<IJavaProject>());
+
 	// Resource listener for changes to dialect projects and files
 	private static DialectChangeListener dialectchangelistener;
 
@@ -77,32 +90,48 @@ public class DialectCache {
 	}
 
 	/**
-	 * Checks if the expression object method matches the given name.
+	 * Retrieve the items visible in the given namespaces whose names match the
+	 * pattern.  All items whose names start with the pattern are returned
+	 * first, in their usual order, followed by the best of the fuzzy matches
+	 * (picked out with a bounded heap rather than sorting them all), highest
+	 * scoring first.
 	 * 
-	 * @param method
-	 * @param name
-	 * @return <tt>true</tt> if the name matches the expression object name.
+	 * @param project
+	 * @param items
+	 * @param namespaces
+	 * @param pattern
+	 * @return List of matching items.
 	 */
-	private static boolean expressionObjectMethodMatchesName(ExpressionObjectMethod method, String name) {
+	private static <T extends DialectItem> List<T> findMatchingItems(IJavaProject project,
+		MatchableItems<T> items, List<QName> namespaces, String pattern) {
 
-		if (name == null || name.isEmpty()) {
-			return false;
+		ArrayList<T> matcheditems = new ArrayList<T>();
+		if (pattern == null) {
+			return matcheditems;
 		}
-		return name.equals(method.getFullName());
-	}
 
-	/**
-	 * Checks if the expression object method name matches the given
-	 * start-of-string pattern.
-	 * 
-	 * @param method
-	 * @param pattern
-	 * @return <tt>true</tt> if the pattern matches against the expression
-	 * 		   object name.
-	 */
-	private static boolean expressionObjectMethodMatchesPattern(ExpressionObjectMethod method, String pattern) {
+		boolean natureenabled = thymeleafNatureEnabled(project);
+		NameMatcher matcher = new NameMatcher(pattern);
+		FuzzyMatches fuzzymatches = new FuzzyMatches(MAX_FUZZY_MATCHES);
 
-		return pattern != null && method.getFullName().startsWith(pattern);
+		for (int i = 0; i < items.size(); i++) {
+			int score = items.score(i, matcher);
+			if (score == NameMatcher.NO_MATCH ||
+				(!natureenabled && !dialectInNamespace(items.get(i).getDialect(), namespaces))) {
+				continue;
+			}
+			if (score == NameMatcher.PREFIX_MATCH) {
+				matcheditems.add(items.get(i));
+			}
+			else {
+				fuzzymatches.add(i, score);
+			}
+		}
+
+		for (int index: fuzzymatches.getBestIndices()) {
+			matcheditems.add(items.get(index));
+		}
+		return matcheditems;
 	}
 
 	/**
@@ -118,7 +147,8 @@ public class DialectCache {
 
 		loadDialectsFromProject(project);
 
-		for (AttributeProcessor processor: dialecttree.getAttributeProcessorsForProject(project)) {
+		for (AttributeProcessor processor:
+			dialecttree.getAttributeProcessorsForProject(project).getItemsNamed(processorname)) {
 			if (processor.getFullName().equals(processorname)) {
 				return processor;
 			}
@@ -126,14 +156,28 @@ public class DialectCache {
 		return null;
 	}
 
+	/**
+	 * Retrieve all attribute processors for the given project, regardless of
+	 * namespaces.
+	 * 
+	 * @param project The current project.
+	 * @return List of all attribute processors in the project.
+	 */
+	public static List<AttributeProcessor> getAttributeProcessors(IJavaProject project) {
+
+		loadDialectsFromProject(project);
+
+		return new ArrayList<AttributeProcessor>(dialecttree.getAttributeProcessorsForProject(project));
+	}
+
 	/**
 	 * Retrieve all attribute processors for the given project, whose names
-	 * match the starting pattern.
+	 * match the pattern.
 	 * 
 	 * @param project	 The current project.
 	 * @param namespaces List of namespaces available at the current point in
 	 * 					 the document.
-	 * @param pattern	 Start-of-string pattern to match.
+	 * @param pattern	 Pattern to match, see {@link NameMatcher}.
 	 * @return List of all matching attribute processors.
 	 */
 	public static List<AttributeProcessor> getAttributeProcessors(IJavaProject project,
@@ -141,25 +185,32 @@ public class DialectCache {
 
 		loadDialectsFromProject(project);
 
-		ArrayList<AttributeProcessor> matchedprocessors = new ArrayList<AttributeProcessor>();
-		for (AttributeProcessor processor: dialecttree.getAttributeProcessorsForProject(project)) {
-			Dialect dialect = processor.getDialect();
-			if ((thymeleafNatureEnabled(project) || dialectInNamespace(dialect, namespaces)) &&
-				processorMatchesPattern(processor, pattern)) {
-				matchedprocessors.add(processor);
-			}
-		}
-		return matchedprocessors;
+		return findMatchingItems(project, dialecttree.getAttributeProcessorsForProject(project),
+				namespaces, pattern);
+	}
+
+	/**
+	 * Retrieve all element processors for the given project, regardless of
+	 * namespaces.
+	 * 
+	 * @param project The current project.
+	 * @return List of all element processors in the project.
+	 */
+	public static List<ElementProcessor> getElementProcessors(IJavaProject project) {
+
+		loadDialectsFromProject(project);
+
+		return new ArrayList<ElementProcessor>(dialecttree.getElementProcessorsForProject(project));
 	}
 
 	/**
 	 * Retrieve all element processors for the given project, whose names match
-	 * the starting pattern.
+	 * the pattern.
 	 * 
 	 * @param project	 The current project.
 	 * @param namespaces List of namespaces available at the current point in
 	 * 					 the document.
-	 * @param pattern	 Start-of-string pattern to match.
+	 * @param pattern	 Pattern to match, see {@link NameMatcher}.
 	 * @return List of all matching element processors
 	 */
 	public static List<ElementProcessor> getElementProcessors(IJavaProject project,
@@ -167,15 +218,8 @@ public class DialectCache {
 
 		loadDialectsFromProject(project);
 
-		ArrayList<ElementProcessor> matchedprocessors = new ArrayList<ElementProcessor>();
-		for (ElementProcessor processor: dialecttree.getElementProcessorsForProject(project)) {
-			Dialect dialect = processor.getDialect();
-			if ((thymeleafNatureEnabled(project) || dialectInNamespace(dialect, namespaces)) &&
-				processorMatchesPattern(processor, pattern)) {
-				matchedprocessors.add(processor);
-			}
-		}
-		return matchedprocessors;
+		return findMatchingItems(project, dialecttree.getElementProcessorsForProject(project),
+				namespaces, pattern);
 	}
 
 	/**
@@ -193,9 +237,9 @@ public class DialectCache {
 
 		loadDialectsFromProject(project);
 
-		for (ExpressionObjectMethod expressionobject: dialecttree.getExpressionObjectMethodsForProject(project)) {
-			if ((thymeleafNatureEnabled(project) || dialectInNamespace(expressionobject.getDialect(), namespaces)) &&
-				expressionObjectMethodMatchesName(expressionobject, methodname)) {
+		for (ExpressionObjectMethod expressionobject:
+			dialecttree.getExpressionObjectMethodsForProject(project).getItemsNamed(methodname)) {
+			if (thymeleafNatureEnabled(project) || dialectInNamespace(expressionobject.getDialect(), namespaces)) {
 				return expressionobject;
 			}
 		}
@@ -204,12 +248,12 @@ public class DialectCache {
 
 	/**
 	 * Retrieve all expression object methods for the given project, whose names
-	 * match the starting pattern.
+	 * match the pattern.
 	 * 
 	 * @param project	 The current project.
 	 * @param namespaces List of namespaces available at the current point in
 	 * 					 the document.
-	 * @param pattern	 Start-of-string pattern to match.
+	 * @param pattern	 Pattern to match, see {@link NameMatcher}.
 	 * @return List of all matching expression object methods.
 	 */
 	public static List<ExpressionObjectMethod> getExpressionObjectMethods(IJavaProject project,
@@ -217,15 +261,35 @@ public class DialectCache {
 
 		loadDialectsFromProject(project);
 
-		ArrayList<ExpressionObjectMethod> matchedexpressionobjects = new ArrayList<ExpressionObjectMethod>();
-		for (ExpressionObjectMethod expressionobjectmethod: dialecttree.getExpressionObjectMethodsForProject(project)) {
-			Dialect dialect = expressionobjectmethod.getDialect();
-			if ((thymeleafNatureEnabled(project) || dialectInNamespace(dialect, namespaces)) &&
-				expressionObjectMethodMatchesPattern(expressionobjectmethod, pattern)) {
-				matchedexpressionobjects.add(expressionobjectmethod);
-			}
-		}
-		return matchedexpressionobjects;
+		return findMatchingItems(project, dialecttree.getExpressionObjectMethodsForProject(project),
+				namespaces, pattern);
+	}
+
+	/**
+	 * Return a number that changes every time any dialect already loaded in
+	 * the workspace is changed or removed.  Anything worked out from the
+	 * dialects can be kept for as long as this number stays the same.
+	 * Loading the dialects of a project for the first time doesn't change it,
+	 * as that only brings in new dialect items.
+	 * 
+	 * @return Current dialect generation.
+	 */
+	public static long getGeneration() {
+
+		return dialecttree.getGeneration();
+	}
+
+	/**
+	 * Return a number that changes every time one of the dialects of the given
+	 * project is changed or removed, for anything worked out from the dialects
+	 * of just that project.
+	 * 
+	 * @param project
+	 * @return Current dialect generation of the project.
+	 */
+	public static long getGeneration(IJavaProject project) {
+
+		return dialecttree.getGeneration(project);
 	}
 
 	/**
@@ -243,18 +307,30 @@ public class DialectCache {
 		loadDialectsFromProject(project);
 
 		ArrayList<Processor> processors = new ArrayList<Processor>();
-		processors.addAll(dialecttree.getAttributeProcessorsForProject(project));
-		processors.addAll(dialecttree.getElementProcessorsForProject(project));
+		processors.addAll(dialecttree.getAttributeProcessorsForProject(project).getItemsNamed(processorname));
+		processors.addAll(dialecttree.getElementProcessorsForProject(project).getItemsNamed(processorname));
 
 		for (Processor processor: processors) {
-			if ((thymeleafNatureEnabled(project) || dialectInNamespace(processor.getDialect(), namespaces)) &&
-				processorMatchesName(processor, processorname)) {
+			if (thymeleafNatureEnabled(project) || dialectInNamespace(processor.getDialect(), namespaces)) {
 				return processor;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Return whether or not the dialects of the given project have been
+	 * loaded, meaning queries against that project will be answered from
+	 * memory.  Doesn't wait on a load that's already underway.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if the project's dialects are in the cache.
+	 */
+	public static boolean isProjectLoaded(IJavaProject project) {
+
+		return loadedprojects.contains(project);
+	}
+
 	/**
 	 * Gather all dialect information from the given project, if we haven't got
 	 * information on that project in the first place.
@@ -263,57 +339,61 @@ public class DialectCache {
 	 */
 	private static void loadDialectsFromProject(IJavaProject project) {
 
+		loadDialectsFromProject(project, new NullProgressMonitor());
+	}
+
+	/**
+	 * Gather all dialect information from the given project, if we haven't got
+	 * information on that project in the first place.  Nothing is added to the
+	 * cache until all of the project's dialects have been processed, so a
+	 * cancelled load leaves the project to be loaded again later.
+	 * 
+	 * @param project Project to scan for dialect information.
+	 * @param monitor
+	 * @throws OperationCanceledException If the monitor was cancelled.
+	 */
+	private static synchronized void loadDialectsFromProject(IJavaProject project, IProgressMonitor monitor) {
+
 		if (!dialecttree.containsProject(project)) {
 			ProjectDependencyDialectLocator projectdialectlocator = new ProjectDependencyDialectLocator(project);
 			List<Dialect> dialects = xmldialectloader.loadDialects(projectdialectlocator);
 			List<IPath> dialectfilepaths = projectdialectlocator.getDialectFilePaths();
 
+			ArrayList<List<DialectItem>> dialectitems = new ArrayList<List<DialectItem>>();
+			for (Dialect dialect: dialects) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				dialectitems.add(processDialectItems(dialect, project, monitor));
+			}
+
 			if (dialects.size() > 0) {
 				for (int i = 0; i < dialects.size(); i++) {
-					Dialect dialect = dialects.get(i);
 					IPath dialectfilepath = dialectfilepaths.get(i);
 
-					dialecttree.addProjectDialect(project, dialectfilepath, processDialectItems(dialect, project));
+					dialecttree.addProjectDialect(project, dialectfilepath, dialectitems.get(i));
 					dialectchangelistener.trackDialectFileForChanges(dialectfilepath, project);
 				}
 			}
 			else {
 				dialecttree.addProjectDialect(project, null, new ArrayList<DialectItem>());
 			}
+			loadedprojects.add(project);
 		}
 	}
 
 	/**
-	 * Checks if the processor name (prefix:name or data-prefix-name) matches
-	 * the given name.
+	 * Load the dialects of the given project into the cache, if they aren't
+	 * already, so that later queries don't have to.
 	 * 
-	 * @param processor
-	 * @param name
-	 * @return <tt>true</tt> if the name matches the full processor name.
-	 */
-	private static boolean processorMatchesName(Processor processor, String name) {
-
-		return name != null && !name.isEmpty() &&
-				(processor.getFullName().equals(name) ||
-				(processor instanceof AttributeProcessor &&
-						((AttributeProcessor)processor).getFullDataName().equals(name)));
-	}
-
-	/**
-	 * Checks if the processor name (prefix:name or data-prefix-name) matches
-	 * the given start-of-string pattern.
-	 * 
-	 * @param processor
-	 * @param pattern
-	 * @return <tt>true</tt> if the pattern matches against the processor prefix
-	 * 		   and name.
+	 * @param project
+	 * @param monitor
+	 * @throws OperationCanceledException If the monitor was cancelled before
+	 * 		   the dialects could be loaded.
 	 */
-	private static boolean processorMatchesPattern(Processor processor, String pattern) {
+	public static void loadProject(IJavaProject project, IProgressMonitor monitor) {
 
-		return pattern != null &&
-				(processor.getFullName().startsWith(pattern) ||
-				(processor instanceof AttributeProcessor &&
-						((AttributeProcessor)processor).getFullDataName().startsWith(pattern)));
+		loadDialectsFromProject(project, monitor);
 	}
 
 	/**
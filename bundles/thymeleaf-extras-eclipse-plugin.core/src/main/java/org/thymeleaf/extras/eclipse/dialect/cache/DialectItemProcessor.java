@@ -16,7 +16,9 @@
 
 package org.thymeleaf.extras.eclipse.dialect.cache;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
@@ -28,6 +30,7 @@ import org.thymeleaf.extras.eclipse.dialect.xml.Documentation;
 import org.thymeleaf.extras.eclipse.dialect.xml.ExpressionObject;
 import org.thymeleaf.extras.eclipse.dialect.xml.ExpressionObjectMethod;
 import org.thymeleaf.extras.eclipse.dialect.xml.Processor;
+import org.thymeleaf.extras.eclipse.type.cache.JavaBeanProperty;
 import static org.thymeleaf.extras.eclipse.CorePlugin.*;
 
 import java.io.IOException;
@@ -54,15 +57,17 @@ public class DialectItemProcessor {
 	 * 
 	 * @param processor
 	 * @param project
+	 * @param monitor
 	 * @return Documentation element with the processor's Javadoc content, or
 	 * 		   <tt>null</tt> if the processor had no Javadocs on it.
 	 */
-	private static Documentation generateDocumentation(Processor processor, IJavaProject project) {
+	private static Documentation generateDocumentation(Processor processor, IJavaProject project,
+		IProgressMonitor monitor) {
 
 		String processorclassname = processor.getClazz();
 
 		try {
-			IType type = project.findType(processorclassname, new NullProgressMonitor());
+			IType type = project.findType(processorclassname, monitor);
 			if (type != null) {
 				Reader reader = JavadocContentAccess.getHTMLContentReader(type, false, false);
 				if (reader != null) {
@@ -101,7 +106,8 @@ public class DialectItemProcessor {
 	 * @param expressionobject The exression object reference.
 	 * @param project
 	 * @return Set of expression object method suggestions based on the visible
-	 * 		   methods of the expression object.
+	 * 		   methods of the expression object, including inherited ones.
+	 * 		   Overloads share a single suggestion.
 	 */
 	private static HashSet<ExpressionObjectMethod> generateExpressionObjectMethods(Dialect dialect,
 		ExpressionObject expressionobject, IJavaProject project) {
@@ -112,34 +118,26 @@ public class DialectItemProcessor {
 		try {
 			IType type = project.findType(classname);
 			if (type != null) {
-				for (IMethod method: type.getMethods()) {
-					if (!method.isConstructor()) {
-
-						ExpressionObjectMethod expressionobjectmethod = new ExpressionObjectMethod();
-						expressionobjectmethod.setDialect(dialect);
-
-						// For Java bean methods, convert the suggestion to a property
-						String methodname = method.getElementName();
-						int propertypoint =
-								methodname.startsWith("get") || methodname.startsWith("set") ? 3 :
-								methodname.startsWith("is") ? 2 :
-								-1;
-
-						if (propertypoint != -1 && methodname.length() > propertypoint &&
-							Character.isUpperCase(methodname.charAt(propertypoint))) {
-
-							StringBuilder propertyname = new StringBuilder(methodname.substring(propertypoint));
-							propertyname.insert(0, Character.toLowerCase(propertyname.charAt(0)));
-							propertyname.deleteCharAt(1);
-							expressionobjectmethod.setName(expressionobject.getName() + "." + propertyname);
-							expressionobjectmethod.setJavaBeanProperty(true);
-						}
-						else {
-							expressionobjectmethod.setName(expressionobject.getName() + "." + methodname);
-						}
+				for (IMethod method: MethodSignatureResolver.getMethods(type)) {
+
+					ExpressionObjectMethod expressionobjectmethod = new ExpressionObjectMethod();
+					expressionobjectmethod.setDialect(dialect);
 
-						generatedmethods.add(expressionobjectmethod);
+					// Only the name is kept for now, signatures are resolved when needed
+					String methodname = method.getElementName();
+					expressionobjectmethod.setJavaMethod(type, methodname);
+
+					// For Java bean methods, convert the suggestion to a property
+					String propertyname = JavaBeanProperty.propertyName(methodname);
+					if (propertyname != null) {
+						expressionobjectmethod.setName(expressionobject.getName() + "." + propertyname);
+						expressionobjectmethod.setJavaBeanProperty(true);
+					}
+					else {
+						expressionobjectmethod.setName(expressionobject.getName() + "." + methodname);
 					}
+
+					generatedmethods.add(expressionobjectmethod);
 				}
 			}
 		}
@@ -161,15 +159,36 @@ public class DialectItemProcessor {
 	 */
 	static List<DialectItem> processDialectItems(Dialect dialect, IJavaProject project) {
 
+		return processDialectItems(dialect, project, new NullProgressMonitor());
+	}
+
+	/**
+	 * Generate the content assist documentation to accompany each dialect item,
+	 * checking the monitor for cancellation between the Javadoc lookups.
+	 * 
+	 * @param dialect
+	 * @param project
+	 * @param monitor
+	 * @return List of dialect items, already processed to include all the
+	 * 		   necessary documentation to be a part of the content assist
+	 * 		   system.
+	 * @throws OperationCanceledException If the monitor was cancelled.
+	 */
+	static List<DialectItem> processDialectItems(Dialect dialect, IJavaProject project,
+		IProgressMonitor monitor) {
+
 		ArrayList<DialectItem> dialectitems = new ArrayList<DialectItem>();
 
 		for (DialectItem dialectitem: dialect.getDialectItems()) {
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
 			if (dialectitem instanceof Processor) {
 				Processor processor = (Processor)dialectitem;
 
 				// Generate and save javadocs if no documentation present
 				if (!dialectitem.isSetDocumentation() && dialectitem.isSetClazz()) {
-					dialectitem.setDocumentation(generateDocumentation(processor, project));
+					dialectitem.setDocumentation(generateDocumentation(processor, project, monitor));
 				}
 				dialectitems.add(processor);
 			}
@@ -35,7 +35,8 @@ import java.util.Map;
  * Representation of all of the projects which contain dialect files found in
  * the user's workspace.  Used to better track changes made to dialect files
  * within the workspace so that the dialect cache used in content assist is kept
- * up to date.
+ * up to date.  The tree is read from content assist threads while being
+ * updated from resource change threads, so access to it is synchronized.
  * 
  * @author Emanuel Rabina
  */
@@ -44,13 +45,18 @@ public class DialectTree {
 	private HashMap<IJavaProject,DialectProject> dialectprojects = new HashMap<IJavaProject,DialectProject>();
 
 	// Saved project dialect item lists
-	private HashMap<IJavaProject,ArrayList<AttributeProcessor>> projectattributeprocessors =
-			new HashMap<IJavaProject,ArrayList<AttributeProcessor>>();
-	private HashMap<IJavaProject,ArrayList<ElementProcessor>> projectelementprocessors =
-			new HashMap<IJavaProject,ArrayList<ElementProcessor>>();
+	private HashMap<IJavaProject,MatchableItems<AttributeProcessor>> projectattributeprocessors =
+			new HashMap<IJavaProject,MatchableItems<AttributeProcessor>>();
+	private HashMap<IJavaProject,MatchableItems<ElementProcessor>> projectelementprocessors =
+			new HashMap<IJavaProject,MatchableItems<ElementProcessor>>();
 
-	private HashMap<IJavaProject,ArrayList<ExpressionObjectMethod>> projectexpressionobjectmethods =
-			new HashMap<IJavaProject,ArrayList<ExpressionObjectMethod>>();
+	private HashMap<IJavaProject,MatchableItems<ExpressionObjectMethod>> projectexpressionobjectmethods =
+			new HashMap<IJavaProject,MatchableItems<ExpressionObjectMethod>>();
+
+	// Incremented every time loaded dialect items are changed or removed, both
+	// overall and for each project
+	private volatile long generation;
+	private HashMap<IJavaProject,Long> projectgenerations = new HashMap<IJavaProject,Long>();
 
 	/**
 	 * Package-only constructor.
@@ -69,7 +75,7 @@ public class DialectTree {
 	 * 					   processed to include all the information they need
 	 * 					   for content assist queries.
 	 */
-	void addProjectDialect(IJavaProject project, IPath dialectpath, List<DialectItem> dialectitems) {
+	synchronized void addProjectDialect(IJavaProject project, IPath dialectpath, List<DialectItem> dialectitems) {
 
 		if (!containsProject(project)) {
 			dialectprojects.put(project, new DialectProject());
@@ -83,7 +89,7 @@ public class DialectTree {
 	 * @param project
 	 * @return <tt>true</tt> if the project has a matching entry in this tree.
 	 */
-	boolean containsProject(IJavaProject project) {
+	synchronized boolean containsProject(IJavaProject project) {
 
 		return dialectprojects.containsKey(project);
 	}
@@ -94,14 +100,13 @@ public class DialectTree {
 	 * @param project
 	 * @return List of all attribute processors for the given project.
 	 */
-	List<AttributeProcessor> getAttributeProcessorsForProject(IJavaProject project) {
+	synchronized MatchableItems<AttributeProcessor> getAttributeProcessorsForProject(IJavaProject project) {
 
 		if (!projectattributeprocessors.containsKey(project)) {
 			ArrayList<AttributeProcessor> attributeprocessors = new ArrayList<AttributeProcessor>(
 					dialectprojects.get(project).getAttributeProcessors());
 			Collections.sort(attributeprocessors, new DialectItemComparator());
-			attributeprocessors.trimToSize();
-			projectattributeprocessors.put(project, attributeprocessors);
+			projectattributeprocessors.put(project, new MatchableItems<AttributeProcessor>(attributeprocessors));
 		}
 		return projectattributeprocessors.get(project);
 	}
@@ -112,32 +117,56 @@ public class DialectTree {
 	 * @param project
 	 * @return List of all element processors for the given project.
 	 */
-	List<ElementProcessor> getElementProcessorsForProject(IJavaProject project) {
+	synchronized MatchableItems<ElementProcessor> getElementProcessorsForProject(IJavaProject project) {
 
 		if (!projectelementprocessors.containsKey(project)) {
 			ArrayList<ElementProcessor> elementprocessors = new ArrayList<ElementProcessor>(
 					dialectprojects.get(project).getElementProcessors());
 			Collections.sort(elementprocessors, new DialectItemComparator());
-			elementprocessors.trimToSize();
-			projectelementprocessors.put(project, elementprocessors);
+			projectelementprocessors.put(project, new MatchableItems<ElementProcessor>(elementprocessors));
 		}
 		return projectelementprocessors.get(project);
 	}
 
+	/**
+	 * Return a number that changes every time the dialects in this tree are
+	 * changed or removed.
+	 * 
+	 * @return Current dialect generation.
+	 */
+	long getGeneration() {
+
+		return generation;
+	}
+
+	/**
+	 * Return a number that changes every time the dialects of the given project
+	 * are changed or removed.
+	 * 
+	 * @param project
+	 * @return Current dialect generation of the project.
+	 */
+	synchronized long getGeneration(IJavaProject project) {
+
+		Long projectgeneration = projectgenerations.get(project);
+		return projectgeneration != null ? projectgeneration : 0;
+	}
+
 	/**
 	 * Retrieve all expression object methods for the given project.
 	 * 
 	 * @param project
 	 * @return List of all expression object methods for the given project.
 	 */
-	List<ExpressionObjectMethod> getExpressionObjectMethodsForProject(IJavaProject project) {
+	synchronized MatchableItems<ExpressionObjectMethod> getExpressionObjectMethodsForProject(
+		IJavaProject project) {
 
 		if (!projectexpressionobjectmethods.containsKey(project)) {
 			ArrayList<ExpressionObjectMethod> expressionobjectmethods = new ArrayList<ExpressionObjectMethod>(
 					dialectprojects.get(project).getExpressionObjectMethods());
 			Collections.sort(expressionobjectmethods, new DialectItemComparator());
-			expressionobjectmethods.trimToSize();
-			projectexpressionobjectmethods.put(project, expressionobjectmethods);
+			projectexpressionobjectmethods.put(project,
+					new MatchableItems<ExpressionObjectMethod>(expressionobjectmethods));
 		}
 		return projectexpressionobjectmethods.get(project);
 	}
@@ -149,7 +178,7 @@ public class DialectTree {
 	 * @param dialectfilepath
 	 * @param dialectitems
 	 */
-	void updateDialect(IPath dialectfilepath, List<DialectItem> dialectitems) {
+	synchronized void updateDialect(IPath dialectfilepath, List<DialectItem> dialectitems) {
 
 		for (Map.Entry<IJavaProject,DialectProject> entryset: dialectprojects.entrySet()) {
 			IJavaProject javaproject = entryset.getKey();
@@ -165,6 +194,8 @@ public class DialectTree {
 				projectattributeprocessors.remove(javaproject);
 				projectelementprocessors.remove(javaproject);
 				projectexpressionobjectmethods.remove(javaproject);
+				projectgenerations.put(javaproject, getGeneration(javaproject) + 1);
+				generation++;
 			}
 		}
 	}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.dialect.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the best of the fuzzy matches scored by a {@link NameMatcher}, each
+ * one being the position of a name in some list and the score it got.  The
+ * matches are held in a heap bounded to the number wanted, so that the worst
+ * one can be dropped as each new one comes in, rather than holding and
+ * sorting every match.  Instances are for use by a single thread.
+ * 
+ * @author Emanuel Rabina
+ */
+public final class FuzzyMatches {
+
+	private final int maxmatches;
+	private final PriorityQueue<FuzzyMatch> matches = new PriorityQueue<FuzzyMatch>();
+
+	/**
+	 * Constructor, set how many of the best matches to keep.
+	 * 
+	 * @param maxmatches
+	 */
+	public FuzzyMatches(int maxmatches) {
+
+		this.maxmatches = maxmatches;
+	}
+
+	/**
+	 * Add a match, dropping the worst match if there are now more than are to
+	 * be kept.
+	 * 
+	 * @param index Position of the matching name in its list.
+	 * @param score Score from {@link NameMatcher#score(String, long)}.
+	 */
+	public void add(int index, int score) {
+
+		matches.add(new FuzzyMatch(index, score));
+		if (matches.size() > maxmatches) {
+			matches.poll();
+		}
+	}
+
+	/**
+	 * Return the positions of the kept matches.
+	 * 
+	 * @return Positions of the matching names, highest scoring first, and for
+	 * 		   matches with the same score, in the order of their list.
+	 */
+	public int[] getBestIndices() {
+
+		FuzzyMatch[] bestmatches = matches.toArray(new FuzzyMatch[matches.size()]);
+		Arrays.sort(bestmatches, Collections.reverseOrder());
+		int[] indices = new int[bestmatches.length];
+		for (int i = 0; i < bestmatches.length; i++) {
+			indices[i] = bestmatches[i].index;
+		}
+		return indices;
+	}
+
+
+	/**
+	 * A fuzzy match of a name in a list, ordered by its score and then by its
+	 * position in the list, so that the best match is the greatest.
+	 */
+	private static class FuzzyMatch implements Comparable<FuzzyMatch> {
+
+		private final int index;
+		private final int score;
+
+		/**
+		 * Constructor, set the matching name and its score.
+		 * 
+		 * @param index
+		 * @param score
+		 */
+		private FuzzyMatch(int index, int score) {
+
+			this.index = index;
+			this.score = score;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int compareTo(FuzzyMatch other) {
+
+			return score != other.score ? (score < other.score ? -1 : 1) :
+					other.index - index;
+		}
+	}
+}
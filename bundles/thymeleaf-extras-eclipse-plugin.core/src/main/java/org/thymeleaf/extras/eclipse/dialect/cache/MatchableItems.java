@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.dialect.cache;
+
+import org.thymeleaf.extras.eclipse.dialect.xml.AttributeProcessor;
+import org.thymeleaf.extras.eclipse.dialect.xml.DialectItem;
+import org.thymeleaf.extras.eclipse.dialect.xml.ExpressionObjectMethod;
+import org.thymeleaf.extras.eclipse.dialect.xml.Processor;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list of dialect items that also holds the full names of
+ * those items and their character masks, worked out once when the list is
+ * made so that matching a pattern against every item doesn't have to.
+ * Attribute processors are matched against both their prefixed and data-*
+ * names.  The items are also indexed by those names, for looking an item up
+ * by its exact name without going through the whole list.
+ * 
+ * @param <T> Dialect item type.
+ * @author Emanuel Rabina
+ */
+final class MatchableItems<T extends DialectItem> extends AbstractList<T> implements RandomAccess {
+
+	private final Object[] items;
+	private final String[] names;
+	private final long[] namemasks;
+	private final String[] datanames;
+	private final long[] datanamemasks;
+	private final HashMap<String,List<T>> itemsbyname = new HashMap<String,List<T>>();
+
+	/**
+	 * Constructor, set the items and work out their names and masks.
+	 * 
+	 * @param items
+	 */
+	MatchableItems(List<T> items) {
+
+		int size = items.size();
+		this.items    = items.toArray();
+		names         = new String[size];
+		namemasks     = new long[size];
+		datanames     = new String[size];
+		datanamemasks = new long[size];
+
+		for (int i = 0; i < size; i++) {
+			T item = items.get(i);
+			names[i] = item instanceof Processor ? ((Processor)item).getFullName() :
+					item instanceof ExpressionObjectMethod ? ((ExpressionObjectMethod)item).getFullName() :
+					item.getName();
+			namemasks[i] = NameMatcher.characterMask(names[i]);
+			indexItem(names[i], item);
+			if (item instanceof AttributeProcessor) {
+				datanames[i] = ((AttributeProcessor)item).getFullDataName();
+				datanamemasks[i] = NameMatcher.characterMask(datanames[i]);
+				indexItem(datanames[i], item);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public T get(int index) {
+
+		return (T)items[index];
+	}
+
+	/**
+	 * Return the items with the given full name, which for attribute
+	 * processors can also be their data-* name.
+	 * 
+	 * @param name
+	 * @return List of the items with that name, in list order.
+	 */
+	List<T> getItemsNamed(String name) {
+
+		List<T> nameditems = itemsbyname.get(name);
+		return nameditems != null ? nameditems : Collections.<T>emptyList();
+	}
+
+	/**
+	 * Add an item to the name index.
+	 * 
+	 * @param name
+	 * @param item
+	 */
+	private void indexItem(String name, T item) {
+
+		List<T> nameditems = itemsbyname.get(name);
+		if (nameditems == null) {
+			nameditems = new ArrayList<T>(1);
+			itemsbyname.put(name, nameditems);
+		}
+		nameditems.add(item);
+	}
+
+	/**
+	 * Score how well the item at the given index matches, taking the better of
+	 * its two names for attribute processors.
+	 * 
+	 * @param index
+	 * @param matcher
+	 * @return Score from {@link NameMatcher#score(String, long)}.
+	 */
+	int score(int index, NameMatcher matcher) {
+
+		int score = matcher.score(names[index], namemasks[index]);
+		if (score != NameMatcher.PREFIX_MATCH && datanames[index] != null) {
+			score = Math.max(score, matcher.score(datanames[index], datanamemasks[index]));
+		}
+		return score;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+
+		return items.length;
+	}
+}
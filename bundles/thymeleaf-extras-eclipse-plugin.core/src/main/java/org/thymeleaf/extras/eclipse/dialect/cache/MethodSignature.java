@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.dialect.cache;
+
+/**
+ * The signature of one overload of an expression object method, resolved from
+ * the Java method behind it.  Instances are immutable and so can be shared
+ * between threads.
+ * 
+ * @author Emanuel Rabina
+ */
+public final class MethodSignature {
+
+	private final String name;
+	private final String[] parametertypes;
+	private final String[] parameternames;
+	private final String returntype;
+
+	/**
+	 * Constructor, set the parts of the signature.
+	 * 
+	 * @param name
+	 * @param parametertypes Simple names of the parameter types.
+	 * @param parameternames
+	 * @param returntype	 Simple name of the return type.
+	 */
+	MethodSignature(String name, String[] parametertypes, String[] parameternames, String returntype) {
+
+		this.name           = name;
+		this.parametertypes = parametertypes;
+		this.parameternames = parameternames;
+		this.returntype     = returntype;
+	}
+
+	/**
+	 * Return the method name.
+	 * 
+	 * @return Method name.
+	 */
+	public String getName() {
+
+		return name;
+	}
+
+	/**
+	 * Return the number of parameters this overload takes.
+	 * 
+	 * @return Parameter count.
+	 */
+	public int getParameterCount() {
+
+		return parameternames.length;
+	}
+
+	/**
+	 * Return the name of a parameter, suitable for use as a placeholder when
+	 * inserting a call to this method.
+	 * 
+	 * @param index
+	 * @return Parameter name.
+	 */
+	public String getParameterName(int index) {
+
+		return parameternames[index];
+	}
+
+	/**
+	 * Return the simple name of the type of a parameter.
+	 * 
+	 * @param index
+	 * @return Parameter type.
+	 */
+	public String getParameterType(int index) {
+
+		return parametertypes[index];
+	}
+
+	/**
+	 * Return the simple name of the return type.
+	 * 
+	 * @return Return type.
+	 */
+	public String getReturnType() {
+
+		return returntype;
+	}
+
+	/**
+	 * Return the signature in the form shown by the Java editor.
+	 * 
+	 * @return name(Type param, ...) : ReturnType
+	 */
+	@Override
+	public String toString() {
+
+		StringBuilder signature = new StringBuilder(name).append('(');
+		for (int i = 0; i < parameternames.length; i++) {
+			if (i > 0) {
+				signature.append(", ");
+			}
+			signature.append(parametertypes[i]).append(' ').append(parameternames[i]);
+		}
+		return signature.append(") : ").append(returntype).toString();
+	}
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.dialect.cache;
+
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.ITypeHierarchyChangedListener;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+import org.thymeleaf.extras.eclipse.dialect.xml.ExpressionObjectMethod;
+import org.thymeleaf.extras.eclipse.type.cache.JavaBeanProperty;
+import static org.thymeleaf.extras.eclipse.CorePlugin.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Resolves the signatures of expression object methods from the Java types
+ * behind them.  Only the method names are needed when a dialect is loaded, so
+ * signatures are left until something asks for them, and are then kept
+ * against the expression object method for as long as the dialects stay the
+ * same.  The supertype hierarchies used to find
+ * inherited methods are cached per type, each one being dropped when JDT
+ * reports a change to it.
+ * 
+ * @author Emanuel Rabina
+ */
+public class MethodSignatureResolver {
+
+	private static final HashMap<IType,ITypeHierarchy> hierarchies = new HashMap<IType,ITypeHierarchy>();
+
+	// Resolved signatures, by method instance as methods are equal by name alone
+	private static final IdentityHashMap<ExpressionObjectMethod,List<MethodSignature>> resolvedsignatures =
+			new IdentityHashMap<ExpressionObjectMethod,List<MethodSignature>>();
+	private static long signaturesgeneration = -1;
+
+	// Drops hierarchies from the cache when they change
+	private static final ITypeHierarchyChangedListener hierarchychangelistener =
+			new ITypeHierarchyChangedListener() {
+				@Override
+				public void typeHierarchyChanged(ITypeHierarchy hierarchy) {
+					removeSupertypeHierarchy(hierarchy);
+				}
+			};
+
+	/**
+	 * Hidden default constructor as this class is only to be used statically.
+	 */
+	private MethodSignatureResolver() {
+	}
+
+	/**
+	 * Creates the signature of a Java method.
+	 * 
+	 * @param method
+	 * @return Signature using the simple names of all types involved.
+	 * @throws JavaModelException
+	 */
+	private static MethodSignature createSignature(IMethod method) throws JavaModelException {
+
+		String[] parametersignatures = method.getParameterTypes();
+		String[] parametertypes = new String[parametersignatures.length];
+		for (int i = 0; i < parametersignatures.length; i++) {
+			parametertypes[i] = toSimpleName(parametersignatures[i]);
+		}
+		return new MethodSignature(method.getElementName(), parametertypes, method.getParameterNames(),
+				toSimpleName(method.getReturnType()));
+	}
+
+	/**
+	 * Return the methods that can be called on an expression object of the
+	 * given type: the type's own methods, and the public methods of its
+	 * supertypes other than <tt>java.lang.Object</tt>.  Constructors are left
+	 * out.
+	 * 
+	 * @param type
+	 * @return List of the methods of the type and its supertypes, the type's
+	 * 		   own methods first.
+	 * @throws JavaModelException
+	 */
+	static synchronized List<IMethod> getMethods(IType type) throws JavaModelException {
+
+		ArrayList<IMethod> methods = new ArrayList<IMethod>();
+		for (IMethod method: type.getMethods()) {
+			if (!method.isConstructor()) {
+				methods.add(method);
+			}
+		}
+		for (IType supertype: getSupertypeHierarchy(type).getAllSupertypes(type)) {
+			if (supertype.getFullyQualifiedName().equals(Object.class.getName())) {
+				continue;
+			}
+			for (IMethod method: supertype.getMethods()) {
+				if (!method.isConstructor() && (Flags.isPublic(method.getFlags()) || supertype.isInterface())) {
+					methods.add(method);
+				}
+			}
+		}
+		return methods;
+	}
+
+	/**
+	 * Return the signatures of all of the overloads of an expression object
+	 * method, resolving them the first time they're asked for.  Overrides of a
+	 * method in a supertype aren't repeated.
+	 * 
+	 * @param method
+	 * @return Method signatures, fewest parameters first.  Empty if the method
+	 * 		   doesn't have a Java type to resolve them from.
+	 */
+	public static synchronized List<MethodSignature> getSignatures(ExpressionObjectMethod method) {
+
+		// Forget the signatures of older dialect items
+		long generation = DialectCache.getGeneration();
+		if (generation != signaturesgeneration) {
+			resolvedsignatures.clear();
+			signaturesgeneration = generation;
+		}
+
+		List<MethodSignature> signatures = resolvedsignatures.get(method);
+		if (signatures == null) {
+			signatures = resolveSignatures(method);
+			resolvedsignatures.put(method, signatures);
+		}
+		return signatures;
+	}
+
+	/**
+	 * Return the supertype hierarchy of a type, creating it if it isn't in the
+	 * cache.  New hierarchies are listened to so that they can be dropped from
+	 * the cache once JDT says they've changed.
+	 * 
+	 * @param type
+	 * @return Supertype hierarchy.
+	 * @throws JavaModelException
+	 */
+	private static ITypeHierarchy getSupertypeHierarchy(IType type) throws JavaModelException {
+
+		ITypeHierarchy hierarchy = hierarchies.get(type);
+		if (hierarchy == null) {
+			hierarchy = type.newSupertypeHierarchy(null);
+			hierarchy.addTypeHierarchyChangedListener(hierarchychangelistener);
+			hierarchies.put(type, hierarchy);
+		}
+		return hierarchy;
+	}
+
+	/**
+	 * Returns whether or not the Java method is the one to take the signature
+	 * of an expression object method from.
+	 * 
+	 * @param method
+	 * @param javamethod
+	 * @return <tt>true</tt> if the Java method has the same name, or for Java
+	 * 		   bean properties, is the property getter.
+	 * @throws JavaModelException
+	 */
+	private static boolean isSignatureMethod(ExpressionObjectMethod method, IMethod javamethod)
+		throws JavaModelException {
+
+		if (!method.isJavaBeanProperty()) {
+			return javamethod.getElementName().equals(method.getMethodName());
+		}
+		String propertyname = JavaBeanProperty.propertyName(method.getMethodName());
+		String javamethodname = javamethod.getElementName();
+		return propertyname != null && !javamethodname.startsWith("set") &&
+				javamethod.getNumberOfParameters() == 0 &&
+				propertyname.equals(JavaBeanProperty.propertyName(javamethodname));
+	}
+
+	/**
+	 * Forget a supertype hierarchy that has changed, to be created anew the
+	 * next time it's needed.
+	 * 
+	 * @param hierarchy
+	 */
+	private static synchronized void removeSupertypeHierarchy(ITypeHierarchy hierarchy) {
+
+		hierarchy.removeTypeHierarchyChangedListener(hierarchychangelistener);
+		hierarchies.remove(hierarchy.getType());
+	}
+
+	/**
+	 * Resolve the signatures of all overloads of an expression object method.
+	 * 
+	 * @param method
+	 * @return Method signatures, fewest parameters first.
+	 */
+	private static List<MethodSignature> resolveSignatures(ExpressionObjectMethod method) {
+
+		IType type = method.getExpressionObjectType();
+		if (type == null) {
+			return Collections.emptyList();
+		}
+
+		ArrayList<MethodSignature> signatures = new ArrayList<MethodSignature>();
+		HashSet<String> parameterlists = new HashSet<String>();
+		try {
+			for (IMethod javamethod: getMethods(type)) {
+				if (isSignatureMethod(method, javamethod)) {
+					MethodSignature signature = createSignature(javamethod);
+					StringBuilder parameterlist = new StringBuilder();
+					for (int i = 0; i < signature.getParameterCount(); i++) {
+						parameterlist.append(signature.getParameterType(i)).append(',');
+					}
+					if (parameterlists.add(parameterlist.toString())) {
+						signatures.add(signature);
+					}
+				}
+			}
+		}
+		catch (JavaModelException ex) {
+			logError("Unable to resolve the signatures of " + method.getFullName(), ex);
+		}
+
+		Collections.sort(signatures, new Comparator<MethodSignature>() {
+			@Override
+			public int compare(MethodSignature signature1, MethodSignature signature2) {
+				return signature1.getParameterCount() - signature2.getParameterCount();
+			}
+		});
+		return Collections.unmodifiableList(signatures);
+	}
+
+	/**
+	 * Convert a JDT type signature into the simple name of the type.
+	 * 
+	 * @param typesignature
+	 * @return Simple type name, eg: <tt>List&lt;String&gt;</tt>
+	 */
+	private static String toSimpleName(String typesignature) {
+
+		return Signature.getSimpleName(Signature.toString(typesignature));
+	}
+}
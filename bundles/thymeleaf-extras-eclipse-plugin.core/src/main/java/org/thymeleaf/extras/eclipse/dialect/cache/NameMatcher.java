@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.dialect.cache;
+
+/**
+ * Matches dialect item names against what the user has typed so far.  Names
+ * that start with the pattern are always the best matches, but names that
+ * merely contain all of the pattern's characters in order are matched too and
+ * scored by how well they line up, so that <tt>th:utxt</tt> finds
+ * <tt>th:utext</tt> and <tt>#str.abb</tt> finds <tt>#strings.abbreviate</tt>.
+ * Uppercase pattern characters prefer the humps of camel-cased names.
+ * <p>
+ * Every name and pattern has a character mask, one bit per (case-insensitive)
+ * character it contains, so that names missing any of the pattern's
+ * characters are rejected without looking at them any further.  Instances are
+ * immutable and so can be shared between threads.
+ * 
+ * @author Emanuel Rabina
+ */
+public final class NameMatcher {
+
+	public static final int NO_MATCH     = -1;
+	public static final int PREFIX_MATCH = Integer.MAX_VALUE;
+
+	private static final int FUZZY_MATCH       = 1000;
+	private static final int CONSECUTIVE_BONUS = 15;
+	private static final int WORD_START_BONUS  = 10;
+	private static final int MAX_GAP_PENALTY   = 5;
+
+	private final String pattern;
+	private final char[] lowercasepattern;
+	private final long patternmask;
+	private final boolean hasuppercase;
+
+	/**
+	 * Constructor, set the pattern to match names against.
+	 * 
+	 * @param pattern
+	 */
+	public NameMatcher(String pattern) {
+
+		this.pattern     = pattern;
+		this.patternmask = characterMask(pattern);
+
+		lowercasepattern = new char[pattern.length()];
+		boolean uppercase = false;
+		for (int i = 0; i < lowercasepattern.length; i++) {
+			char c = pattern.charAt(i);
+			lowercasepattern[i] = Character.toLowerCase(c);
+			uppercase |= Character.isUpperCase(c);
+		}
+		hasuppercase = uppercase;
+	}
+
+	/**
+	 * Work out the character mask of a name: one bit for each character in it,
+	 * ignoring case.  Different characters can share a bit, so the mask can
+	 * only ever prove that a name doesn't contain a character.
+	 * 
+	 * @param name
+	 * @return Character mask of the name.
+	 */
+	public static long characterMask(String name) {
+
+		long mask = 0;
+		for (int i = 0; i < name.length(); i++) {
+			mask |= 1L << (Character.toLowerCase(name.charAt(i)) & 63);
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns whether or not the character at the given position starts a
+	 * word of the name: it's the first character, it follows a non-alphanumeric
+	 * character, or it's the uppercase hump of a camel-cased word.
+	 * 
+	 * @param name
+	 * @param index
+	 * @return <tt>true</tt> if a word of the name starts at <tt>index</tt>.
+	 */
+	private static boolean isWordStart(String name, int index) {
+
+		if (index == 0) {
+			return true;
+		}
+		char previous = name.charAt(index - 1);
+		return !Character.isLetterOrDigit(previous) ||
+				(Character.isUpperCase(name.charAt(index)) && Character.isLowerCase(previous));
+	}
+
+	/**
+	 * Returns whether or not the name matches the pattern at all.
+	 * 
+	 * @param name
+	 * @return <tt>true</tt> if the name starts with, or contains all of the
+	 * 		   characters of, the pattern.
+	 */
+	public boolean matches(String name) {
+
+		return score(name, characterMask(name)) != NO_MATCH;
+	}
+
+	/**
+	 * Score how well the name matches the pattern.
+	 * 
+	 * @param name
+	 * @param namemask Character mask of the name, from
+	 * 				   {@link #characterMask(String)}.
+	 * @return {@link #PREFIX_MATCH} if the name starts with the pattern,
+	 * 		   {@link #NO_MATCH} if it doesn't contain all of the pattern's
+	 * 		   characters in order, otherwise a positive score that's higher
+	 * 		   the better the characters line up.
+	 */
+	public int score(String name, long namemask) {
+
+		if ((patternmask & ~namemask) != 0) {
+			return NO_MATCH;
+		}
+		if (name.startsWith(pattern)) {
+			return PREFIX_MATCH;
+		}
+
+		int score = scoreSubsequence(name, false);
+		if (score != NO_MATCH && hasuppercase) {
+			score = Math.max(score, scoreSubsequence(name, true));
+		}
+		return score;
+	}
+
+	/**
+	 * Find the pattern's characters in the name, in order, and score the
+	 * match.  Consecutive characters and characters at the start of words
+	 * score extra, while gaps between them cost a little.
+	 * 
+	 * @param name
+	 * @param preferhumps Whether uppercase pattern characters should skip
+	 * 					  ahead to the next camel-case hump that matches.
+	 * @return Score of the match, or {@link #NO_MATCH} if the name doesn't
+	 * 		   contain the pattern's characters in order.
+	 */
+	private int scoreSubsequence(String name, boolean preferhumps) {
+
+		int score = FUZZY_MATCH;
+		int previousmatch = -1;
+		int nameindex = 0;
+		int namelength = name.length();
+
+		for (int i = 0; i < lowercasepattern.length; i++) {
+			char c = lowercasepattern[i];
+
+			int match = -1;
+			if (preferhumps && Character.isUpperCase(pattern.charAt(i))) {
+				for (int j = nameindex; j < namelength; j++) {
+					if (name.charAt(j) == pattern.charAt(i) && isWordStart(name, j)) {
+						match = j;
+						break;
+					}
+				}
+			}
+			if (match == -1) {
+				for (int j = nameindex; j < namelength; j++) {
+					if (Character.toLowerCase(name.charAt(j)) == c) {
+						match = j;
+						break;
+					}
+				}
+			}
+			if (match == -1) {
+				return NO_MATCH;
+			}
+
+			if (match == previousmatch + 1) {
+				score += CONSECUTIVE_BONUS;
+			}
+			else {
+				score -= Math.min(match - previousmatch - 1, MAX_GAP_PENALTY);
+			}
+			if (isWordStart(name, match)) {
+				score += WORD_START_BONUS;
+			}
+			previousmatch = match;
+			nameindex = match + 1;
+		}
+
+		return Math.max(score, 1);
+	}
+}
@@ -75,21 +75,21 @@ public class AttributeProcessor
     public boolean isSetRestrictions() {
         return (this.restrictions!= null);
     }
-    
-	@javax.xml.bind.annotation.XmlTransient
-	private String fulldataname;
-
-	/**
-	 * Return the full data-* name of this processor.
-	 * 
-	 * @return data-prefix-name
-	 */
-	public String getFullDataName() {
-
-		if (fulldataname == null) {
-			fulldataname = "data-" + dialect.getPrefix() + "-" + name;
-		}
-		return fulldataname;
-	}
+    
+	@javax.xml.bind.annotation.XmlTransient
+	private String fulldataname;
+
+	/**
+	 * Return the full data-* name of this processor.
+	 * 
+	 * @return data-prefix-name
+	 */
+	public String getFullDataName() {
+
+		if (fulldataname == null) {
+			fulldataname = "data-" + dialect.getPrefix() + "-" + name;
+		}
+		return fulldataname;
+	}
 				
 }
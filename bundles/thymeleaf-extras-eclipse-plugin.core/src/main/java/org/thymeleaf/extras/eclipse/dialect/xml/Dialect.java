@@ -208,33 +208,33 @@ public class Dialect {
     public void setClazz(String value) {
         this.clazz = value;
     }
-    
-	/**
-	 * Returns if this dialect is equal to another.
-	 * 
-	 * @param other The other dialect to compare against.
-	 * @return <tt>true</tt> if the other object is a dialect and they share the
-	 * 		   same prefix and namespace.
-	 */
-	@Override
-	public boolean equals(Object other) {
-
-		if (other instanceof Dialect) {
-			Dialect o = (Dialect)other;
-			return prefix.equals(o.prefix) && namespaceUri.equals(o.namespaceUri);
-		}
-		return false;
-	}
-
-	/**
-	 * Returns a hashcode based on this dialect's information.
-	 * 
-	 * @return Dialect hashcode.
-	 */
-	@Override
-	public int hashCode() {
-
-		return prefix.hashCode() * namespaceUri.hashCode();
-	}
+    
+	/**
+	 * Returns if this dialect is equal to another.
+	 * 
+	 * @param other The other dialect to compare against.
+	 * @return <tt>true</tt> if the other object is a dialect and they share the
+	 * 		   same prefix and namespace.
+	 */
+	@Override
+	public boolean equals(Object other) {
+
+		if (other instanceof Dialect) {
+			Dialect o = (Dialect)other;
+			return prefix.equals(o.prefix) && namespaceUri.equals(o.namespaceUri);
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a hashcode based on this dialect's information.
+	 * 
+	 * @return Dialect hashcode.
+	 */
+	@Override
+	public int hashCode() {
+
+		return prefix.hashCode() * namespaceUri.hashCode();
+	}
 					
 }
@@ -136,28 +136,28 @@ public abstract class DialectItem {
     public boolean isSetClazz() {
         return (this.clazz!= null);
     }
-    
-	@javax.xml.bind.annotation.XmlTransient
-	protected Dialect dialect;
-
-	/**
-	 * Gets the dialect this object belongs to.
-	 * 
-	 * @return Dialect this object is for.
-	 */
-	public Dialect getDialect() {
-
-		return dialect;
-	}
-
-	/**
-	 * Set the dialect this object belongs to.
-	 * 
-	 * @param dialect
-	 */
-	public void setDialect(Dialect dialect) {
-
-		this.dialect = dialect;
-	}
+    
+	@javax.xml.bind.annotation.XmlTransient
+	protected Dialect dialect;
+
+	/**
+	 * Gets the dialect this object belongs to.
+	 * 
+	 * @return Dialect this object is for.
+	 */
+	public Dialect getDialect() {
+
+		return dialect;
+	}
+
+	/**
+	 * Set the dialect this object belongs to.
+	 * 
+	 * @param dialect
+	 */
+	public void setDialect(Dialect dialect) {
+
+		this.dialect = dialect;
+	}
 				
 }
@@ -71,44 +71,86 @@ public class ExpressionObjectMethod
     public void setJavaBeanProperty(Boolean value) {
         this.javaBeanProperty = value;
     }
-    
-	/**
-	 * Return if this expression object method is equal to another one.
-	 * 
-	 * @param other The expression object method to compare against.
-	 * @return <tt>true</tt> if both this and the other method share the same
-	 *         name.
-	 */
-	@Override
-	public boolean equals(Object other) {
-
-		return other instanceof ExpressionObjectMethod && name.equals(((ExpressionObjectMethod)other).name);
-	}
-
-	/**
-	 * Returns a hashcode based on this method data.
-	 * 
-	 * @return Method hashcode.
-	 */
-	@Override
-	public int hashCode() {
-
-		return name.hashCode();
-	}
-
-	private String fullname;
-
-	/**
-	 * Return the full name of this expression object method.
-	 * 
-	 * @return #name
-	 */
-	public String getFullName() {
-
-		if (fullname == null) {
-			fullname = "#" + name;
-		}
-		return fullname;
-	}
+    
+	/**
+	 * Return if this expression object method is equal to another one.
+	 * 
+	 * @param other The expression object method to compare against.
+	 * @return <tt>true</tt> if both this and the other method share the same
+	 *         name.
+	 */
+	@Override
+	public boolean equals(Object other) {
+
+		return other instanceof ExpressionObjectMethod && name.equals(((ExpressionObjectMethod)other).name);
+	}
+
+	/**
+	 * Returns a hashcode based on this method data.
+	 * 
+	 * @return Method hashcode.
+	 */
+	@Override
+	public int hashCode() {
+
+		return name.hashCode();
+	}
+
+	private String fullname;
+
+	/**
+	 * Return the full name of this expression object method.
+	 * 
+	 * @return #name
+	 */
+	public String getFullName() {
+
+		if (fullname == null) {
+			fullname = "#" + name;
+		}
+		return fullname;
+	}
+
+	@javax.xml.bind.annotation.XmlTransient
+	private org.eclipse.jdt.core.IType expressionobjecttype;
+	@javax.xml.bind.annotation.XmlTransient
+	private String methodname;
+
+	/**
+	 * Return the type of the expression object this method belongs to.
+	 * 
+	 * @return Expression object type, or <tt>null</tt> if this method wasn't
+	 * 		   generated from a type in a project.
+	 */
+	public org.eclipse.jdt.core.IType getExpressionObjectType() {
+
+		return expressionobjecttype;
+	}
+
+	/**
+	 * Return the name of the Java method(s) behind this item, which differs
+	 * from the item name for Java bean properties.  For those, this is the
+	 * name of either the getter or the setter, signatures only ever being
+	 * resolved from the getter.
+	 * 
+	 * @return Java method name.
+	 */
+	public String getMethodName() {
+
+		return methodname;
+	}
+
+	/**
+	 * Set the Java method behind this item, for its signatures to be resolved
+	 * from later on.
+	 * 
+	 * @param expressionobjecttype
+	 * @param methodname
+	 */
+	public void setJavaMethod(org.eclipse.jdt.core.IType expressionobjecttype, String methodname) {
+
+		this.expressionobjecttype = expressionobjecttype;
+		this.methodname           = methodname;
+	}
 				
 }
@@ -45,20 +45,20 @@ public abstract class Processor
     extends DialectItem
 {
 
-    
-	private String fullname;
-
-	/**
-	 * Return the full name of this processor.
-	 * 
-	 * @return prefix:name
-	 */
-	public String getFullName() {
-
-		if (fullname == null) {
-			fullname = dialect.getPrefix() + ":" + name;
-		}
-		return fullname;
-	}
+    
+	private String fullname;
+
+	/**
+	 * Return the full name of this processor.
+	 * 
+	 * @return prefix:name
+	 */
+	public String getFullName() {
+
+		if (fullname == null) {
+			fullname = dialect.getPrefix() + ":" + name;
+		}
+		return fullname;
+	}
 				
 }
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.message.cache;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IJavaProject;
+import static org.eclipse.core.resources.IResourceChangeEvent.*;
+import static org.thymeleaf.extras.eclipse.CorePlugin.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * A basic in-memory store of the message keys in the
+ * <tt>messages*.properties</tt> files of each project, for completing the
+ * keys of <tt>#{...}</tt> message expressions.  A project's messages files are
+ * read once, after which only the files that change are read again.
+ * 
+ * @author Emanuel Rabina
+ */
+public class MessageCache {
+
+	private static final String MESSAGES_FILE_PREFIX    = "messages";
+	private static final String MESSAGES_FILE_EXTENSION = "properties";
+
+	private static final int MAX_PREFIX_MATCHES = 200;
+	private static final int MAX_FUZZY_MATCHES  = 50;
+
+	// Message key lookups for each project
+	private static HashMap<IJavaProject,MessageKeyIndex> messageindexes;
+
+	// Projects whose messages have been completely loaded
+	private static final Set<IJavaProject> loadedprojects =
+			Collections.synchronizedSet(new HashSet<IJavaProject>());
+
+	// Projects whose messages files are being scanned, with the messages files
+	// that changed during the scan, to be read again once it's done
+	private static final HashMap<IJavaProject,LinkedHashSet<IFile>> loadingprojects =
+			new HashMap<IJavaProject,LinkedHashSet<IFile>>();
+
+	// Keeps loaded projects up-to-date with changes to their messages files
+	private static MessageChangeListener messagechangelistener;
+
+	/**
+	 * Return the message keys in the given project that match the pattern.
+	 * Keys starting with the pattern come first, in alphabetical order, then
+	 * the best fuzzy matches.
+	 * 
+	 * @param project The current project.
+	 * @param pattern Pattern to match, see
+	 * 				  {@link org.thymeleaf.extras.eclipse.dialect.cache.NameMatcher}.
+	 * @return List of matching message keys.
+	 */
+	public static synchronized List<String> getMessageKeys(IJavaProject project, String pattern) {
+
+		loadMessagesFromProject(project);
+
+		return messageindexes.get(project).getKeys(pattern, MAX_PREFIX_MATCHES, MAX_FUZZY_MATCHES);
+	}
+
+	/**
+	 * Returns whether or not the given file is a messages file.
+	 * 
+	 * @param file
+	 * @return <tt>true</tt> if the file is named <tt>messages*.properties</tt>.
+	 */
+	static boolean isMessagesFile(IFile file) {
+
+		return file.getName().startsWith(MESSAGES_FILE_PREFIX) &&
+				MESSAGES_FILE_EXTENSION.equals(file.getFileExtension());
+	}
+
+	/**
+	 * Return whether or not the messages of the given project have been
+	 * loaded.  Doesn't wait on a load that's already underway.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if the project is in the cache.
+	 */
+	public static boolean isProjectLoaded(IJavaProject project) {
+
+		return loadedprojects.contains(project);
+	}
+
+	/**
+	 * Return whether or not the messages files of the given project are being
+	 * scanned right now.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if the project is in the middle of being loaded.
+	 */
+	static boolean isProjectLoading(IJavaProject project) {
+
+		synchronized (loadingprojects) {
+			return loadingprojects.containsKey(project);
+		}
+	}
+
+	/**
+	 * Read the keys of every messages file in the given project, if that hasn't
+	 * already been done.  Messages files that change while the project is
+	 * being scanned are read again once the scan is done.
+	 * 
+	 * @param project
+	 */
+	private static void loadMessagesFromProject(IJavaProject project) {
+
+		if (!messageindexes.containsKey(project)) {
+			synchronized (loadingprojects) {
+				loadingprojects.put(project, new LinkedHashSet<IFile>());
+			}
+
+			final ArrayList<IFile> messagesfiles = new ArrayList<IFile>();
+			try {
+				project.getProject().accept(new IResourceProxyVisitor() {
+					@Override
+					public boolean visit(IResourceProxy proxy) {
+						if (proxy.isDerived()) {
+							return false;
+						}
+						if (proxy.getType() == IResource.FILE &&
+							proxy.getName().startsWith(MESSAGES_FILE_PREFIX) &&
+							proxy.getName().endsWith("." + MESSAGES_FILE_EXTENSION)) {
+							messagesfiles.add((IFile)proxy.requestResource());
+						}
+						return true;
+					}
+				}, IResource.NONE);
+			}
+			catch (CoreException ex) {
+				logError("Unable to scan for messages files in " + project.getElementName(), ex);
+			}
+
+			MessageKeyIndex messageindex = new MessageKeyIndex();
+			for (IFile messagesfile: messagesfiles) {
+				messageindex.addFile(messagesfile.getFullPath(), readKeys(messagesfile));
+			}
+			messageindexes.put(project, messageindex);
+
+			// Catch up on the files that changed during the scan
+			LinkedHashSet<IFile> changedfiles;
+			synchronized (loadingprojects) {
+				changedfiles = loadingprojects.remove(project);
+				loadedprojects.add(project);
+			}
+			for (IFile changedfile: changedfiles) {
+				if (changedfile.exists()) {
+					messageindex.addFile(changedfile.getFullPath(), readKeys(changedfile));
+				}
+				else {
+					messageindex.removeFile(changedfile.getFullPath());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Load the messages of the given project into the cache, if they aren't
+	 * already, so that later queries don't have to.
+	 * 
+	 * @param project
+	 */
+	public static synchronized void loadProject(IJavaProject project) {
+
+		loadMessagesFromProject(project);
+	}
+
+	/**
+	 * Hold on to a messages file that changed while its project is being
+	 * loaded, to be read again once the load is done.
+	 * 
+	 * @param project
+	 * @param file
+	 * @return <tt>true</tt> if the project is being loaded and the file will
+	 * 		   be read again, <tt>false</tt> if the change should be applied
+	 * 		   now.
+	 */
+	static boolean queueChangedFile(IJavaProject project, IFile file) {
+
+		synchronized (loadingprojects) {
+			LinkedHashSet<IFile> changedfiles = loadingprojects.get(project);
+			if (changedfiles == null) {
+				return false;
+			}
+			changedfiles.add(file);
+			return true;
+		}
+	}
+
+	/**
+	 * Read the keys out of a messages file.
+	 * 
+	 * @param file
+	 * @return Set of the keys in the file, empty if it couldn't be read.
+	 */
+	static Set<String> readKeys(IFile file) {
+
+		Properties messages = new Properties();
+		try {
+			InputStream input = file.getContents();
+			try {
+				messages.load(input);
+			}
+			finally {
+				input.close();
+			}
+		}
+		catch (CoreException ex) {
+			logError("Unable to open messages file " + file.getFullPath(), ex);
+		}
+		catch (IOException ex) {
+			logError("Unable to read messages file " + file.getFullPath(), ex);
+		}
+		return messages.stringPropertyNames();
+	}
+
+	/**
+	 * Remove the messages file at the given path from a loaded project.
+	 * 
+	 * @param project
+	 * @param filepath
+	 */
+	static synchronized void removeFile(IJavaProject project, IPath filepath) {
+
+		MessageKeyIndex messageindex = messageindexes.get(project);
+		if (messageindex != null) {
+			messageindex.removeFile(filepath);
+		}
+	}
+
+	/**
+	 * Remove a project and all of its message keys from the cache.
+	 * 
+	 * @param project
+	 */
+	static synchronized void removeProject(IJavaProject project) {
+
+		loadedprojects.remove(project);
+		messageindexes.remove(project);
+	}
+
+	/**
+	 * Clear the cache and perform any other cleanup.
+	 */
+	public static void shutdown() {
+
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(messagechangelistener);
+		messagechangelistener.shutdown();
+	}
+
+	/**
+	 * Initialize the cache.
+	 */
+	public static void startup() {
+
+		messageindexes = new HashMap<IJavaProject,MessageKeyIndex>();
+
+		messagechangelistener = new MessageChangeListener();
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(messagechangelistener,
+				POST_CHANGE | PRE_CLOSE | PRE_DELETE);
+	}
+
+	/**
+	 * Add or replace the keys of a messages file in a loaded project.
+	 * 
+	 * @param project
+	 * @param filepath
+	 * @param keys
+	 */
+	static synchronized void updateFile(IJavaProject project, IPath filepath, Set<String> keys) {
+
+		MessageKeyIndex messageindex = messageindexes.get(project);
+		if (messageindex != null) {
+			messageindex.addFile(filepath, keys);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.message.cache;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import static org.eclipse.core.resources.IResourceChangeEvent.*;
+import static org.thymeleaf.extras.eclipse.CorePlugin.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A resource change listener, acting on changes made to any messages files in
+ * the projects known to the message cache, re-reading only the files that
+ * changed.  Changes to the files of a project that's still being loaded are
+ * handed to the cache to catch up on once the load is done.
+ * 
+ * @author Emanuel Rabina
+ */
+class MessageChangeListener implements IResourceChangeListener {
+
+	private final ExecutorService resourcechangeexecutor = Executors.newSingleThreadExecutor();
+
+	/**
+	 * Package-only constructor.
+	 */
+	MessageChangeListener() {
+	}
+
+	/**
+	 * When notified of a resource change, redirect the work to the change
+	 * executor thread so as to not block the event change thread.
+	 */
+	@Override
+	public void resourceChanged(final IResourceChangeEvent event) {
+
+		resourcechangeexecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+
+				switch (event.getType()) {
+
+				// If a messages file has been added, changed, or removed, update just that file
+				case POST_CHANGE:
+					try {
+						event.getDelta().accept(new IResourceDeltaVisitor() {
+							@Override
+							public boolean visit(IResourceDelta delta) {
+
+								IResource resource = delta.getResource();
+								if (resource instanceof IProject) {
+									IJavaProject project = JavaCore.create((IProject)resource);
+									return MessageCache.isProjectLoaded(project) ||
+											MessageCache.isProjectLoading(project);
+								}
+								if (resource instanceof IFile && !resource.isDerived() &&
+									MessageCache.isMessagesFile((IFile)resource)) {
+									updateMessages(delta, (IFile)resource);
+								}
+								return true;
+							}
+						});
+					}
+					catch (CoreException ex) {
+						logError("Unable to process messages file changes", ex);
+					}
+					break;
+
+				// If a project is closing/being deleted, remove its message keys
+				case PRE_CLOSE:
+				case PRE_DELETE:
+					IJavaProject project = JavaCore.create((IProject)event.getResource());
+					if (MessageCache.isProjectLoaded(project) || MessageCache.isProjectLoading(project)) {
+						MessageCache.removeProject(project);
+					}
+					break;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stops the resource change executor.
+	 */
+	void shutdown() {
+
+		resourcechangeexecutor.shutdown();
+		try {
+			if (!resourcechangeexecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+				resourcechangeexecutor.shutdownNow();
+			}
+		}
+		catch (InterruptedException ex) {
+			// Do nothing
+		}
+	}
+
+	/**
+	 * Update the message cache for a single changed messages file.
+	 * 
+	 * @param delta
+	 * @param file
+	 */
+	private static void updateMessages(IResourceDelta delta, IFile file) {
+
+		IJavaProject project = JavaCore.create(file.getProject());
+		if (delta.getKind() == IResourceDelta.CHANGED && (delta.getFlags() & IResourceDelta.CONTENT) == 0) {
+			return;
+		}
+		if (MessageCache.queueChangedFile(project, file)) {
+			return;
+		}
+
+		switch (delta.getKind()) {
+		case IResourceDelta.REMOVED:
+			MessageCache.removeFile(project, file.getFullPath());
+			break;
+
+		case IResourceDelta.ADDED:
+		case IResourceDelta.CHANGED:
+			MessageCache.updateFile(project, file.getFullPath(), MessageCache.readKeys(file));
+			break;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.message.cache;
+
+import org.eclipse.core.runtime.IPath;
+import org.thymeleaf.extras.eclipse.dialect.cache.FuzzyMatches;
+import org.thymeleaf.extras.eclipse.dialect.cache.NameMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * An index over the message keys of a project's <tt>messages*.properties</tt>
+ * files.  Each key is held only once no matter how many locale variants of a
+ * bundle define it, with a count of the files it's in so that a key only goes
+ * away when the last file defining it does.  Files can be added and removed
+ * one at a time as they change.
+ * <p>
+ * Queries are answered from a sorted array of all the keys, which is only
+ * rebuilt the first time it's needed after the set of keys has changed.  That
+ * makes prefix matches a binary search, leaving only fuzzy matches to go
+ * through every key, and those are quick to reject using the character mask
+ * worked out for each key when the array was made.
+ * 
+ * @author Emanuel Rabina
+ */
+class MessageKeyIndex {
+
+	// Keys of each messages file, so that they can be taken out again when the file changes
+	private final HashMap<IPath,String[]> filekeys = new HashMap<IPath,String[]>();
+
+	// Number of files that define each key
+	private final HashMap<String,int[]> keycounts = new HashMap<String,int[]>();
+
+	// Sorted snapshot of all keys and their character masks, null after a change
+	private String[] sortedkeys;
+	private long[] keymasks;
+
+	/**
+	 * Package-only constructor.
+	 */
+	MessageKeyIndex() {
+	}
+
+	/**
+	 * Add the keys of a messages file to this index, replacing any keys it was
+	 * added with before.
+	 * 
+	 * @param filepath
+	 * @param keys
+	 */
+	void addFile(IPath filepath, Collection<String> keys) {
+
+		removeFile(filepath);
+
+		String[] newkeys = keys.toArray(new String[keys.size()]);
+		filekeys.put(filepath, newkeys);
+		for (String key: newkeys) {
+			int[] count = keycounts.get(key);
+			if (count == null) {
+				count = new int[1];
+				keycounts.put(key, count);
+				sortedkeys = null;
+			}
+			count[0]++;
+		}
+	}
+
+	/**
+	 * Return the keys that match the given pattern: all keys starting with the
+	 * pattern, in alphabetical order, followed by the best of the keys that
+	 * only match it fuzzily.
+	 * 
+	 * @param pattern
+	 * @param maxprefixmatches Maximum number of keys starting with the pattern
+	 * 						   to return.
+	 * @param maxfuzzymatches  Maximum number of fuzzy matches to return.
+	 * @return List of matching keys.
+	 */
+	List<String> getKeys(String pattern, int maxprefixmatches, int maxfuzzymatches) {
+
+		if (sortedkeys == null) {
+			sortedkeys = keycounts.keySet().toArray(new String[keycounts.size()]);
+			Arrays.sort(sortedkeys);
+			keymasks = new long[sortedkeys.length];
+			for (int i = 0; i < sortedkeys.length; i++) {
+				keymasks[i] = NameMatcher.characterMask(sortedkeys[i]);
+			}
+		}
+
+		// Keys starting with the pattern are all together in the sorted array
+		int prefixstart = Arrays.binarySearch(sortedkeys, pattern);
+		if (prefixstart < 0) {
+			prefixstart = -prefixstart - 1;
+		}
+		int prefixend = prefixstart;
+		while (prefixend < sortedkeys.length && sortedkeys[prefixend].startsWith(pattern)) {
+			prefixend++;
+		}
+
+		ArrayList<String> matchedkeys = new ArrayList<String>();
+		for (int i = prefixstart; i < prefixend && matchedkeys.size() < maxprefixmatches; i++) {
+			matchedkeys.add(sortedkeys[i]);
+		}
+		if (pattern.length() == 0) {
+			return matchedkeys;
+		}
+
+		// Keep only the best fuzzy matches from the rest
+		NameMatcher matcher = new NameMatcher(pattern);
+		FuzzyMatches fuzzymatches = new FuzzyMatches(maxfuzzymatches);
+		for (int i = 0; i < sortedkeys.length; i++) {
+			if (i == prefixstart && prefixend > prefixstart) {
+				i = prefixend - 1;
+				continue;
+			}
+			int score = matcher.score(sortedkeys[i], keymasks[i]);
+			if (score != NameMatcher.NO_MATCH) {
+				fuzzymatches.add(i, score);
+			}
+		}
+
+		for (int index: fuzzymatches.getBestIndices()) {
+			matchedkeys.add(sortedkeys[index]);
+		}
+		return matchedkeys;
+	}
+
+	/**
+	 * Take the keys of a messages file out of this index.
+	 * 
+	 * @param filepath
+	 */
+	void removeFile(IPath filepath) {
+
+		String[] oldkeys = filekeys.remove(filepath);
+		if (oldkeys != null) {
+			for (String key: oldkeys) {
+				int[] count = keycounts.get(key);
+				if (--count[0] == 0) {
+					keycounts.remove(key);
+					sortedkeys = null;
+				}
+			}
+		}
+	}
+}
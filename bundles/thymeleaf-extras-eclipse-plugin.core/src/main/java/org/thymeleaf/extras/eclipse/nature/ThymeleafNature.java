@@ -21,6 +21,7 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.IProjectNature;
 import org.eclipse.core.runtime.CoreException;
+import org.thymeleaf.extras.eclipse.builder.HtmlValidatorSettings;
 
 /**
  * Configures a project that has been given the Thymeleaf nature.
@@ -72,6 +73,9 @@ public class ThymeleafNature implements IProjectNature {
 		System.arraycopy(commands, thymeleafbuilderindex + 1, newcommands, thymeleafbuilderindex, newcommands.length - thymeleafbuilderindex);
 		description.setBuildSpec(newcommands);
 		project.setDescription(description, null);
+
+		// Stop ignoring the attribute names of Thymeleaf processors
+		HtmlValidatorSettings.removeIgnoredAttributeNames(project);
 	}
 
 	/**
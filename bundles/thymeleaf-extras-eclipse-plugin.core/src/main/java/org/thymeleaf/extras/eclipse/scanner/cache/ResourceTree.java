@@ -22,6 +22,7 @@ import org.eclipse.jdt.core.IJavaProject;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Generic representation of resources in a developer's workspace, divided-up by
@@ -80,6 +81,16 @@ public class ResourceTree<T> {
 		return projects.containsKey(project);
 	}
 
+	/**
+	 * Return all of the projects known to this tree.
+	 * 
+	 * @return Set of projects in this tree.
+	 */
+	public Set<IJavaProject> getProjects() {
+
+		return projects.keySet();
+	}
+
 	/**
 	 * Retrieves all of the resources associated with the given project.
 	 * 
@@ -90,4 +101,28 @@ public class ResourceTree<T> {
 
 		return projects.get(project).getResources();
 	}
+
+	/**
+	 * Removes a project and all of its resources from the tree.
+	 * 
+	 * @param project
+	 */
+	public void removeProject(IJavaProject project) {
+
+		projects.remove(project);
+	}
+
+	/**
+	 * Removes the resource at the given path from a project in the tree.
+	 * 
+	 * @param project
+	 * @param resourcepath The path to the resource.
+	 */
+	public void removeResourceFromProject(IJavaProject project, IPath resourcepath) {
+
+		ResourceProject<T> resourceproject = projects.get(project);
+		if (resourceproject != null) {
+			resourceproject.removeResource(resourcepath);
+		}
+	}
 }
@@ -23,22 +23,36 @@ import org.attoparser.markup.html.AbstractStandardNonValidatingHtmlAttoHandler;
 import org.attoparser.markup.html.HtmlParsing;
 import org.attoparser.markup.html.HtmlParsingConfiguration;
 import org.attoparser.markup.html.elements.IHtmlElement;
+import org.eclipse.core.runtime.IPath;
+import org.thymeleaf.extras.eclipse.template.model.Fragment;
+import org.thymeleaf.extras.eclipse.template.model.FragmentReference;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Constructs a DOM of an HTML file as an AttoParser handler.
+ * Constructs a DOM of an HTML file as an AttoParser handler.  When given the
+ * path to the file, also collects the fragments declared in it and any
+ * references to other templates and fragments made through the fragment
+ * inclusion attributes, along with where they are in the file.
  * 
  * @author Emanuel Rabina
  */
 public class DOMHtmlAttoHandler extends AbstractStandardNonValidatingHtmlAttoHandler {
 
+	private static final String FRAGMENT_ATTRIBUTE      = "th:fragment";
+	private static final String DATA_FRAGMENT_ATTRIBUTE = "data-th-fragment";
+
 	private final String documentname;
+	private final IPath filepath;
 	private Document document;
 	private Element currentelement;
 	private Deque<INestableNode> nestednodestack = new ArrayDeque<INestableNode>();
+	private final ArrayList<Fragment> fragments = new ArrayList<Fragment>();
+	private final ArrayList<FragmentReference> fragmentreferences = new ArrayList<FragmentReference>();
 
 	/**
 	 * Constructor, create a handler for lenient HTML operations.
@@ -49,6 +63,65 @@ public class DOMHtmlAttoHandler extends AbstractStandardNonValidatingHtmlAttoHan
 
 		super(HtmlParsing.htmlParsingConfiguration());
 		this.documentname = documentname;
+		this.filepath     = null;
+	}
+
+	/**
+	 * Constructor, create a handler for lenient HTML operations that also
+	 * collects fragment references.
+	 * 
+	 * @param filepath Path to the file being parsed.
+	 */
+	public DOMHtmlAttoHandler(IPath filepath) {
+
+		super(HtmlParsing.htmlParsingConfiguration());
+		this.documentname = filepath.lastSegment();
+		this.filepath     = filepath;
+	}
+
+	/**
+	 * Record any fragment declaration in the attributes of an element.
+	 * 
+	 * @param attributes
+	 * @param line
+	 * @param col
+	 * @throws IllegalArgumentException If the fragment spec is invalid.
+	 */
+	private void findFragments(Map<String,String> attributes, int line, int col) {
+
+		if (filepath == null || attributes == null) {
+			return;
+		}
+		String fragmentspec = attributes.get(FRAGMENT_ATTRIBUTE);
+		if (fragmentspec == null) {
+			fragmentspec = attributes.get(DATA_FRAGMENT_ATTRIBUTE);
+		}
+		if (fragmentspec != null) {
+			fragments.add(new Fragment(fragmentspec, line, col));
+		}
+	}
+
+	/**
+	 * Record any fragment references in the attributes of an element.
+	 * 
+	 * @param attributes
+	 * @param line
+	 * @param col
+	 */
+	private void findFragmentReferences(Map<String,String> attributes, int line, int col) {
+
+		if (filepath == null || attributes == null) {
+			return;
+		}
+		for (Map.Entry<String,String> attribute: attributes.entrySet()) {
+			if (FragmentReference.isFragmentInclusionAttribute(attribute.getKey())) {
+				FragmentReference reference = FragmentReference.fromAttributeValue(filepath, line, col,
+						attribute.getValue());
+				if (reference != null) {
+					fragmentreferences.add(reference);
+				}
+			}
+		}
 	}
 
 	/**
@@ -61,6 +134,28 @@ public class DOMHtmlAttoHandler extends AbstractStandardNonValidatingHtmlAttoHan
 		return document;
 	}
 
+	/**
+	 * Return the fragments declared in an HTML file, in the order they appear.
+	 * 
+	 * @return List of fragments, empty if the handler wasn't given the path to
+	 * 		   the file.
+	 */
+	public List<Fragment> getFragments() {
+
+		return fragments;
+	}
+
+	/**
+	 * Return the fragment references found while parsing an HTML file.
+	 * 
+	 * @return List of fragment references, empty if the handler wasn't given
+	 * 		   the path to the file.
+	 */
+	public List<FragmentReference> getFragmentReferences() {
+
+		return fragmentreferences;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -131,6 +226,8 @@ public class DOMHtmlAttoHandler extends AbstractStandardNonValidatingHtmlAttoHan
 		Element element = new Element(elementName);
 		element.addAttributes(attributes);
 		nestednodestack.push(element);
+		findFragments(attributes, line, col);
+		findFragmentReferences(attributes, line, col);
 
 		currentelement = element;
 	}
@@ -145,6 +242,8 @@ public class DOMHtmlAttoHandler extends AbstractStandardNonValidatingHtmlAttoHan
 		Element element = new Element(elementName);
 		element.addAttributes(attributes);
 		currentelement.addChild(element);
+		findFragments(attributes, line, col);
+		findFragmentReferences(attributes, line, col);
 	}
 
 	/**
@@ -28,13 +28,16 @@ import org.thymeleaf.extras.eclipse.scanner.ResourceLocator;
 import static org.thymeleaf.extras.eclipse.CorePlugin.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Locates Thymeleaf templates in the current project.  Basically, all HTML
@@ -45,6 +48,7 @@ import java.util.concurrent.TimeUnit;
 public class ProjectTemplateLocator implements ResourceLocator<IFile> {
 
 	private static final String HTML_FILE_EXTENSION = ".html";
+	private static final int QUEUE_OFFER_TIMEOUT    = 100;
 
 	private final IJavaProject project;
 	private final ArrayList<IPath> templatefilepaths = new ArrayList<IPath>();
@@ -61,8 +65,10 @@ public class ProjectTemplateLocator implements ResourceLocator<IFile> {
 
 	/**
 	 * Returns a list of paths to each of the templates located after a run of
-	 * {@link #locateResources}.  The order of the list of paths matches the
-	 * list of templates they point to.
+	 * {@link #locateResources}, in the order the scan found them.  Templates
+	 * are loaded in parallel so this doesn't match the order of the loaded
+	 * templates, which should instead be matched to these paths using
+	 * {@link org.thymeleaf.extras.eclipse.template.model.Template#getFilePath()}.
 	 * 
 	 * @return List of paths to each of the templates found.
 	 */
@@ -77,6 +83,25 @@ public class ProjectTemplateLocator implements ResourceLocator<IFile> {
 	@Override
 	public List<IFile> locateResources() {
 
+		return locateResources(null, null);
+	}
+
+	/**
+	 * Locates templates as with {@link #locateResources()}, but also hands each
+	 * template over to the given queue as soon as it is found so that the
+	 * templates can be processed while scanning is still taking place.
+	 * 
+	 * @param templatequeue	 Queue to place each template file on as it is
+	 * 						 found, or <tt>null</tt> to only return the
+	 * 						 complete list.
+	 * @param activeconsumers Number of consumers still taking files off the
+	 * 						 queue.  Once there are none left, files are no
+	 * 						 longer placed on the queue rather than waiting
+	 * 						 for space on it forever.
+	 * @return List of all the template files found.
+	 */
+	public List<IFile> locateResources(BlockingQueue<IFile> templatequeue, AtomicInteger activeconsumers) {
+
 		logInfo("Scanning for Thymeleaf templates in the project");
 		long start = System.currentTimeMillis();
 
@@ -84,15 +109,18 @@ public class ProjectTemplateLocator implements ResourceLocator<IFile> {
 		final ArrayList<IFile> templatestreams = new ArrayList<IFile>();
 
 		try {
-			// Multi-threaded search for template files - there can be a lot of files to get through
-			ArrayList<Future<List<IFile>>> scannertasks = new ArrayList<Future<List<IFile>>>();
+			// Multi-threaded search for template files - there can be a lot of files to get through.
+			// Scanning tasks add more tasks to the list as they find folders, so the list
+			// is traversed by index to pick those up too.
+			List<Future<List<IFile>>> scannertasks =
+					Collections.synchronizedList(new ArrayList<Future<List<IFile>>>());
 
-			scanContainer(project.getProject(), scannertasks, executorservice);
+			scanContainer(project.getProject(), scannertasks, executorservice, templatequeue, activeconsumers);
 
 			// Collect all file results
-			for (Future<List<IFile>> scannertask: scannertasks) {
+			for (int i = 0; i < scannertasks.size(); i++) {
 				try {
-					for (IFile file: scannertask.get()) {
+					for (IFile file: scannertasks.get(i).get()) {
 						templatestreams.add(file);
 						templatefilepaths.add(file.getFullPath());
 					}
@@ -121,6 +149,26 @@ public class ProjectTemplateLocator implements ResourceLocator<IFile> {
 		return templatestreams;
 	}
 
+	/**
+	 * Place a template file on the queue, waiting for space on it for only as
+	 * long as there are consumers around to make that space.
+	 * 
+	 * @param file
+	 * @param templatequeue
+	 * @param activeconsumers
+	 * @throws InterruptedException
+	 */
+	private static void queueTemplate(IFile file, BlockingQueue<IFile> templatequeue,
+		AtomicInteger activeconsumers) throws InterruptedException {
+
+		while (!templatequeue.offer(file, QUEUE_OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+			if (activeconsumers != null && activeconsumers.get() == 0) {
+				logError("No template parsers left to take " + file.getName() + " off the queue", null);
+				return;
+			}
+		}
+	}
+
 	/**
 	 * Recursive scan of a container resource (currently only folders and
 	 * projects), searches for files to load.
@@ -128,9 +176,12 @@ public class ProjectTemplateLocator implements ResourceLocator<IFile> {
 	 * @param container
 	 * @param scannertasks
 	 * @param executorservice
+	 * @param templatequeue
+	 * @param activeconsumers
 	 */
 	private static void scanContainer(final IContainer container,
-		final ArrayList<Future<List<IFile>>> scannertasks, final ExecutorService executorservice) {
+		final List<Future<List<IFile>>> scannertasks, final ExecutorService executorservice,
+		final BlockingQueue<IFile> templatequeue, final AtomicInteger activeconsumers) {
 
 		// Projects and folders
 		if (container instanceof IProject || container instanceof IFolder) {
@@ -143,7 +194,8 @@ public class ProjectTemplateLocator implements ResourceLocator<IFile> {
 
 						// Recurse folder scanning
 						if (resource instanceof IContainer) {
-							scanContainer((IContainer)resource, scannertasks, executorservice);
+							scanContainer((IContainer)resource, scannertasks, executorservice,
+									templatequeue, activeconsumers);
 						}
 
 						// Accept files
@@ -151,6 +203,9 @@ public class ProjectTemplateLocator implements ResourceLocator<IFile> {
 							IFile file = (IFile)resource;
 							if (file.getName().endsWith(HTML_FILE_EXTENSION)) {
 								files.add(file);
+								if (templatequeue != null) {
+									queueTemplate(file, templatequeue, activeconsumers);
+								}
 							}
 						}
 					}
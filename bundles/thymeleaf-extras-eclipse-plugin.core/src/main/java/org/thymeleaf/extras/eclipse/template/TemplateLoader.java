@@ -20,58 +20,423 @@ import org.attoparser.AttoParseException;
 import org.attoparser.markup.MarkupAttoParser;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.thymeleaf.extras.eclipse.scanner.ResourceLoader;
 import org.thymeleaf.extras.eclipse.template.model.Template;
 import static org.thymeleaf.extras.eclipse.CorePlugin.*;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Creates template metadata for any templates picked out by a template locator.
+ * Templates are parsed by a pool of workers while the locator is still
+ * scanning the project, so that discovery and parsing overlap.  Templates
+ * without any fragment declarations or references in them skip the HTML
+ * parser entirely, as do templates that haven't changed since they were last
+ * loaded.
  * 
  * @author Emanuel Rabina
  */
 public class TemplateLoader implements ResourceLoader<IFile, ProjectTemplateLocator, Template> {
 
-	private static final MarkupAttoParser parser = new MarkupAttoParser();
+	private static final int TEMPLATE_QUEUE_SIZE  = 256;
+	private static final int QUEUE_POLL_TIMEOUT   = 50;
+	private static final int INITIAL_BUFFER_SIZE  = 8192;
+
+	// Names of the fragment declaration and inclusion attributes, after their
+	// th: or data-th- prefix
+	private static final String[] FRAGMENT_KEYWORDS = {
+		":fragment", ":include", ":insert", ":replace", ":substituteby",
+		"-fragment", "-include", "-insert", "-replace", "-substituteby"
+	};
+	private static final byte[][] FRAGMENT_KEYWORDS_BYTES = new byte[FRAGMENT_KEYWORDS.length][];
+	private static final int[][]  FRAGMENT_KEYWORDS_SKIPS = new int[FRAGMENT_KEYWORDS.length][256];
+
+	// Lower case of each ASCII byte, for matching the keywords in any case
+	private static final byte[] LOWER_CASE_BYTES = new byte[256];
+	static {
+		for (int b = 0; b < LOWER_CASE_BYTES.length; b++) {
+			LOWER_CASE_BYTES[b] = (byte)(b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b);
+		}
+		for (int k = 0; k < FRAGMENT_KEYWORDS.length; k++) {
+			String keyword = FRAGMENT_KEYWORDS[k];
+			byte[] keywordbytes = new byte[keyword.length()];
+			for (int i = 0; i < keywordbytes.length; i++) {
+				keywordbytes[i] = (byte)keyword.charAt(i);
+			}
+			int last = keywordbytes.length - 1;
+			Arrays.fill(FRAGMENT_KEYWORDS_SKIPS[k], keywordbytes.length);
+			for (int i = 0; i < last; i++) {
+				FRAGMENT_KEYWORDS_SKIPS[k][keywordbytes[i] & 0xff] = last - i;
+				FRAGMENT_KEYWORDS_SKIPS[k][Character.toUpperCase(keyword.charAt(i)) & 0xff] = last - i;
+			}
+			FRAGMENT_KEYWORDS_BYTES[k] = keywordbytes;
+		}
+	}
+
+	// Modification stamps of template files known to have no fragment declarations or references
+	private final ConcurrentHashMap<IPath,Long> nofragmentstamps = new ConcurrentHashMap<IPath,Long>();
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
+	@SuppressWarnings("unchecked")
 	public List<Template> loadResources(ProjectTemplateLocator locator) {
 
-		ArrayList<Template> templates = new ArrayList<Template>();
-		for (IFile file: locator.locateResources()) {
-			BufferedReader reader = null;
+		return loadResources(locator, Collections.EMPTY_MAP);
+	}
+
+	/**
+	 * Loads all of the templates from the given locator, reusing any of the
+	 * given previously-loaded templates whose files haven't been modified
+	 * since.
+	 * 
+	 * @param locator
+	 * @param previoustemplates Templates from an earlier load, by file path.
+	 * @return List of templates picked out by the locator.
+	 */
+	public List<Template> loadResources(ProjectTemplateLocator locator,
+		Map<IPath,Template> previoustemplates) {
+
+		logInfo("Loading Thymeleaf templates in the project");
+		long start = System.currentTimeMillis();
+
+		BlockingQueue<IFile> templatequeue = new ArrayBlockingQueue<IFile>(TEMPLATE_QUEUE_SIZE);
+		AtomicBoolean scanningcomplete = new AtomicBoolean(false);
+		List<Template> templates = Collections.synchronizedList(new ArrayList<Template>());
+
+		int numworkers = Runtime.getRuntime().availableProcessors();
+		AtomicInteger activeworkers = new AtomicInteger(numworkers);
+		ExecutorService executorservice = Executors.newFixedThreadPool(numworkers);
+
+		try {
+			ArrayList<Future<Void>> parsertasks = new ArrayList<Future<Void>>();
+			for (int i = 0; i < numworkers; i++) {
+				parsertasks.add(executorservice.submit(
+						new TemplateParserTask(templatequeue, scanningcomplete, activeworkers, templates,
+								previoustemplates, nofragmentstamps)));
+			}
+
+			// Scan for templates on this thread, the parser tasks picking them up
+			// off the queue as they are found
+			try {
+				locator.locateResources(templatequeue, activeworkers);
+			}
+			finally {
+				scanningcomplete.set(true);
+			}
+
+			// Wait for the parser tasks to drain the queue
+			for (Future<Void> parsertask: parsertasks) {
+				try {
+					parsertask.get();
+				}
+				catch (ExecutionException ex) {
+					logError("Unable to execute template parsing task", ex);
+				}
+				catch (InterruptedException ex) {
+					logError("Unable to execute template parsing task", ex);
+				}
+			}
+		}
+		finally {
+			executorservice.shutdown();
+			try {
+				if (!executorservice.awaitTermination(5, TimeUnit.SECONDS)) {
+					executorservice.shutdownNow();
+				}
+			}
+			catch (InterruptedException ex) {
+				throw new RuntimeException(ex);
+			}
+		}
+
+		logInfo("Loading complete.  Execution time: " + (System.currentTimeMillis() - start) + "ms");
+		return templates;
+	}
+
+
+	/**
+	 * Search the raw bytes of a template for any of the fragment keywords,
+	 * which appear in the <tt>th:fragment</tt> attribute and the fragment
+	 * inclusion attributes (and their <tt>data-th-</tt> forms).  Uses a
+	 * Horspool search so that most bytes are skipped over rather than compared.
+	 * HTML attribute names aren't case sensitive, so neither is the search.
+	 * 
+	 * @param bytes
+	 * @param length Number of bytes in the buffer that belong to the template.
+	 * @return <tt>true</tt> if any of the keywords appear in the bytes.
+	 */
+	private static boolean containsFragmentKeyword(byte[] bytes, int length) {
+
+		for (int k = 0; k < FRAGMENT_KEYWORDS_BYTES.length; k++) {
+			byte[] keywordbytes = FRAGMENT_KEYWORDS_BYTES[k];
+			int[] keywordskips = FRAGMENT_KEYWORDS_SKIPS[k];
+
+			int last = keywordbytes.length - 1;
+			int position = 0;
+			while (position <= length - keywordbytes.length) {
+				int i = last;
+				while (LOWER_CASE_BYTES[bytes[position + i] & 0xff] == keywordbytes[i]) {
+					if (i == 0) {
+						return true;
+					}
+					i--;
+				}
+				position += keywordskips[bytes[position + last] & 0xff];
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Loads a single template file, as for when a template has changed.
+	 * 
+	 * @param file
+	 * @return Template model of the file, or <tt>null</tt> if the file could
+	 * 		   not be read.
+	 */
+	@SuppressWarnings("unchecked")
+	public Template loadResource(IFile file) {
+
+		return new TemplateParser(nofragmentstamps).loadTemplate(file, Collections.EMPTY_MAP);
+	}
+
+	/**
+	 * A worker in the template loading pipeline, takes template files off the
+	 * queue and parses them until scanning is complete and the queue is empty.
+	 * Each worker has its own parser so that nothing is shared between threads.
+	 */
+	private static class TemplateParserTask implements Callable<Void> {
+
+		private final BlockingQueue<IFile> templatequeue;
+		private final AtomicBoolean scanningcomplete;
+		private final AtomicInteger activeworkers;
+		private final List<Template> templates;
+		private final Map<IPath,Template> previoustemplates;
+		private final TemplateParser templateparser;
+
+		/**
+		 * Constructor, set the queue to work from and the list to place the
+		 * results into.
+		 * 
+		 * @param templatequeue
+		 * @param scanningcomplete
+		 * @param activeworkers	   Count of running workers, which this worker
+		 * 						   takes itself out of when it stops.
+		 * @param templates
+		 * @param previoustemplates
+		 * @param nofragmentstamps
+		 */
+		private TemplateParserTask(BlockingQueue<IFile> templatequeue, AtomicBoolean scanningcomplete,
+			AtomicInteger activeworkers, List<Template> templates, Map<IPath,Template> previoustemplates,
+			ConcurrentHashMap<IPath,Long> nofragmentstamps) {
+
+			this.templatequeue     = templatequeue;
+			this.scanningcomplete  = scanningcomplete;
+			this.activeworkers     = activeworkers;
+			this.templates         = templates;
+			this.previoustemplates = previoustemplates;
+			this.templateparser    = new TemplateParser(nofragmentstamps);
+		}
+
+		/**
+		 * Parse template files until there are none left.  A failure in any one
+		 * template is logged and skipped so that the worker keeps going.
+		 * 
+		 * @return <tt>null</tt>
+		 * @throws InterruptedException
+		 */
+		@Override
+		public Void call() throws InterruptedException {
+
 			try {
-				reader = new BufferedReader(new InputStreamReader(file.getContents()));
-				DOMHtmlAttoHandler handler = new DOMHtmlAttoHandler(file.getName());
-				parser.parse(reader, handler);
-				templates.add(new Template(handler.getDocument()));
+				while (true) {
+					IFile file = templatequeue.poll(QUEUE_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+					if (file != null) {
+						try {
+							Template template = templateparser.loadTemplate(file, previoustemplates);
+							if (template != null) {
+								templates.add(template);
+							}
+						}
+						catch (RuntimeException ex) {
+							logError("Unable to load template file " + file.getName(), ex);
+						}
+					}
+					else if (scanningcomplete.get() && templatequeue.isEmpty()) {
+						break;
+					}
+				}
+			}
+			finally {
+				activeworkers.decrementAndGet();
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Reads and parses template files.  Each parser has its own HTML parser and
+	 * read buffers, so that the buffers are reused between templates, and so
+	 * it must only be used by one thread at a time.
+	 */
+	private static class TemplateParser {
+
+		private final ConcurrentHashMap<IPath,Long> nofragmentstamps;
+
+		private final MarkupAttoParser parser = new MarkupAttoParser();
+		private byte[] bytebuffer = new byte[INITIAL_BUFFER_SIZE];
+		private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+
+		/**
+		 * Constructor, set the record of templates known to have no fragments.
+		 * 
+		 * @param nofragmentstamps
+		 */
+		private TemplateParser(ConcurrentHashMap<IPath,Long> nofragmentstamps) {
+
+			this.nofragmentstamps = nofragmentstamps;
+		}
+
+		/**
+		 * Read and parse a single template file.  Previously-loaded templates
+		 * whose files haven't changed are returned as-is.  Files whose bytes don't
+		 * contain any of the fragment keywords aren't parsed, and that result is
+		 * remembered against the file's modification stamp so that the file
+		 * isn't read again until it changes.
+		 * 
+		 * @param file
+		 * @param previoustemplates Templates from an earlier load, by file path.
+		 * @return Template model of the file, or <tt>null</tt> if the file could
+		 * 		   not be read.
+		 */
+		private Template loadTemplate(IFile file, Map<IPath,Template> previoustemplates) {
+
+			IPath filepath = file.getFullPath();
+			long modificationstamp = file.getModificationStamp();
+			Template previoustemplate = previoustemplates.get(filepath);
+			if (previoustemplate != null && previoustemplate.getModificationStamp() == modificationstamp) {
+				return previoustemplate;
+			}
+			Long nofragmentstamp = nofragmentstamps.get(filepath);
+			if (nofragmentstamp != null && nofragmentstamp == modificationstamp) {
+				return new Template(filepath, modificationstamp);
+			}
+
+			InputStream inputstream = null;
+			try {
+				inputstream = file.getContents();
+				int bytelength = readTemplateBytes(inputstream);
+
+				// The pre-check is only valid for encodings where the keywords are
+				// just their ASCII bytes, otherwise go straight to parsing
+				String charset = file.getCharset();
+				if (Arrays.equals(FRAGMENT_KEYWORDS[0].getBytes(charset), FRAGMENT_KEYWORDS_BYTES[0]) &&
+					!containsFragmentKeyword(bytebuffer, bytelength)) {
+					nofragmentstamps.put(filepath, modificationstamp);
+					return new Template(filepath, modificationstamp);
+				}
+				nofragmentstamps.remove(filepath);
+
+				int length = readTemplate(new InputStreamReader(
+						new ByteArrayInputStream(bytebuffer, 0, bytelength), charset));
+
+				DOMHtmlAttoHandler handler = new DOMHtmlAttoHandler(filepath);
+				parser.parse(buffer, 0, length, handler);
+				return new Template(filepath, modificationstamp, handler.getFragments(),
+						handler.getFragmentReferences());
 			}
 			catch (CoreException ex) {
 				logError("File " + file.getName() + " could not be read", ex);
 			}
+			catch (UnsupportedEncodingException ex) {
+				logError("File " + file.getName() + " uses an unsupported encoding", ex);
+			}
+			catch (IOException ex) {
+				logError("File " + file.getName() + " could not be read", ex);
+			}
 			catch (AttoParseException ex) {
 				logError("Error reading the template file", ex);
 			}
+			catch (IllegalArgumentException ex) {
+				logError("Template file " + file.getName() + " contains an invalid fragment", ex);
+			}
 			finally {
 				try {
-					if (reader != null) {
-						reader.close();
+					if (inputstream != null) {
+						inputstream.close();
 					}
 				}
 				catch (IOException ex) {
 					logError("Unable to close the template file input stream", ex);
 				}
 			}
+			return null;
 		}
 
-		return templates;
+		/**
+		 * Read the raw bytes of a template into this parser's byte buffer,
+		 * growing the buffer if necessary.
+		 * 
+		 * @param inputstream
+		 * @return Number of bytes read into the buffer.
+		 * @throws IOException
+		 */
+		private int readTemplateBytes(InputStream inputstream) throws IOException {
+
+			int length = 0;
+			int read;
+			while ((read = inputstream.read(bytebuffer, length, bytebuffer.length - length)) != -1) {
+				length += read;
+				if (length == bytebuffer.length) {
+					bytebuffer = Arrays.copyOf(bytebuffer, bytebuffer.length * 2);
+				}
+			}
+			return length;
+		}
+
+		/**
+		 * Decode the whole of a template into this parser's buffer, growing the
+		 * buffer if necessary.
+		 * 
+		 * @param reader
+		 * @return Number of characters read into the buffer.
+		 * @throws IOException
+		 */
+		private int readTemplate(Reader reader) throws IOException {
+
+			int length = 0;
+			int read;
+			while ((read = reader.read(buffer, length, buffer.length - length)) != -1) {
+				length += read;
+				if (length == buffer.length) {
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				}
+			}
+			return length;
+		}
 	}
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.template.cache;
+
+import org.eclipse.core.runtime.IPath;
+import org.thymeleaf.extras.eclipse.template.model.Fragment;
+import org.thymeleaf.extras.eclipse.template.model.Template;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * A two-level index over the templates of a project, for quick prefix lookups
+ * of template names, then of the fragment names within a template.
+ * 
+ * @author Emanuel Rabina
+ */
+class FragmentIndex {
+
+	// Folder names under which template names are usually resolved from
+	private static final String[] TEMPLATE_ROOT_FOLDERS = { "templates", "views", "WEB-INF", "webapp" };
+
+	// Templates by the name they're referenced by.  Templates that resolve to
+	// the same name (eg: a copy in a build output folder) share an entry.
+	private final TreeMap<String,ArrayList<Template>> templates = new TreeMap<String,ArrayList<Template>>();
+
+	/**
+	 * Package-only constructor, index the given templates.
+	 * 
+	 * @param templates
+	 */
+	FragmentIndex(Collection<Template> templates) {
+
+		for (Template template: templates) {
+			addTemplate(template);
+		}
+	}
+
+	/**
+	 * Add a template and its fragments to this index.
+	 * 
+	 * @param template
+	 */
+	void addTemplate(Template template) {
+
+		String templatename = templateName(template.getFilePath());
+		ArrayList<Template> namedtemplates = templates.get(templatename);
+		if (namedtemplates == null) {
+			namedtemplates = new ArrayList<Template>();
+			templates.put(templatename, namedtemplates);
+		}
+		namedtemplates.add(template);
+	}
+
+	/**
+	 * Return the fragments of the named template whose names start with the
+	 * given pattern.
+	 * 
+	 * @param templatename
+	 * @param pattern
+	 * @return List of matching fragments, in name order.
+	 */
+	List<Fragment> getFragments(String templatename, String pattern) {
+
+		TreeMap<String,Fragment> matchedfragments = new TreeMap<String,Fragment>();
+		ArrayList<Template> namedtemplates = templates.get(templatename);
+		if (namedtemplates != null) {
+			for (Template template: namedtemplates) {
+				for (Fragment fragment: template.getFragments()) {
+					if (fragment.getName().startsWith(pattern)) {
+						matchedfragments.put(fragment.getName(), fragment);
+					}
+				}
+			}
+		}
+		return new ArrayList<Fragment>(matchedfragments.values());
+	}
+
+	/**
+	 * Return the names of all templates that start with the given pattern.
+	 * 
+	 * @param pattern
+	 * @return List of matching template names, in name order.
+	 */
+	List<String> getTemplateNames(String pattern) {
+
+		ArrayList<String> templatenames = new ArrayList<String>();
+		for (String templatename: templates.tailMap(pattern).keySet()) {
+			if (!templatename.startsWith(pattern)) {
+				break;
+			}
+			templatenames.add(templatename);
+		}
+		return templatenames;
+	}
+
+	/**
+	 * Return the templates that go by the given name.
+	 * 
+	 * @param templatename
+	 * @return List of templates with that name.
+	 */
+	@SuppressWarnings("unchecked")
+	List<Template> getTemplates(String templatename) {
+
+		ArrayList<Template> namedtemplates = templates.get(templatename);
+		return namedtemplates != null ? namedtemplates : Collections.EMPTY_LIST;
+	}
+
+	/**
+	 * Remove the template at the given path and its fragments from this index.
+	 * 
+	 * @param templatefilepath
+	 */
+	void removeTemplate(IPath templatefilepath) {
+
+		String templatename = templateName(templatefilepath);
+		ArrayList<Template> namedtemplates = templates.get(templatename);
+		if (namedtemplates == null) {
+			return;
+		}
+
+		for (int i = 0; i < namedtemplates.size(); i++) {
+			Template template = namedtemplates.get(i);
+			if (template.getFilePath().equals(templatefilepath)) {
+				namedtemplates.remove(i);
+				break;
+			}
+		}
+		if (namedtemplates.isEmpty()) {
+			templates.remove(templatename);
+		}
+	}
+
+	/**
+	 * Work out the name a template would be referred to by from other
+	 * templates.  This is the path to the template, without the file
+	 * extension, from the last template root folder (eg: <tt>templates/</tt>)
+	 * in the path, or from the project if there is no such folder.
+	 * 
+	 * @param templatefilepath
+	 * @return Name of the template.
+	 */
+	static String templateName(IPath templatefilepath) {
+
+		String[] segments = templatefilepath.removeFileExtension().segments();
+
+		int start = 1;
+		search: for (int i = segments.length - 2; i >= 1; i--) {
+			for (String templaterootfolder: TEMPLATE_ROOT_FOLDERS) {
+				if (segments[i].equals(templaterootfolder)) {
+					start = i + 1;
+					break search;
+				}
+			}
+		}
+
+		StringBuilder templatename = new StringBuilder();
+		for (int i = start; i < segments.length; i++) {
+			if (i > start) {
+				templatename.append('/');
+			}
+			templatename.append(segments[i]);
+		}
+		return templatename.toString();
+	}
+}
@@ -16,6 +16,9 @@
 
 package org.thymeleaf.extras.eclipse.template.cache;
 
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.IJavaProject;
 import org.thymeleaf.extras.eclipse.scanner.cache.ResourceTree;
@@ -23,9 +26,17 @@ import org.thymeleaf.extras.eclipse.template.ProjectTemplateLocator;
 import org.thymeleaf.extras.eclipse.template.TemplateLoader;
 import org.thymeleaf.extras.eclipse.template.model.Fragment;
 import org.thymeleaf.extras.eclipse.template.model.Template;
+import static org.eclipse.core.resources.IResourceChangeEvent.*;
+import static org.thymeleaf.extras.eclipse.CorePlugin.*;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * A basic in-memory store of all known template fragments per project.
@@ -39,13 +50,27 @@ public class TemplateCache {
 	// Tree structure of all fragments in the user's workspace
 	private static ResourceTree<Template> fragmenttree;
 
+	// Template and fragment name lookups for each project
+	private static HashMap<IJavaProject,FragmentIndex> fragmentindexes;
+
+	// Projects whose templates have been completely loaded
+	private static final Set<IJavaProject> loadedprojects =
+			Collections.synchronizedSet(new HashSet<IJavaProject>());
+
+	// Templates saved from the last session, by project name, for projects
+	// that haven't been loaded yet in this one
+	private static HashMap<String,HashMap<IPath,Template>> savedtemplates;
+
+	// Keeps loaded projects up-to-date with changes to their templates
+	private static TemplateChangeListener templatechangelistener;
+
 	/**
 	 * Return all of the fragments in the given project.
 	 * 
 	 * @param project The current project.
 	 * @return List of fragments in the project.
 	 */
-	public static List<Fragment> getFragments(IJavaProject project) {
+	public static synchronized List<Fragment> getFragments(IJavaProject project) {
 
 		loadTemplatesFromProject(project);
 
@@ -56,30 +81,161 @@ public class TemplateCache {
 		return fragments;
 	}
 
+	/**
+	 * Return the fragments in the named template whose names start with the
+	 * given pattern.
+	 * 
+	 * @param project	   The current project.
+	 * @param templatename Name of the template, as it would be referenced from
+	 * 					   another template.
+	 * @param pattern	   Start-of-string pattern to match.
+	 * @return List of matching fragments.
+	 */
+	public static synchronized List<Fragment> getFragments(IJavaProject project, String templatename,
+		String pattern) {
+
+		loadTemplatesFromProject(project);
+
+		return fragmentindexes.get(project).getFragments(templatename, pattern);
+	}
+
+	/**
+	 * Return the name by which the template at the given path would be
+	 * referenced from other templates.
+	 * 
+	 * @param templatefilepath
+	 * @return Template name.
+	 */
+	public static String getTemplateName(IPath templatefilepath) {
+
+		return FragmentIndex.templateName(templatefilepath);
+	}
+
+	/**
+	 * Return the templates in the given project that go by the given name.
+	 * 
+	 * @param project	   The current project.
+	 * @param templatename Name of the template, as it would be referenced from
+	 * 					   another template.
+	 * @return List of templates with that name.
+	 */
+	public static synchronized List<Template> getTemplates(IJavaProject project, String templatename) {
+
+		loadTemplatesFromProject(project);
+
+		return new ArrayList<Template>(fragmentindexes.get(project).getTemplates(templatename));
+	}
+
+	/**
+	 * Return all of the templates to write out when the workspace is saved,
+	 * which includes those of projects saved in the last session but not
+	 * loaded in this one.
+	 * 
+	 * @return Templates by project name.
+	 */
+	static synchronized Map<String,Collection<Template>> getTemplatesToSave() {
+
+		HashMap<String,Collection<Template>> templates = new HashMap<String,Collection<Template>>();
+		for (Map.Entry<String,HashMap<IPath,Template>> savedproject: savedtemplates.entrySet()) {
+			templates.put(savedproject.getKey(), new ArrayList<Template>(savedproject.getValue().values()));
+		}
+		for (IJavaProject project: fragmenttree.getProjects()) {
+			templates.put(project.getElementName(),
+					new ArrayList<Template>(fragmenttree.getResourcesForProject(project)));
+		}
+		return templates;
+	}
+
+	/**
+	 * Return the names of all the templates in the given project that start
+	 * with the given pattern.
+	 * 
+	 * @param project The current project.
+	 * @param pattern Start-of-string pattern to match.
+	 * @return List of matching template names.
+	 */
+	public static synchronized List<String> getTemplateNames(IJavaProject project, String pattern) {
+
+		loadTemplatesFromProject(project);
+
+		return fragmentindexes.get(project).getTemplateNames(pattern);
+	}
+
 	/**
 	 * Gather all the template information from the given project, if we haven't
-	 * got information on that project in the first place.
+	 * got information on that project in the first place.  Templates saved
+	 * from the last session are only re-parsed if their files have changed.
 	 * 
 	 * @param project
 	 */
 	private static void loadTemplatesFromProject(IJavaProject project) {
 
 		if (!fragmenttree.containsProject(project)) {
-			ProjectTemplateLocator projecttemplatelocator = new ProjectTemplateLocator(project);
-			List<Template> templates = templateloader.loadResources(projecttemplatelocator);
-			List<IPath> templatefilepaths = projecttemplatelocator.getTemplateFilePaths();
+			ProjectTemplateLocator locator = new ProjectTemplateLocator(project);
+			HashMap<IPath,Template> previoustemplates = savedtemplates.remove(project.getElementName());
+			List<Template> templates = previoustemplates != null ?
+					templateloader.loadResources(locator, previoustemplates) :
+					templateloader.loadResources(locator);
 
 			if (templates.size() > 0) {
-				for (int i = 0; i < templates.size(); i++) {
-					Template template = templates.get(i);
-					IPath templatefilepath = templatefilepaths.get(i);
-
-					fragmenttree.addResourceToProject(project, templatefilepath, template);
+				for (Template template: templates) {
+					fragmenttree.addResourceToProject(project, template.getFilePath(), template);
 				}
 			}
 			else {
 				fragmenttree.addResourcesToProject(project, null, new ArrayList<Template>());
 			}
+			fragmentindexes.put(project, new FragmentIndex(templates));
+			loadedprojects.add(project);
+		}
+	}
+
+	/**
+	 * Return whether or not templates for the given project have been loaded.
+	 * Doesn't wait on a load that's already underway.
+	 * 
+	 * @param project
+	 * @return <tt>true</tt> if the project is in the cache.
+	 */
+	public static boolean isProjectLoaded(IJavaProject project) {
+
+		return loadedprojects.contains(project);
+	}
+
+	/**
+	 * Load the templates of the given project into the cache, if they aren't
+	 * already, so that later queries don't have to.
+	 * 
+	 * @param project
+	 */
+	public static synchronized void loadProject(IJavaProject project) {
+
+		loadTemplatesFromProject(project);
+	}
+
+	/**
+	 * Remove a project and all of its templates from the cache.
+	 * 
+	 * @param project
+	 */
+	static synchronized void removeProject(IJavaProject project) {
+
+		loadedprojects.remove(project);
+		fragmenttree.removeProject(project);
+		fragmentindexes.remove(project);
+	}
+
+	/**
+	 * Remove the template at the given path from a loaded project.
+	 * 
+	 * @param project
+	 * @param templatefilepath
+	 */
+	static synchronized void removeTemplate(IJavaProject project, IPath templatefilepath) {
+
+		if (fragmenttree.containsProject(project)) {
+			fragmenttree.removeResourceFromProject(project, templatefilepath);
+			fragmentindexes.get(project).removeTemplate(templatefilepath);
 		}
 	}
 
@@ -87,6 +243,10 @@ public class TemplateCache {
 	 * Clear the cache and perform any other cleanup.
 	 */
 	public static void shutdown() {
+
+		ResourcesPlugin.getWorkspace().removeSaveParticipant(PLUGIN_ID);
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(templatechangelistener);
+		templatechangelistener.shutdown();
 	}
 
 	/**
@@ -95,5 +255,39 @@ public class TemplateCache {
 	public static void startup() {
 
 		fragmenttree = new ResourceTree<Template>();
+		fragmentindexes = new HashMap<IJavaProject,FragmentIndex>();
+		savedtemplates = new HashMap<String,HashMap<IPath,Template>>();
+
+		// Pick up the templates saved in the last session
+		try {
+			ISavedState savedstate = ResourcesPlugin.getWorkspace().addSaveParticipant(PLUGIN_ID,
+					new TemplateCacheSaveParticipant());
+			if (savedstate != null) {
+				savedtemplates.putAll(TemplateCacheSaveParticipant.readTemplates(savedstate));
+			}
+		}
+		catch (CoreException ex) {
+			logError("Unable to register the template cache save participant", ex);
+		}
+
+		templatechangelistener = new TemplateChangeListener(templateloader);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(templatechangelistener,
+				POST_CHANGE | PRE_CLOSE | PRE_DELETE);
+	}
+
+	/**
+	 * Add or replace a template in a loaded project.
+	 * 
+	 * @param project
+	 * @param template
+	 */
+	static synchronized void updateTemplate(IJavaProject project, Template template) {
+
+		if (fragmenttree.containsProject(project)) {
+			FragmentIndex fragmentindex = fragmentindexes.get(project);
+			fragmentindex.removeTemplate(template.getFilePath());
+			fragmentindex.addTemplate(template);
+			fragmenttree.addResourceToProject(project, template.getFilePath(), template);
+		}
 	}
 }
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.template.cache;
+
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.thymeleaf.extras.eclipse.template.model.Fragment;
+import org.thymeleaf.extras.eclipse.template.model.FragmentReference;
+import org.thymeleaf.extras.eclipse.template.model.Template;
+import static org.thymeleaf.extras.eclipse.CorePlugin.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves the templates known to the template cache to the plugin's state
+ * location whenever the workspace is saved, so that the next session can skip
+ * re-parsing any templates that haven't changed in the meantime.
+ * 
+ * @author Emanuel Rabina
+ */
+class TemplateCacheSaveParticipant implements ISaveParticipant {
+
+	private static final String SAVE_FILE_KEY    = "templates";
+	private static final String SAVE_FILE_PREFIX = "templates-";
+	private static final int SAVE_FILE_VERSION   = 3;
+
+	/**
+	 * Package-only constructor.
+	 */
+	TemplateCacheSaveParticipant() {
+	}
+
+	/**
+	 * Remove the file written by the previous save.
+	 * 
+	 * @param context
+	 */
+	@Override
+	public void doneSaving(ISaveContext context) {
+
+		saveFile(context.getPreviousSaveNumber()).delete();
+	}
+
+	/**
+	 * Do nothing.
+	 * 
+	 * @param context
+	 */
+	@Override
+	public void prepareToSave(ISaveContext context) {
+	}
+
+	/**
+	 * Read the templates saved in a previous session.
+	 * 
+	 * @param savedstate
+	 * @return Saved templates by project name, then by template file path.
+	 * 		   Empty if nothing was saved or the save file couldn't be read.
+	 */
+	static HashMap<String,HashMap<IPath,Template>> readTemplates(ISavedState savedstate) {
+
+		HashMap<String,HashMap<IPath,Template>> savedtemplates = new HashMap<String,HashMap<IPath,Template>>();
+
+		IPath savefilepath = savedstate.lookup(new Path(SAVE_FILE_KEY));
+		if (savefilepath == null) {
+			return savedtemplates;
+		}
+		File savefile = getDefault().getStateLocation().append(savefilepath).toFile();
+		if (!savefile.exists()) {
+			return savedtemplates;
+		}
+
+		DataInputStream input = null;
+		try {
+			input = new DataInputStream(new BufferedInputStream(new FileInputStream(savefile)));
+			if (input.readInt() != SAVE_FILE_VERSION) {
+				return savedtemplates;
+			}
+
+			int numprojects = input.readInt();
+			for (int p = 0; p < numprojects; p++) {
+				String projectname = input.readUTF();
+				int numtemplates = input.readInt();
+				HashMap<IPath,Template> templates = new HashMap<IPath,Template>(numtemplates * 2);
+				for (int t = 0; t < numtemplates; t++) {
+					IPath filepath = Path.fromPortableString(input.readUTF());
+					long modificationstamp = input.readLong();
+					int numfragments = input.readInt();
+					ArrayList<Fragment> fragments = new ArrayList<Fragment>(numfragments);
+					for (int f = 0; f < numfragments; f++) {
+						String spec = input.readUTF();
+						int line = input.readInt();
+						int column = input.readInt();
+						fragments.add(new Fragment(spec, line, column));
+					}
+					int numreferences = input.readInt();
+					ArrayList<FragmentReference> references = new ArrayList<FragmentReference>(numreferences);
+					for (int r = 0; r < numreferences; r++) {
+						int line = input.readInt();
+						int column = input.readInt();
+						String templatename = input.readBoolean() ? input.readUTF() : null;
+						String fragmentname = input.readBoolean() ? input.readUTF() : null;
+						references.add(new FragmentReference(filepath, line, column, templatename, fragmentname));
+					}
+					templates.put(filepath, new Template(filepath, modificationstamp, fragments, references));
+				}
+				savedtemplates.put(projectname, templates);
+			}
+		}
+		catch (IOException ex) {
+			logError("Unable to read the saved template cache, templates will be reloaded", ex);
+			savedtemplates.clear();
+		}
+		catch (IllegalArgumentException ex) {
+			logError("Saved template cache is corrupt, templates will be reloaded", ex);
+			savedtemplates.clear();
+		}
+		finally {
+			try {
+				if (input != null) {
+					input.close();
+				}
+			}
+			catch (IOException ex) {
+				logError("Unable to close the saved template cache", ex);
+			}
+		}
+
+		return savedtemplates;
+	}
+
+	/**
+	 * Remove the file written by the save that is being rolled back.
+	 * 
+	 * @param context
+	 */
+	@Override
+	public void rollback(ISaveContext context) {
+
+		saveFile(context.getSaveNumber()).delete();
+	}
+
+	/**
+	 * Return the save file for the given save number.
+	 * 
+	 * @param savenumber
+	 * @return Save file in the plugin state location.
+	 */
+	private static File saveFile(int savenumber) {
+
+		return getDefault().getStateLocation().append(SAVE_FILE_PREFIX + savenumber).toFile();
+	}
+
+	/**
+	 * Write out the templates in the template cache on full workspace saves
+	 * and snapshots.
+	 * 
+	 * @param context
+	 * @throws CoreException If the templates could not be written.
+	 */
+	@Override
+	public void saving(ISaveContext context) throws CoreException {
+
+		if (context.getKind() == ISaveContext.PROJECT_SAVE) {
+			return;
+		}
+
+		int savenumber = context.getSaveNumber();
+		try {
+			writeTemplates(saveFile(savenumber), TemplateCache.getTemplatesToSave());
+		}
+		catch (IOException ex) {
+			throw new CoreException(new Status(Status.ERROR, PLUGIN_ID, "Unable to save the template cache", ex));
+		}
+
+		context.map(new Path(SAVE_FILE_KEY), new Path(SAVE_FILE_PREFIX + savenumber));
+		context.needSaveNumber();
+	}
+
+	/**
+	 * Write a string that may be <tt>null</tt>, preceded by a flag of whether
+	 * or not it is present.
+	 * 
+	 * @param output
+	 * @param string
+	 * @throws IOException
+	 */
+	private static void writeOptionalString(DataOutputStream output, String string) throws IOException {
+
+		output.writeBoolean(string != null);
+		if (string != null) {
+			output.writeUTF(string);
+		}
+	}
+
+	/**
+	 * Write the given templates to a save file.
+	 * 
+	 * @param savefile
+	 * @param templates Templates by project name.
+	 * @throws IOException
+	 */
+	private static void writeTemplates(File savefile, Map<String,Collection<Template>> templates)
+		throws IOException {
+
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(savefile)));
+		try {
+			output.writeInt(SAVE_FILE_VERSION);
+			output.writeInt(templates.size());
+			for (Map.Entry<String,Collection<Template>> project: templates.entrySet()) {
+				output.writeUTF(project.getKey());
+				output.writeInt(project.getValue().size());
+				for (Template template: project.getValue()) {
+					output.writeUTF(template.getFilePath().toPortableString());
+					output.writeLong(template.getModificationStamp());
+					List<Fragment> fragments = template.getFragments();
+					output.writeInt(fragments.size());
+					for (Fragment fragment: fragments) {
+						output.writeUTF(fragment.getSpec());
+						output.writeInt(fragment.getLine());
+						output.writeInt(fragment.getColumn());
+					}
+					List<FragmentReference> references = template.getFragmentReferences();
+					output.writeInt(references.size());
+					for (FragmentReference reference: references) {
+						output.writeInt(reference.getLine());
+						output.writeInt(reference.getColumn());
+						writeOptionalString(output, reference.getTemplateName());
+						writeOptionalString(output, reference.getFragmentName());
+					}
+				}
+			}
+		}
+		finally {
+			output.close();
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.template.cache;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.thymeleaf.extras.eclipse.template.TemplateLoader;
+import org.thymeleaf.extras.eclipse.template.model.Template;
+import static org.eclipse.core.resources.IResourceChangeEvent.*;
+import static org.thymeleaf.extras.eclipse.CorePlugin.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A resource change listener, acting on changes made to any templates in the
+ * projects known to the template cache, re-parsing only the templates that
+ * changed.
+ * 
+ * @author Emanuel Rabina
+ */
+class TemplateChangeListener implements IResourceChangeListener {
+
+	private static final String HTML_FILE_EXTENSION = "html";
+
+	private final ExecutorService resourcechangeexecutor = Executors.newSingleThreadExecutor();
+
+	private final TemplateLoader templateloader;
+
+	/**
+	 * Package-only constructor, use the given loader to re-parse templates.
+	 * 
+	 * @param templateloader
+	 */
+	TemplateChangeListener(TemplateLoader templateloader) {
+
+		this.templateloader = templateloader;
+	}
+
+	/**
+	 * When notified of a resource change, redirect the work to the change
+	 * executor thread so as to not block the event change thread.
+	 */
+	@Override
+	public void resourceChanged(final IResourceChangeEvent event) {
+
+		resourcechangeexecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+
+				switch (event.getType()) {
+
+				// If a template has been added, changed, or removed, update just that template
+				case POST_CHANGE:
+					try {
+						event.getDelta().accept(new IResourceDeltaVisitor() {
+							@Override
+							public boolean visit(IResourceDelta delta) {
+
+								IResource resource = delta.getResource();
+								if (resource instanceof IProject) {
+									return TemplateCache.isProjectLoaded(JavaCore.create((IProject)resource));
+								}
+								if (resource instanceof IFile &&
+									HTML_FILE_EXTENSION.equals(resource.getFileExtension())) {
+									updateTemplate(delta, (IFile)resource);
+								}
+								return true;
+							}
+						});
+					}
+					catch (CoreException ex) {
+						logError("Unable to process template changes", ex);
+					}
+					break;
+
+				// If a project is closing/being deleted, remove its templates
+				case PRE_CLOSE:
+				case PRE_DELETE:
+					IJavaProject project = JavaCore.create((IProject)event.getResource());
+					if (TemplateCache.isProjectLoaded(project)) {
+						logInfo("Project " + project.getElementName() +
+								" has been closed/deleted, removing templates.");
+						TemplateCache.removeProject(project);
+					}
+					break;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stops the resource change executor.
+	 */
+	void shutdown() {
+
+		resourcechangeexecutor.shutdown();
+		try {
+			if (!resourcechangeexecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+				resourcechangeexecutor.shutdownNow();
+			}
+		}
+		catch (InterruptedException ex) {
+			// Do nothing
+		}
+	}
+
+	/**
+	 * Update the template cache for a single changed template file.
+	 * 
+	 * @param delta
+	 * @param file
+	 */
+	private void updateTemplate(IResourceDelta delta, IFile file) {
+
+		IJavaProject project = JavaCore.create(file.getProject());
+
+		switch (delta.getKind()) {
+		case IResourceDelta.REMOVED:
+			TemplateCache.removeTemplate(project, file.getFullPath());
+			break;
+
+		case IResourceDelta.ADDED:
+		case IResourceDelta.CHANGED:
+			if (delta.getKind() == IResourceDelta.CHANGED && (delta.getFlags() & IResourceDelta.CONTENT) == 0) {
+				break;
+			}
+			Template template = templateloader.loadResource(file);
+			if (template != null) {
+				TemplateCache.updateTemplate(project, template);
+			}
+			else {
+				TemplateCache.removeTemplate(project, file.getFullPath());
+			}
+			break;
+		}
+	}
+}
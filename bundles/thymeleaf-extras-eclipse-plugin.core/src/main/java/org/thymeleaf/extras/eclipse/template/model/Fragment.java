@@ -26,10 +26,13 @@ import java.util.regex.Pattern;
  */
 public class Fragment {
 
-	private static final Pattern FRAGMENT_SPEC_PATTERN = Pattern.compile("(.*?)(\\(.*\\))");
+	private static final Pattern FRAGMENT_SPEC_PATTERN = Pattern.compile("\\s*([^\\s(]+)\\s*(?:\\((.*)\\))?\\s*");
 
+	private final String spec;
 	private final String name;
 	private final String[] arguments;
+	private final int line;
+	private final int column;
 
 	/**
 	 * Constructor, build a fragment from the given fragment spec string.
@@ -39,17 +42,38 @@ public class Fragment {
 	 */
 	public Fragment(String fragmentspec) {
 
+		this(fragmentspec, 0, 0);
+	}
+
+	/**
+	 * Constructor, build a fragment from the given fragment spec string and
+	 * the position of the element that declares it.
+	 * 
+	 * @param fragmentspec
+	 * @param line		   Line of the element with the fragment declaration,
+	 * 					   or 0 if not known.
+	 * @param column	   Column of the element with the fragment declaration,
+	 * 					   or 0 if not known.
+	 * @throws IllegalArgumentException If the fragment spec is invalid.
+	 */
+	public Fragment(String fragmentspec, int line, int column) {
+
+		spec        = fragmentspec;
+		this.line   = line;
+		this.column = column;
+
 		Matcher matcher = FRAGMENT_SPEC_PATTERN.matcher(fragmentspec);
 		if (matcher.matches()) {
 			name = matcher.group(1);
-			if (matcher.groupCount() == 2) {
-				arguments = matcher.group(2).split(",");
+			String argumentlist = matcher.group(2);
+			if (argumentlist != null && argumentlist.trim().length() > 0) {
+				arguments = argumentlist.split(",");
 				for (int i = 0; i < arguments.length; i++) {
 					arguments[i] = arguments[i].trim();
 				}
 			}
 			else {
-				arguments = null;
+				arguments = new String[0];
 			}
 		}
 		else {
@@ -57,6 +81,37 @@ public class Fragment {
 		}
 	}
 
+	/**
+	 * Return the names of the arguments of this fragment.
+	 * 
+	 * @return Fragment argument names, empty if the fragment takes no
+	 * 		   arguments.
+	 */
+	public String[] getArguments() {
+
+		return arguments;
+	}
+
+	/**
+	 * Return the column of the element with this fragment declaration.
+	 * 
+	 * @return Element column, or 0 if not known.
+	 */
+	public int getColumn() {
+
+		return column;
+	}
+
+	/**
+	 * Return the line of the element with this fragment declaration.
+	 * 
+	 * @return Element line, or 0 if not known.
+	 */
+	public int getLine() {
+
+		return line;
+	}
+
 	/**
 	 * Return the name of the fragment.
 	 * 
@@ -66,4 +121,14 @@ public class Fragment {
 
 		return name;
 	}
+
+	/**
+	 * Return the fragment spec string this fragment was built from.
+	 * 
+	 * @return Fragment spec.
+	 */
+	public String getSpec() {
+
+		return spec;
+	}
 }
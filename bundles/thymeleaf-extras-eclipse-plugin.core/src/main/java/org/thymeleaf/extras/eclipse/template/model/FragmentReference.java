@@ -0,0 +1,185 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.template.model;
+
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Model of a reference to a template or fragment, from the value of one of the
+ * fragment inclusion attributes (eg: <tt>th:include</tt>).
+ * 
+ * @author Emanuel Rabina
+ */
+public class FragmentReference {
+
+	private static final String[] FRAGMENT_INCLUSION_PROCESSORS = { "include", "insert", "replace", "substituteby" };
+	private static final String STANDARD_PREFIX      = "th:";
+	private static final String STANDARD_DATA_PREFIX = "data-th-";
+
+	private static final String FRAGMENT_SEPARATOR = "::";
+	private static final String THIS_TEMPLATE      = "this";
+
+	private final IPath filepath;
+	private final int line;
+	private final int column;
+	private final String templatename;
+	private final String fragmentname;
+
+	/**
+	 * Constructor, create a reference from its already-resolved parts.
+	 * 
+	 * @param filepath	   Path to the template file containing the reference.
+	 * @param line		   Line of the element with the reference.
+	 * @param column	   Column of the element with the reference.
+	 * @param templatename Name of the referenced template, or <tt>null</tt> if
+	 * 					   the reference is to the template it's in.
+	 * @param fragmentname Name of the referenced fragment, or <tt>null</tt> if
+	 * 					   the reference is to the whole template.
+	 */
+	public FragmentReference(IPath filepath, int line, int column, String templatename,
+		String fragmentname) {
+
+		this.filepath     = filepath;
+		this.line         = line;
+		this.column       = column;
+		this.templatename = templatename;
+		this.fragmentname = fragmentname;
+	}
+
+	/**
+	 * Create a reference from the value of a fragment inclusion attribute.
+	 * 
+	 * @param filepath		 Path to the template file containing the reference.
+	 * @param line			 Line of the element with the reference.
+	 * @param column		 Column of the element with the reference.
+	 * @param attributevalue
+	 * @return Reference to the template/fragment named in the attribute value,
+	 * 		   or <tt>null</tt> if the value is an expression that can only be
+	 * 		   worked out at runtime.
+	 */
+	public static FragmentReference fromAttributeValue(IPath filepath, int line, int column,
+		String attributevalue) {
+
+		if (attributevalue.contains("{")) {
+			return null;
+		}
+
+		String templatename;
+		String fragmentname;
+		int separatorindex = attributevalue.indexOf(FRAGMENT_SEPARATOR);
+		if (separatorindex != -1) {
+			templatename = attributevalue.substring(0, separatorindex).trim();
+			fragmentname = attributevalue.substring(separatorindex + FRAGMENT_SEPARATOR.length()).trim();
+			int argumentsindex = fragmentname.indexOf('(');
+			if (argumentsindex != -1) {
+				fragmentname = fragmentname.substring(0, argumentsindex).trim();
+			}
+			if (fragmentname.length() == 0) {
+				return null;
+			}
+		}
+		else {
+			templatename = attributevalue.trim();
+			fragmentname = null;
+		}
+
+		if (templatename.length() == 0 || templatename.equals(THIS_TEMPLATE)) {
+			if (fragmentname == null) {
+				return null;
+			}
+			templatename = null;
+		}
+
+		return new FragmentReference(filepath, line, column, templatename, fragmentname);
+	}
+
+	/**
+	 * Return the column of the element with this reference.
+	 * 
+	 * @return Element column.
+	 */
+	public int getColumn() {
+
+		return column;
+	}
+
+	/**
+	 * Return the path to the template file containing this reference.
+	 * 
+	 * @return Template file path.
+	 */
+	public IPath getFilePath() {
+
+		return filepath;
+	}
+
+	/**
+	 * Return the name of the referenced fragment.
+	 * 
+	 * @return Fragment name, or <tt>null</tt> if this is a reference to a whole
+	 * 		   template.
+	 */
+	public String getFragmentName() {
+
+		return fragmentname;
+	}
+
+	/**
+	 * Return whether or not the attribute name is that of a Thymeleaf
+	 * processor which takes a fragment reference, in either the namespaced
+	 * (<tt>th:</tt>) or the HTML5 (<tt>data-th-</tt>) form.
+	 * 
+	 * @param attributename
+	 * @return <tt>true</tt> if the attribute is a fragment inclusion attribute.
+	 */
+	public static boolean isFragmentInclusionAttribute(String attributename) {
+
+		String processor =
+				attributename.startsWith(STANDARD_PREFIX) ? attributename.substring(STANDARD_PREFIX.length()) :
+				attributename.startsWith(STANDARD_DATA_PREFIX) ? attributename.substring(STANDARD_DATA_PREFIX.length()) :
+				null;
+		if (processor != null) {
+			for (String inclusionprocessor: FRAGMENT_INCLUSION_PROCESSORS) {
+				if (processor.equals(inclusionprocessor)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Return the line of the element with this reference.
+	 * 
+	 * @return Element line.
+	 */
+	public int getLine() {
+
+		return line;
+	}
+
+	/**
+	 * Return the name of the referenced template.
+	 * 
+	 * @return Template name, or <tt>null</tt> if this is a reference to the
+	 * 		   template this reference is in.
+	 */
+	public String getTemplateName() {
+
+		return templatename;
+	}
+}
@@ -16,8 +16,7 @@
 
 package org.thymeleaf.extras.eclipse.template.model;
 
-import org.attoparser.markup.dom.impl.Document;
-import org.attoparser.markup.dom.impl.Element;
+import org.eclipse.core.runtime.IPath;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,39 +28,61 @@ import java.util.List;
  */
 public class Template {
 
-	private static final String FRAGMENT_ATTRIBUTE      = "th:fragment";
-	private static final String DATA_FRAGMENT_ATTRIBUTE = "data-th-fragment";
-
+	private final IPath filepath;
+	private final long modificationstamp;
 	private final ArrayList<Fragment> fragments = new ArrayList<Fragment>();
+	private final ArrayList<FragmentReference> fragmentreferences = new ArrayList<FragmentReference>();
+
+	/**
+	 * Create a new template that has no fragments in it.
+	 * 
+	 * @param filepath			Path to the file the template was loaded from.
+	 * @param modificationstamp Modification stamp of the file when it was
+	 * 							loaded.
+	 */
+	public Template(IPath filepath, long modificationstamp) {
+
+		this.filepath          = filepath;
+		this.modificationstamp = modificationstamp;
+	}
+
+	/**
+	 * Create a new template from the fragments and references found while
+	 * parsing the template file, or saved from an earlier session.
+	 * 
+	 * @param filepath			Path to the file the template was loaded from.
+	 * @param modificationstamp Modification stamp of the file when it was
+	 * 							loaded.
+	 * @param fragments
+	 * @param fragmentreferences
+	 */
+	public Template(IPath filepath, long modificationstamp, List<Fragment> fragments,
+		List<FragmentReference> fragmentreferences) {
+
+		this(filepath, modificationstamp);
+		this.fragments.addAll(fragments);
+		this.fragmentreferences.addAll(fragmentreferences);
+	}
 
 	/**
-	 * Create a new template from an HTML document.
+	 * Return the path to the file this template was loaded from.
 	 * 
-	 * @param document
+	 * @return Template file path.
 	 */
-	public Template(Document document) {
+	public IPath getFilePath() {
 
-		// Look for fragment signatures inside the HTML document
-		findFragments(document.getFirstChildOfType(Element.class));
+		return filepath;
 	}
 
 	/**
-	 * Recursive search for any fragment signatures inside an HTML document.
+	 * Return a list of the references this template makes to other templates
+	 * and fragments.
 	 * 
-	 * @param element
+	 * @return Fragment reference list.
 	 */
-	private void findFragments(Element element) {
-
-		if (element.hasAttribute(FRAGMENT_ATTRIBUTE)) {
-			fragments.add(new Fragment(element.getAttributeValue(FRAGMENT_ATTRIBUTE)));
-		}
-		else if (element.hasAttribute(DATA_FRAGMENT_ATTRIBUTE)) {
-			fragments.add(new Fragment(element.getAttributeValue(DATA_FRAGMENT_ATTRIBUTE)));
-		}
-
-		for (Element childelement: element.getChildrenOfType(Element.class)) {
-			findFragments(childelement);
-		}
+	public List<FragmentReference> getFragmentReferences() {
+
+		return fragmentreferences;
 	}
 
 	/**
@@ -73,4 +94,15 @@ public class Template {
 
 		return fragments;
 	}
+
+	/**
+	 * Return the modification stamp of the template file at the time it was
+	 * loaded.
+	 * 
+	 * @return Template file modification stamp.
+	 */
+	public long getModificationStamp() {
+
+		return modificationstamp;
+	}
 }
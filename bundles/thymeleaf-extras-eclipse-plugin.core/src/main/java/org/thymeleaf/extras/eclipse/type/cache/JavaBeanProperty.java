@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.type.cache;
+
+/**
+ * A Java bean property of a type, as worked out from one of its getter
+ * methods.  Instances are immutable and so can be shared between threads.
+ * 
+ * @author Emanuel Rabina
+ */
+public final class JavaBeanProperty {
+
+	private final String name;
+	private final String displaytype;
+	private final String typename;
+
+	/**
+	 * Constructor, set the property information.
+	 * 
+	 * @param name
+	 * @param displaytype Simple name of the property type, for showing to the
+	 * 					  user.
+	 * @param typename	  Fully qualified name of the property type, or
+	 * 					  <tt>null</tt> if the type has no properties of its
+	 * 					  own (primitives and arrays).
+	 */
+	JavaBeanProperty(String name, String displaytype, String typename) {
+
+		this.name        = name;
+		this.displaytype = displaytype;
+		this.typename    = typename;
+	}
+
+	/**
+	 * Return the simple name of the property type.
+	 * 
+	 * @return Property type, as it would appear in code.
+	 */
+	public String getDisplayType() {
+
+		return displaytype;
+	}
+
+	/**
+	 * Return the property name.
+	 * 
+	 * @return Property name.
+	 */
+	public String getName() {
+
+		return name;
+	}
+
+	/**
+	 * Return the fully qualified name of the property type.
+	 * 
+	 * @return Property type name, or <tt>null</tt> for primitives and arrays.
+	 */
+	public String getTypeName() {
+
+		return typename;
+	}
+
+	/**
+	 * Convert the name of a Java bean method into the name of the property it
+	 * gets or sets, eg: <tt>getFirstName</tt> becomes <tt>firstName</tt>.
+	 * 
+	 * @param methodname
+	 * @return Property name, or <tt>null</tt> if the method name doesn't
+	 * 		   follow the Java bean <tt>get</tt>/<tt>set</tt>/<tt>is</tt>
+	 * 		   convention.
+	 */
+	public static String propertyName(String methodname) {
+
+		int propertypoint =
+				methodname.startsWith("get") || methodname.startsWith("set") ? 3 :
+				methodname.startsWith("is") ? 2 :
+				-1;
+
+		if (propertypoint != -1 && methodname.length() > propertypoint &&
+			Character.isUpperCase(methodname.charAt(propertypoint))) {
+
+			StringBuilder propertyname = new StringBuilder(methodname.substring(propertypoint));
+			propertyname.insert(0, Character.toLowerCase(propertyname.charAt(0)));
+			propertyname.deleteCharAt(1);
+			return propertyname.toString();
+		}
+		return null;
+	}
+}
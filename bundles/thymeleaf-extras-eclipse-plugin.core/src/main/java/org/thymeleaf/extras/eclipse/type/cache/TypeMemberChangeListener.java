@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.type.cache;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+
+/**
+ * A Java element change listener, throwing away the cached members of any
+ * type whose compilation unit or class file changed, or whose project's
+ * classpath changed.
+ * 
+ * @author Emanuel Rabina
+ */
+class TypeMemberChangeListener implements IElementChangedListener {
+
+	private static final int CLASSPATH_CHANGES =
+			IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED |
+			IJavaElementDelta.F_CLOSED;
+
+	/**
+	 * Package-only constructor.
+	 */
+	TypeMemberChangeListener() {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+
+		processDelta(event.getDelta());
+	}
+
+	/**
+	 * Remove the members of the types affected by the given delta and its
+	 * children.
+	 * 
+	 * @param delta
+	 */
+	private static void processDelta(IJavaElementDelta delta) {
+
+		IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+
+		// Anything in a changed source or class file
+		case IJavaElement.COMPILATION_UNIT:
+		case IJavaElement.CLASS_FILE:
+			TypeMemberIndex.removeMembers(element.getHandleIdentifier());
+			return;
+
+		// Everything in a project whose classpath changed, or that went away
+		case IJavaElement.JAVA_PROJECT:
+			if (delta.getKind() == IJavaElementDelta.REMOVED || (delta.getFlags() & CLASSPATH_CHANGES) != 0) {
+				TypeMemberIndex.removeMembers(element.getHandleIdentifier());
+				return;
+			}
+			break;
+
+		// Everything in a library or source folder that was added, removed or replaced
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			if (delta.getKind() != IJavaElementDelta.CHANGED ||
+				(delta.getFlags() & IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED) != 0) {
+				TypeMemberIndex.removeMembers(element.getHandleIdentifier());
+				return;
+			}
+			break;
+		}
+
+		for (IJavaElementDelta child: delta.getAffectedChildren()) {
+			processDelta(child);
+		}
+	}
+}
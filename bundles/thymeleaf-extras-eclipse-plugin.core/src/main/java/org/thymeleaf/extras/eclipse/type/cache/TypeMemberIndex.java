@@ -0,0 +1,291 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.type.cache;
+
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+import static org.eclipse.jdt.core.ElementChangedEvent.*;
+import static org.thymeleaf.extras.eclipse.CorePlugin.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Cache of the Java bean properties of the types used in templates, for
+ * completing property paths like <tt>${user.address.city}</tt>.  Each type's
+ * properties are worked out once, keyed by the type's handle, and kept until
+ * a Java element change touches that type or one of its supertypes.  Walking
+ * a property path then only has to look up what's already here rather than
+ * going through the methods of every type along the way again.
+ * <p>
+ * The class lock only ever guards the cache itself.  Working out a type's
+ * members asks JDT for its supertype hierarchy, which can take a while and
+ * can wait on the Java model, so it's done outside of the lock; the change
+ * listener, which takes the lock from the thread delivering Java element
+ * deltas, is never kept waiting on it.
+ * 
+ * @author Emanuel Rabina
+ */
+public class TypeMemberIndex {
+
+	private static final HashMap<String,TypeMembers> typemembers = new HashMap<String,TypeMembers>();
+
+	// Count of removals, so members worked out across one aren't cached
+	private static long generation;
+
+	// Removes the members of types that change
+	private static TypeMemberChangeListener typememberchangelistener;
+
+	/**
+	 * Hidden default constructor as this class is only to be used statically.
+	 */
+	private TypeMemberIndex() {
+	}
+
+	/**
+	 * Work out the Java bean properties of a type: the properties of its
+	 * public, non-static getter methods, including those it inherits.
+	 * 
+	 * @param type
+	 * @return Members of the type.
+	 * @throws JavaModelException
+	 */
+	private static TypeMembers createTypeMembers(IType type) throws JavaModelException {
+
+		ArrayList<IType> types = new ArrayList<IType>();
+		types.add(type);
+		for (IType supertype: type.newSupertypeHierarchy(null).getAllSupertypes(type)) {
+			if (!supertype.getFullyQualifiedName().equals(Object.class.getName())) {
+				types.add(supertype);
+			}
+		}
+
+		ArrayList<JavaBeanProperty> properties = new ArrayList<JavaBeanProperty>();
+		HashSet<String> propertynames = new HashSet<String>();
+		HashSet<String> sourcehandles = new HashSet<String>();
+		for (IType membertype: types) {
+			sourcehandles.add(membertype.getHandleIdentifier());
+			for (IMethod method: membertype.getMethods()) {
+				if (!isGetter(membertype, method)) {
+					continue;
+				}
+				String propertyname = JavaBeanProperty.propertyName(method.getElementName());
+				if (propertyname != null && propertynames.add(propertyname)) {
+					String returntype = method.getReturnType();
+					properties.add(new JavaBeanProperty(propertyname,
+							Signature.getSimpleName(Signature.toString(returntype)),
+							resolveTypeName(membertype, returntype)));
+				}
+			}
+		}
+
+		Collections.sort(properties, new Comparator<JavaBeanProperty>() {
+			@Override
+			public int compare(JavaBeanProperty property1, JavaBeanProperty property2) {
+				return property1.getName().compareTo(property2.getName());
+			}
+		});
+		return new TypeMembers(Collections.unmodifiableList(properties), sourcehandles);
+	}
+
+	/**
+	 * Return the Java bean properties of the given type, in alphabetical
+	 * order.
+	 * 
+	 * @param type
+	 * @return List of properties of the type and its supertypes.
+	 */
+	public static List<JavaBeanProperty> getProperties(IType type) {
+
+		TypeMembers members = getTypeMembers(type);
+		return members != null ? members.properties : Collections.<JavaBeanProperty>emptyList();
+	}
+
+	/**
+	 * Return the members of the given type, working them out if they aren't
+	 * in the cache.  Members are worked out without holding the class lock,
+	 * and are only cached if no types were removed in the meantime, as the
+	 * removal could have been for one of the types they came from.
+	 * 
+	 * @param type
+	 * @return Type members, or <tt>null</tt> if they couldn't be worked out.
+	 */
+	private static TypeMembers getTypeMembers(IType type) {
+
+		String typehandle = type.getHandleIdentifier();
+		long startgeneration;
+		synchronized (TypeMemberIndex.class) {
+			TypeMembers members = typemembers.get(typehandle);
+			if (members != null) {
+				return members;
+			}
+			startgeneration = generation;
+		}
+
+		TypeMembers members;
+		try {
+			members = createTypeMembers(type);
+		}
+		catch (JavaModelException ex) {
+			logError("Unable to read the members of " + type.getFullyQualifiedName(), ex);
+			return null;
+		}
+
+		synchronized (TypeMemberIndex.class) {
+			TypeMembers existingmembers = typemembers.get(typehandle);
+			if (existingmembers != null) {
+				return existingmembers;
+			}
+			if (generation == startgeneration) {
+				typemembers.put(typehandle, members);
+			}
+		}
+		return members;
+	}
+
+	/**
+	 * Returns whether or not the method is a getter that can be used from a
+	 * template.
+	 * 
+	 * @param type	 Type that declares the method.
+	 * @param method
+	 * @return <tt>true</tt> for public, non-static methods that take no
+	 * 		   parameters and return something.
+	 * @throws JavaModelException
+	 */
+	private static boolean isGetter(IType type, IMethod method) throws JavaModelException {
+
+		int flags = method.getFlags();
+		return !method.isConstructor() && !Flags.isStatic(flags) &&
+				(Flags.isPublic(flags) || type.isInterface()) &&
+				method.getNumberOfParameters() == 0 &&
+				!Signature.SIG_VOID.equals(method.getReturnType());
+	}
+
+	/**
+	 * Forget the members of any type that came from the Java element with the
+	 * given handle identifier, or from anything under it.
+	 * 
+	 * @param elementhandle
+	 */
+	static synchronized void removeMembers(String elementhandle) {
+
+		generation++;
+		for (Iterator<TypeMembers> iterator = typemembers.values().iterator(); iterator.hasNext(); ) {
+			if (iterator.next().comesFrom(elementhandle)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Find the type at the end of a property path, starting from the given
+	 * type, eg: the path <tt>address.city</tt> from a <tt>User</tt> type.
+	 * 
+	 * @param type
+	 * @param path Property names, in the order they're followed.
+	 * @return Type of the last property in the path, or <tt>null</tt> if any
+	 * 		   property along the way doesn't exist or has no type to follow.
+	 */
+	public static IType resolvePropertyPath(IType type, List<String> path) {
+
+		for (String propertyname: path) {
+			TypeMembers members = type != null ? getTypeMembers(type) : null;
+			if (members == null) {
+				return null;
+			}
+			IType propertytype = members.propertytypes.get(propertyname);
+			if (propertytype == null) {
+				for (JavaBeanProperty property: members.properties) {
+					if (property.getName().equals(propertyname) && property.getTypeName() != null) {
+						try {
+							propertytype = type.getJavaProject().findType(property.getTypeName());
+						}
+						catch (JavaModelException ex) {
+							logError("Unable to find type " + property.getTypeName(), ex);
+						}
+						break;
+					}
+				}
+				if (propertytype == null) {
+					return null;
+				}
+				members.propertytypes.put(propertyname, propertytype);
+			}
+			type = propertytype;
+		}
+		return type;
+	}
+
+	/**
+	 * Work out the fully qualified name of a type used in the given type.
+	 * Types in source code are only known by the names used to refer to them
+	 * there, so are resolved against the imports of that source.
+	 * 
+	 * @param type			Type the signature was found in.
+	 * @param typesignature
+	 * @return Fully qualified name of the type, without any type arguments, or
+	 * 		   <tt>null</tt> for primitives, arrays, and types that couldn't be
+	 * 		   resolved.
+	 * @throws JavaModelException
+	 */
+	private static String resolveTypeName(IType type, String typesignature) throws JavaModelException {
+
+		if (Signature.getArrayCount(typesignature) > 0 ||
+			Signature.getTypeSignatureKind(typesignature) != Signature.CLASS_TYPE_SIGNATURE) {
+			return null;
+		}
+
+		String typename = Signature.toString(Signature.getTypeErasure(typesignature));
+		if (type.isBinary()) {
+			return typename;
+		}
+		String[][] resolvedtypes = type.resolveType(typename);
+		return resolvedtypes != null && resolvedtypes.length > 0 ?
+				Signature.toQualifiedName(resolvedtypes[0]) :
+				null;
+	}
+
+	/**
+	 * Clear the cache and perform any other cleanup.
+	 */
+	public static void shutdown() {
+
+		JavaCore.removeElementChangedListener(typememberchangelistener);
+		synchronized (TypeMemberIndex.class) {
+			typemembers.clear();
+		}
+	}
+
+	/**
+	 * Initialize the cache.
+	 */
+	public static void startup() {
+
+		typememberchangelistener = new TypeMemberChangeListener();
+		JavaCore.addElementChangedListener(typememberchangelistener, POST_CHANGE);
+	}
+}
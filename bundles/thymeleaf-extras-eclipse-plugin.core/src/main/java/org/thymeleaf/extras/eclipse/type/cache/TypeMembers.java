@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013, The Thymeleaf Project (http://www.thymeleaf.org/)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.thymeleaf.extras.eclipse.type.cache;
+
+import org.eclipse.jdt.core.IType;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Java bean properties of a single type, including inherited ones, along
+ * with the handles of every type they came from so that the entry can be
+ * thrown away when any of those types change.
+ * 
+ * @author Emanuel Rabina
+ */
+class TypeMembers {
+
+	final List<JavaBeanProperty> properties;
+	final Set<String> sourcehandles;
+
+	// Property types, found the first time a path goes through them
+	final ConcurrentHashMap<String,IType> propertytypes = new ConcurrentHashMap<String,IType>();
+
+	/**
+	 * Constructor, set the properties and where they came from.
+	 * 
+	 * @param properties
+	 * @param sourcehandles Handle identifiers of the type and its supertypes.
+	 */
+	TypeMembers(List<JavaBeanProperty> properties, Set<String> sourcehandles) {
+
+		this.properties    = properties;
+		this.sourcehandles = sourcehandles;
+	}
+
+	/**
+	 * Returns whether or not any of the types these members came from are
+	 * under the Java element with the given handle identifier.
+	 * 
+	 * @param elementhandle
+	 * @return <tt>true</tt> if one of the source type handles starts with the
+	 * 		   element handle.
+	 */
+	boolean comesFrom(String elementhandle) {
+
+		for (String sourcehandle: sourcehandles) {
+			if (sourcehandle.startsWith(elementhandle)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}